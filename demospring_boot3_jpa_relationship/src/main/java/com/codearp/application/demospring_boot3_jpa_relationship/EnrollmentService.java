@@ -1,10 +1,22 @@
 package com.codearp.application.demospring_boot3_jpa_relationship;
 
+import com.codearp.application.demospring_boot3_jpa_relationship.concurrency.OptimisticRetryExecutor;
 import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
 import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.enrollment.EnrollmentChangedEvent;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * El uso de EnrollmentService es la de utilizarlo para separar la responsabilidad de mantener la consistencia de la relación bidireccional fuera de las entidades
@@ -16,18 +28,101 @@ import org.springframework.transaction.annotation.Transactional;
  * ✅ Facilita añadir lógica adicional (ej. validar cupos, fechas, prerequisitos, etc.) sin ensuciar las entidades.
  *
  * Estos métodos modificina los paraemtros de entrada
+ *
+ * Los metodos por id son una transaccion cada uno, con bloqueo optimista (@Version en Student y Course): si otra
+ * transaccion ha cambiado antes el alumno se repite entera (OptimisticRetryExecutor). No se bloquea la fila del curso,
+ * asi las matriculas en un mismo curso no esperan unas a otras.
+ *
+ * Cada cambio publica un EnrollmentChangedEvent despues del commit (si la transaccion se deshace no se publica),
+ * con el que se mantiene al dia EnrollmentIndex.
  */
 @Service
 @Transactional(propagation = Propagation.REQUIRED)
+@RequiredArgsConstructor
 public class EnrollmentService {
 
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     public void enroll(Student student, Course course){
         student.addSCourse(course);
         course.addStudent(student);
+        publishAfterCommit(() -> event(EnrollmentChangedEvent.Type.ENROLLED, student, course));
     }
 
     public void unenroll(Student student,Course course){
         student.removeCourse(course);
         course.removeStudent(student);
+        publishAfterCommit(() -> event(EnrollmentChangedEvent.Type.UNENROLLED, student, course));
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
+    public void enroll(Long studentId, Long courseId) {
+        optimisticRetryExecutor.executeWithoutResult("enroll", () -> enroll(
+                studentRepository.findById(studentId).orElseThrow(),
+                courseRepository.findById(courseId).orElseThrow()));
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
+    public void unenroll(Long studentId, Long courseId) {
+        optimisticRetryExecutor.executeWithoutResult("unenroll", () -> unenroll(
+                studentRepository.findById(studentId).orElseThrow(),
+                courseRepository.findById(courseId).orElseThrow()));
+    }
+
+    /**
+     * Matricula a muchos alumnos de una vez sin cargarlos (CourseEnrollmentRepository): un insert ... select por cada
+     * 1000 ids. Los que ya estaban matriculados o no existen se omiten. Devuelve las matriculas nuevas.
+     */
+    public int enrollAll(Long courseId, Collection<Long> studentIds) {
+        List<Long> enrolled = courseRepository.enrollAll(courseId, studentIds);
+        if (!enrolled.isEmpty()) {
+            publishAfterCommit(() -> new EnrollmentChangedEvent(EnrollmentChangedEvent.Type.ENROLLED, courseId, toArray(enrolled)));
+        }
+        return enrolled.size();
+    }
+
+    // devuelve las matriculas borradas
+    public int unenrollAll(Long courseId, Collection<Long> studentIds) {
+        List<Long> unenrolled = courseRepository.unenrollAll(courseId, studentIds);
+        if (!unenrolled.isEmpty()) {
+            publishAfterCommit(() -> new EnrollmentChangedEvent(EnrollmentChangedEvent.Type.UNENROLLED, courseId, toArray(unenrolled)));
+        }
+        return unenrolled.size();
+    }
+
+    // el evento se crea despues del commit (null si no hay que publicar nada)
+    private void publishAfterCommit(Supplier<EnrollmentChangedEvent> event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event.get());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event.get());
+            }
+        });
+    }
+
+    private void publish(EnrollmentChangedEvent event) {
+        if (event != null) {
+            applicationEventPublisher.publishEvent(event);
+        }
+    }
+
+    // los ids se leen despues del commit: el alumno o el curso pueden ser nuevos. Sin id no se guardaron en esa
+    // transaccion (se guardan despues, ver InitDataRunner.manyToMany) y no hay evento: el indice lo ve al reconstruirse
+    private static EnrollmentChangedEvent event(EnrollmentChangedEvent.Type type, Student student, Course course) {
+        if (student.getId() == null || course.getId() == null) {
+            return null;
+        }
+        return new EnrollmentChangedEvent(type, course.getId(), new long[] { student.getId() });
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
     }
 }
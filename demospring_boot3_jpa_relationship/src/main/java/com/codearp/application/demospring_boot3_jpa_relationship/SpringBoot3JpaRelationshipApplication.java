@@ -1,12 +1,21 @@
 package com.codearp.application.demospring_boot3_jpa_relationship;
 
+import com.codearp.application.jpa_support.startup.DeferredJpaBootstrapConfig;
+import com.codearp.application.jpa_support.startup.StartupTasks;
+import com.codearp.application.jpa_support.startup.StartupTimelineReport;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({StartupTasks.class, StartupTimelineReport.class, DeferredJpaBootstrapConfig.class})
 public class SpringBoot3JpaRelationshipApplication{
 
     public static void main(String[] args) {
-        SpringApplication.run(SpringBoot3JpaRelationshipApplication.class, args);
+        SpringApplication application = new SpringApplication(SpringBoot3JpaRelationshipApplication.class);
+        // linea de tiempo del arranque (StartupTimelineReport, /actuator/startup); un arranque son unos pocos miles de pasos
+        application.setApplicationStartup(new BufferingApplicationStartup(10_000));
+        application.run(args);
     }
 }
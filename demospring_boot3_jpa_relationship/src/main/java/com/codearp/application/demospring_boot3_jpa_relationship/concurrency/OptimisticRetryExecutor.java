@@ -0,0 +1,97 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecuta una unidad de trabajo en su propia transaccion y, si falla el bloqueo optimista (@Version), la repite
+ * entera en una transaccion nueva: se vuelven a leer las entidades, ya con la version que ha dejado la otra.
+ *
+ * <ul>
+ *     <li>Hasta max-attempts intentos. Entre uno y otro se espera un tiempo aleatorio entre 0 y
+ *     initial-backoff * 2^(intento - 1), como mucho max-backoff (jitter completo): los que han chocado
+ *     no vuelven a la vez.</li>
+ *     <li>Si se agotan los intentos se lanza la ultima OptimisticLockingFailureException.</li>
+ *     <li>No puede ir dentro de otra transaccion: despues del fallo el contexto de persistencia no sirve y la
+ *     transaccion de fuera ya esta marcada para rollback.</li>
+ * </ul>
+ *
+ * Metricas (etiqueta operation): optimistic.lock.conflicts (fallos de version), optimistic.lock.retries
+ * (intentos repetidos) y optimistic.lock.exhausted (se han agotado los intentos).
+ */
+@Component
+@Slf4j
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${app.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${app.optimistic-retry.initial-backoff:5ms}") Duration initialBackoff,
+                                   @Value("${app.optimistic-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(String operation, TransactionCallback<T> unit) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("La operacion " + operation + " no se puede reintentar dentro de otra transaccion");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(unit);
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                meterRegistry.counter("optimistic.lock.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic.lock.exhausted", "operation", operation).increment();
+                    throw e;
+                }
+                log.debug("Conflicto de version en {} (intento {} de {}): {}", operation, attempt, maxAttempts, e.getMessage());
+                backoff(attempt);
+                meterRegistry.counter("optimistic.lock.retries", "operation", operation).increment();
+            }
+        }
+    }
+
+    public void executeWithoutResult(String operation, Runnable unit) {
+        execute(operation, status -> {
+            unit.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando para reintentar", e);
+        }
+    }
+}
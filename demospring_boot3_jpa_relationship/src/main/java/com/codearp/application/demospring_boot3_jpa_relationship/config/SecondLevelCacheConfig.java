@@ -0,0 +1,53 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cache de segundo nivel de Hibernate (opcional, perfil "cache").
+ *
+ * <ul>
+ *     <li>Las regiones (entidades, colecciones y consultas) y su tamaño / TTL se definen en ehcache.xml.</li>
+ *     <li>El CacheManager de JCache lo crea Spring y se le pasa a Hibernate, asi se pueden publicar en Actuator
+ *     las estadisticas de cada region (gets, hits, misses, puts, removals y evictions) con JCacheMetrics.</li>
+ *     <li>Los hits/misses vistos por Hibernate (hibernate.second.level.cache.*) los publica Spring Boot
+ *     con hibernate-micrometer y hibernate.generate_statistics=true.</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.config:classpath:ehcache.xml}") Resource config) throws IOException {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(config.getURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheRegionMetrics(CacheManager hibernateCacheManager) {
+        return registry -> StreamSupport.stream(hibernateCacheManager.getCacheNames().spliterator(), false)
+                .map(name -> hibernateCacheManager.getCache(name))
+                .forEach(cache -> JCacheMetrics.monitor(registry, cache, List.of()));
+    }
+}
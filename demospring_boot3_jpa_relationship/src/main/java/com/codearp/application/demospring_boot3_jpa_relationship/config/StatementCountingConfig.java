@@ -0,0 +1,71 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.config;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.BatchCountingSessionListener;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.CountingStatementInspector;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.EntityLoadCountingListener;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementBudget;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementBudgetFilter;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementBudgetTransactionListener;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Contador de sentencias SQL, batches y entidades cargadas (paquete statements) con presupuesto por transaccion
+ * y por peticion HTTP, para detectar N+1 sin tener que leer el log de org.hibernate.SQL.
+ *
+ * <ul>
+ *     <li>app.statements.enabled: activa los contadores (por defecto true, el coste es un contador por hilo).</li>
+ *     <li>app.statements.budget.max-selects / max-statements / max-entity-loads: -1 sin limite.</li>
+ *     <li>app.statements.budget.mode: WARN (log) o FAIL (StatementBudgetExceededException, p.e. en los tests).</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.statements.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, BatchCountingSessionListener.class.getName());
+        };
+    }
+
+    /** el listener de PostLoad se registra cuando ya existe la SessionFactory **/
+    @Bean
+    public SmartInitializingSingleton entityLoadCounter(EntityManagerFactory entityManagerFactory) {
+        return () -> entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, new EntityLoadCountingListener());
+    }
+
+    @Bean
+    public StatementBudget statementBudget(@Value("${app.statements.budget.mode:WARN}") StatementBudget.Mode mode,
+                                           @Value("${app.statements.budget.max-selects:-1}") long maxSelects,
+                                           @Value("${app.statements.budget.max-statements:-1}") long maxStatements,
+                                           @Value("${app.statements.budget.max-entity-loads:-1}") long maxEntityLoads) {
+        return new StatementBudget(mode, maxSelects, maxStatements, maxEntityLoads);
+    }
+
+    @Bean
+    public StatementBudgetTransactionListener statementBudgetTransactionListener(StatementBudget statementBudget) {
+        return new StatementBudgetTransactionListener(statementBudget);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(StatementBudget statementBudget) {
+        return new FilterRegistrationBean<>(new StatementBudgetFilter(statementBudget));
+    }
+}
@@ -0,0 +1,51 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.config;
+
+import com.codearp.application.jpa_support.concurrency.DatabaseConcurrencyLimiter;
+import com.codearp.application.jpa_support.concurrency.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Modo hilos virtuales (perfil "virtual-threads", spring.threads.virtual.enabled=true): Tomcat atiende cada
+ * peticion en un hilo virtual, y las llamadas a los repositorios (bloqueantes) se hacen en ese mismo hilo.
+ * Se anade el limite de conexiones a la bbdd (sobre el DataSource de la aplicacion) y la deteccion de hilos clavados.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    // por defecto tantos permisos como conexiones tiene el pool
+    @Bean
+    public DatabaseConcurrencyLimiter databaseConcurrencyLimiter(
+            @Value("${app.virtual-threads.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${app.virtual-threads.db-acquire-timeout:30s}") Duration acquireTimeout) {
+        return new DatabaseConcurrencyLimiter(permits, acquireTimeout);
+    }
+
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiterPostProcessor(ObjectProvider<DatabaseConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return "dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        ? limiter.getObject().limit(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.virtual-threads.pinned-threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
@@ -2,17 +2,22 @@ package com.codearp.application.demospring_boot3_jpa_relationship.domains;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "address")
 @Table(name="ADDRESSES")
 @Getter @Setter
 @Builder @NoArgsConstructor @AllArgsConstructor
 public class Address {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addresses_seq")
+    @SequenceGenerator(name = "addresses_seq", sequenceName = "ADDRESSES_SEQ", allocationSize = 50)
     private Long id;
 
     private String street;
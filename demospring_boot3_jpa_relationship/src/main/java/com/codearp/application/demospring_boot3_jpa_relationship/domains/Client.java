@@ -3,6 +3,10 @@ package com.codearp.application.demospring_boot3_jpa_relationship.domains;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,17 +34,21 @@ import java.util.Optional;
 @NamedQueries({
         @NamedQuery( // usar set, o OrderColum para evitar problmas si son Lista
                 name = "Client.findWithInvoicesAndAddresses",
-                query = "SELECT DISTINCT c FROM Client c left join fetch c.invoices left join fetch c.addresses WHERE c.id = :id"
+                query = "SELECT DISTINCT c FROM Client c left join fetch c.invoices left join fetch c.addresses WHERE c.id = :id",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true") // cache de consultas (perfil "cache")
         ),
 
         @NamedQuery(
                 name = "Client.findInWithInvoicesAndAddresses", // hiberante hace el join internamente
-                query = "SELECT DISTINCT c FROM Client c left join c.invoices WHERE c.id in :ids"
+                query = "SELECT DISTINCT c FROM Client c left join c.invoices WHERE c.id in :ids",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")
         )
 })
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 @Table(name="CLIENTS")
 @Getter @Setter @Builder
 @NoArgsConstructor @AllArgsConstructor
@@ -48,7 +56,10 @@ import java.util.Optional;
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // SEQUENCE (pooled-lo): reserva bloques de 50 ids por viaje a la bbdd y permite el batch de inserts,
+    // IDENTITY obliga a Hibernate a hacer un insert por fila. En MySQL (sin secuencias) se usa la tabla CLIENTS_SEQ
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_seq")
+    @SequenceGenerator(name = "clients_seq", sequenceName = "CLIENTS_SEQ", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -56,6 +67,12 @@ public class Client {
     @Column(name="LAST_NAME")
     private String lastName;
 
+    // baja logica, se marca en bloque con ClientRepository.archive*
+    // default en la columna: los scripts data-*.sql no la informan
+    @Column(name="ARCHIVED", nullable = false)
+    @ColumnDefault("false")
+    private boolean archived;
+
     // Relacion bidireciconal (no crea una tabla, si no un campo en Invoice con client_id, al exitir un JoinColumn)
     // ClIENT ----* INVOICES
     //@OneToMany(mappedBy = "client")
@@ -63,6 +80,7 @@ public class Client {
     @Builder.Default
     //@OrderColumn(name="invoices_order") // solucion 3 de org.hibernate.loader.MultipleBagFetchException, crea una columna en INVOICES
     @BatchSize(size = 10) // Si se usa Join en lugar de JOIN FETCH
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client.invoices") // guarda los ids, las facturas van en la region "invoice"
     public List<Invoice> invoices = new ArrayList<>();
 
     // si no se mapped a un field de Address de tipo Cliente o no se usa JoinColum (no eixte una fk), entonces, crea una tabla CLIENT_ADDRESS con las relaciones
@@ -85,10 +103,13 @@ public class Client {
     @Builder.Default
     @OrderColumn(name="address_order") // solucion 3 de org.hibernate.loader.MultipleBagFetchException, crea una columna en en la tabla addresses o clients_addresses
     @BatchSize(size = 10) // para Join sobre relaciones Lazy, carga en memoria de X en X cuando se hace consultas con in () y se accede a client.getAddress y es de tipo List
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client.addresses")
     public List<Address> addresses = new ArrayList<>();
 
     // Esto dara error si no esta en el contexto
     //@OneToOne(fetch = FetchType.LAZY)
+    // con el perfil de Maven "enhance" pasa a LAZY (META-INF/orm-enhance.xml): el propio Client intercepta el acceso
+    // y lo carga por id, sin clase proxy
     @OneToOne(cascade = CascadeType.ALL,orphanRemoval = true) // recomendado para hacer el addClientDetails
     @JoinColumn(name = "CLIENT_DETAILS_ID")
     private ClientDetails clientDetails; //Client tiene la foreng key
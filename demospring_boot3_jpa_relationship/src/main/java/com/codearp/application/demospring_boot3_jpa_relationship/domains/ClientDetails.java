@@ -2,9 +2,13 @@ package com.codearp.application.demospring_boot3_jpa_relationship.domains;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Table(name="CLIENTS_DETAILS")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clientDetails")
 @Builder @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @EqualsAndHashCode(exclude = {"client"})
@@ -12,7 +16,8 @@ import lombok.*;
 public class ClientDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_details_seq")
+    @SequenceGenerator(name = "clients_details_seq", sequenceName = "CLIENTS_DETAILS_SEQ", allocationSize = 50)
     private Long id;
 
     private boolean premium;
@@ -23,6 +28,8 @@ public class ClientDetails {
 //    private Client client;
 
     // Bidireccional
-    @OneToOne(mappedBy = "clientDetails")
+    // Lado no dueno: sin mejora de bytecode el LAZY se ignora (Hibernate tiene que consultar CLIENTS para saber si
+    // es null), con el perfil de Maven "enhance" no se carga hasta que se accede
+    @OneToOne(mappedBy = "clientDetails", fetch = FetchType.LAZY)
     private Client client;
 }
@@ -2,6 +2,9 @@ package com.codearp.application.demospring_boot3_jpa_relationship.domains;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -9,25 +12,34 @@ import java.util.Optional;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course")
 @Table(name="COURSES")
 @Builder @ToString @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
-@EqualsAndHashCode(exclude = {"students"})
+@EqualsAndHashCode(exclude = {"students", "version"})
 public class Course {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_seq")
+    @SequenceGenerator(name = "courses_seq", sequenceName = "COURSES_SEQ", allocationSize = 50)
     private Long id;
 
     private String name;
     private String description;
 
+    @Version
+    private Long version;
+
 
     // Opcional, para una comunicacion direccional
     // ¡Importante! y para evitar un loop de subcosutlas, excluir en el toString, equals y demas accesos internos en la clase
     // solo debe exitir un acesso o bien Student accede intermanete a Course, o al revés, en este caso, se deja que el acceso
     // sea el propietario de la relación
+    // las matriculas no cambian la version del curso (si no todas las de un curso con muchos alumnos chocarian entre si),
+    // solo la de cada alumno
     @ManyToMany(mappedBy = "courses")
+    @OptimisticLock(excluded = true)
     @ToString.Exclude
     @Builder.Default
     private Set<Student> students = new HashSet<>();
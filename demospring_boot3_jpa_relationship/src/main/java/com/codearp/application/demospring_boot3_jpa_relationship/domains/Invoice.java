@@ -2,23 +2,41 @@ package com.codearp.application.demospring_boot3_jpa_relationship.domains;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyGroup;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Entity
-@Table(name="INVOICES")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "invoice")
+// client_id: facturas de un cliente (coleccion invoices, deleteByClientId); ISSUED_AT: purga por rango de fechas
+@Table(name="INVOICES", indexes = {
+        @Index(name = "idx_invoices_client", columnList = "client_id"),
+        @Index(name = "idx_invoices_issued_at", columnList = "ISSUED_AT")
+})
 @Getter @Setter @Builder
 @NoArgsConstructor @AllArgsConstructor
 @EqualsAndHashCode(exclude = { "client"})
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_seq")
+    @SequenceGenerator(name = "invoices_seq", sequenceName = "INVOICES_SEQ", allocationSize = 50)
     private Long id;
 
+    // grupo perezoso propio: con el perfil de Maven "enhance" no se lee hasta que se accede (sin mejora se ignora)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("description")
     private String description;
     private BigDecimal amount;
 
+    // fecha de emision, las purgas por rango de fechas van por aqui (ClientBulkOperationsService)
+    @Column(name = "ISSUED_AT")
+    private LocalDate issuedAt;
+
     // Crea la FK en INVOICES, que es la tabla dueño
     // Este atributo es opcional para crear una relacion bidirecional,
     // es obligatorio que eixta en bbdd para tenga la relación CLIENTS ---* INVOICES
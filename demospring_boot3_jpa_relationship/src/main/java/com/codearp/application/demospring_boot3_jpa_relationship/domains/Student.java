@@ -2,6 +2,8 @@ package com.codearp.application.demospring_boot3_jpa_relationship.domains;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -9,6 +11,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
 @Table(name="STUDENTS")
 @Builder
 @ToString
@@ -20,7 +24,8 @@ import java.util.Set;
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_seq")
+    @SequenceGenerator(name = "students_seq", sequenceName = "STUDENTS_SEQ", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -28,6 +33,12 @@ public class Student {
     @Column(name="last_name")
     private String lastName;
 
+    // bloqueo optimista: cambia con cada matricula (Student es el propietario de STUDENTS_courses),
+    // EnrollmentService reintenta la transaccion si otra ha cambiado el alumno antes
+    @Version
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
 
     // propietario
     // No se recomienda que se maneje en cascada la REMOVE
@@ -40,7 +51,16 @@ public class Student {
 //            joinColumns = @JoinColumn(name="student_id"), // FK de Student
 //            inverseJoinColumns = @JoinColumn(name="course_id")// FK Course
 //    )
+    // los mismos nombres que genera hibernate, solo para declarar el indice: la clave primaria es
+    // (courses_id, students_id) y sirve para buscar por curso; para cargar los cursos de un alumno hace falta este
+    @JoinTable(
+            name = "STUDENTS_courses",
+            joinColumns = @JoinColumn(name = "students_id"),
+            inverseJoinColumns = @JoinColumn(name = "courses_id"),
+            indexes = @Index(name = "idx_students_courses_student", columnList = "students_id, courses_id")
+    )
     @Builder.Default
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student.courses")
     private Set<Course> courses = new HashSet<>();
 
 
@@ -0,0 +1,17 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.enrollment;
+
+import lombok.Value;
+
+/**
+ * Matriculas (o bajas) de uno o varios alumnos en un curso, ya confirmadas en la bbdd (EnrollmentService lo publica
+ * despues del commit).
+ */
+@Value
+public class EnrollmentChangedEvent {
+
+    public enum Type { ENROLLED, UNENROLLED }
+
+    Type type;
+    Long courseId;
+    long[] studentIds;
+}
@@ -0,0 +1,329 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.enrollment;
+
+import com.codearp.application.jpa_support.startup.StartupTasks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Matriculas (STUDENTS_courses) en memoria: por cada curso los ids de sus alumnos en un mapa de bits comprimido
+ * ({@link CompressedBitmap}) y por cada alumno los ids de sus cursos en un array ordenado. Un alumno tiene pocos cursos:
+ * un mapa de bits por alumno seria un array igual mas cuatro objetos de cabecera, y con miles de alumnos es lo que
+ * mas ocupa.
+ *
+ * Responde sin ir a la bbdd ni cargar entidades (findStudentWithCourseId trae el grafo entero de cada alumno):
+ * <ul>
+ *     <li>pertenencia: {@link #isEnrolled}</li>
+ *     <li>interseccion / union: {@link #studentsInAll}, {@link #studentsInAny}, {@link #countStudentsInAll}</li>
+ *     <li>cardinalidad: {@link #courseSize}, {@link #courseSizes}</li>
+ * </ul>
+ * <ul>
+ *     <li>Se reconstruye entero leyendo la tabla con JDBC al arrancar (ApplicationReadyEvent, en segundo plano con
+ *     app.startup.background-tasks=true, ver {@link StartupTasks}) y con {@link #rebuild()}, que hay que llamar
+ *     despues de cambios que no pasan por EnrollmentService (borrar alumnos o cursos, SQL nativo, cargas por JDBC).</li>
+ *     <li>Se mantiene al dia con los {@link EnrollmentChangedEvent} de EnrollmentService (despues del commit). Los
+ *     cambios que llegan durante una reconstruccion se aplican tambien al indice nuevo.</li>
+ * </ul>
+ * Hasta la primera reconstruccion (o con app.enrollment-index.enabled=false) no esta listo y las consultas devuelven
+ * vacio: hay que ir a la bbdd.
+ *
+ * Metricas: enrollment.index.courses, enrollment.index.students, enrollment.index.bytes (memoria aproximada),
+ * enrollment.index.rebuild (duracion) y enrollment.index.events (cambios aplicados).
+ */
+@Component
+@Slf4j
+public class EnrollmentIndex {
+
+    private static final String SELECT_ENROLLMENTS = "select courses_id, students_id from STUDENTS_courses";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StartupTasks startupTasks;
+    private final boolean enabled;
+    private final Timer rebuildTimer;
+    private final Counter eventCounter;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private boolean ready;
+    // cambios recibidos mientras se reconstruye, null si no hay reconstruccion en curso
+    private List<EnrollmentChangedEvent> pending;
+
+    public EnrollmentIndex(JdbcTemplate jdbcTemplate, StartupTasks startupTasks, MeterRegistry meterRegistry,
+                           @Value("${app.enrollment-index.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.startupTasks = startupTasks;
+        this.enabled = enabled;
+        this.rebuildTimer = Timer.builder("enrollment.index.rebuild").register(meterRegistry);
+        this.eventCounter = Counter.builder("enrollment.index.events").register(meterRegistry);
+        Gauge.builder("enrollment.index.courses", this, EnrollmentIndex::courseCount)
+                .register(meterRegistry);
+        Gauge.builder("enrollment.index.students", this, EnrollmentIndex::studentCount)
+                .register(meterRegistry);
+        Gauge.builder("enrollment.index.bytes", this, EnrollmentIndex::sizeInBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return read(() -> ready);
+    }
+
+    public Optional<Boolean> isEnrolled(long studentId, long courseId) {
+        return query(index -> {
+            CompressedBitmap students = index.studentsByCourse.get(courseId);
+            return students != null && students.contains(studentId);
+        });
+    }
+
+    /** Ids (ordenados) de los alumnos del curso **/
+    public Optional<long[]> studentsOf(long courseId) {
+        return query(index -> toArray(index.studentsByCourse.get(courseId)));
+    }
+
+    /** Ids (ordenados) de los cursos del alumno **/
+    public Optional<long[]> coursesOf(long studentId) {
+        return query(index -> {
+            long[] courses = index.coursesByStudent.get(studentId);
+            return courses == null ? new long[0] : courses.clone();
+        });
+    }
+
+    /** Alumnos matriculados en todos los cursos (interseccion) **/
+    public Optional<long[]> studentsInAll(Collection<Long> courseIds) {
+        return query(index -> toArray(index.intersection(courseIds)));
+    }
+
+    /** Alumnos matriculados en alguno de los cursos (union) **/
+    public Optional<long[]> studentsInAny(Collection<Long> courseIds) {
+        return query(index -> {
+            CompressedBitmap union = new CompressedBitmap();
+            for (Long courseId : courseIds) {
+                CompressedBitmap students = index.studentsByCourse.get(courseId);
+                if (students != null) {
+                    union = union.or(students);
+                }
+            }
+            return union.toArray();
+        });
+    }
+
+    /** Cuantos alumnos estan en todos los cursos, sin construir la lista **/
+    public Optional<Integer> countStudentsInAll(Collection<Long> courseIds) {
+        return query(index -> {
+            List<Long> ids = new ArrayList<>(courseIds);
+            if (ids.size() == 2) {
+                CompressedBitmap first = index.studentsByCourse.get(ids.get(0));
+                CompressedBitmap second = index.studentsByCourse.get(ids.get(1));
+                return first == null || second == null ? 0 : first.andCardinality(second);
+            }
+            CompressedBitmap intersection = index.intersection(ids);
+            return intersection == null ? 0 : intersection.cardinality();
+        });
+    }
+
+    public Optional<Integer> courseSize(long courseId) {
+        return query(index -> {
+            CompressedBitmap students = index.studentsByCourse.get(courseId);
+            return students == null ? 0 : students.cardinality();
+        });
+    }
+
+    /** Alumnos por curso, ordenado por id de curso (solo cursos con alumnos) **/
+    public Optional<Map<Long, Integer>> courseSizes() {
+        return query(index -> {
+            Map<Long, Integer> sizes = new TreeMap<>();
+            index.studentsByCourse.forEach((courseId, students) -> sizes.put(courseId, students.cardinality()));
+            return sizes;
+        });
+    }
+
+    /** Memoria aproximada de los mapas de bits y de los mapas que los contienen **/
+    public long sizeInBytes() {
+        return read(() -> index.sizeInBytes());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (enabled) {
+            startupTasks.run("EnrollmentIndex", this::rebuild);
+        }
+    }
+
+    /** Vuelve a leer la tabla entera; las consultas siguen usando el indice anterior hasta que termina **/
+    public synchronized void rebuild() {
+        write(() -> pending = new ArrayList<>());
+        long start = System.nanoTime();
+        try {
+            Index rebuilt = new Index();
+            jdbcTemplate.query(SELECT_ENROLLMENTS, rs -> {
+                rebuilt.add(rs.getLong(1), rs.getLong(2));
+            });
+
+            write(() -> {
+                pending.forEach(rebuilt::apply);
+                index = rebuilt;
+                ready = true;
+            });
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Indice de matriculas reconstruido en {} ms ({} bytes)", (System.nanoTime() - start) / 1_000_000, sizeInBytes());
+        } finally {
+            write(() -> pending = null);
+        }
+    }
+
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        write(() -> {
+            index.apply(event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        });
+        eventCounter.increment();
+    }
+
+    private int courseCount() {
+        return read(() -> index.studentsByCourse.size());
+    }
+
+    private int studentCount() {
+        return read(() -> index.coursesByStudent.size());
+    }
+
+    private <T> Optional<T> query(Function<Index, T> function) {
+        return read(() -> ready ? Optional.of(function.apply(index)) : Optional.empty());
+    }
+
+    private static long[] toArray(CompressedBitmap bitmap) {
+        return bitmap == null ? new long[0] : bitmap.toArray();
+    }
+
+    private <T> T read(Supplier<T> supplier) {
+        lock.readLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable runnable) {
+        lock.writeLock().lock();
+        try {
+            runnable.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // los dos sentidos de la relacion, siempre se cambian a la vez
+    private static class Index {
+
+        private final Map<Long, CompressedBitmap> studentsByCourse = new HashMap<>();
+        private final Map<Long, long[]> coursesByStudent = new HashMap<>();
+
+        void add(long courseId, long studentId) {
+            studentsByCourse.computeIfAbsent(courseId, id -> new CompressedBitmap()).add(studentId);
+            coursesByStudent.compute(studentId, (id, courses) -> {
+                if (courses == null) {
+                    return new long[] { courseId };
+                }
+                int index = Arrays.binarySearch(courses, courseId);
+                if (index >= 0) {
+                    return courses;
+                }
+                index = -index - 1;
+                long[] updated = new long[courses.length + 1];
+                System.arraycopy(courses, 0, updated, 0, index);
+                updated[index] = courseId;
+                System.arraycopy(courses, index, updated, index + 1, courses.length - index);
+                return updated;
+            });
+        }
+
+        void remove(long courseId, long studentId) {
+            CompressedBitmap students = studentsByCourse.get(courseId);
+            if (students != null && students.remove(studentId) && students.isEmpty()) {
+                studentsByCourse.remove(courseId);
+            }
+            coursesByStudent.computeIfPresent(studentId, (id, courses) -> {
+                int index = Arrays.binarySearch(courses, courseId);
+                if (index < 0) {
+                    return courses;
+                }
+                if (courses.length == 1) {
+                    return null;
+                }
+                long[] updated = new long[courses.length - 1];
+                System.arraycopy(courses, 0, updated, 0, index);
+                System.arraycopy(courses, index + 1, updated, index, courses.length - index - 1);
+                return updated;
+            });
+        }
+
+        // anadir o quitar dos veces es idempotente: da igual aplicar un cambio dos veces
+        void apply(EnrollmentChangedEvent event) {
+            for (long studentId : event.getStudentIds()) {
+                if (event.getType() == EnrollmentChangedEvent.Type.ENROLLED) {
+                    add(event.getCourseId(), studentId);
+                } else {
+                    remove(event.getCourseId(), studentId);
+                }
+            }
+        }
+
+        // null si algun curso no tiene alumnos; se empieza por el mas pequeno
+        CompressedBitmap intersection(Collection<Long> courseIds) {
+            if (courseIds.isEmpty()) {
+                return null;
+            }
+            List<CompressedBitmap> bySize = new ArrayList<>();
+            for (Long courseId : courseIds) {
+                CompressedBitmap students = studentsByCourse.get(courseId);
+                if (students == null) {
+                    return null;
+                }
+                bySize.add(students);
+            }
+            bySize.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+            CompressedBitmap intersection = bySize.get(0).copy();
+            for (int i = 1; i < bySize.size() && !intersection.isEmpty(); i++) {
+                intersection = intersection.and(bySize.get(i));
+            }
+            return intersection;
+        }
+
+        // HashMap: ~48 bytes por entrada (nodo, Long y hueco de la tabla)
+        long sizeInBytes() {
+            long bytes = 96 + 48L * (studentsByCourse.size() + coursesByStudent.size());
+            for (CompressedBitmap students : studentsByCourse.values()) {
+                bytes += students.sizeInBytes();
+            }
+            for (long[] courses : coursesByStudent.values()) {
+                bytes += 16 + 8L * courses.length;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.journal;
+
+import com.codearp.application.jpa_support.journal.ChangeJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Listener de Hibernate que, tras el commit, lleva al diario de cambios cada insert, update o delete de
+ * cualquier entidad (Client, Invoice, Address, ClientDetails, Student, Course) con su estado anterior y el nuevo.
+ *
+ * Del estado se guardan las columnas: las colecciones no, y de las relaciones a uno solo el id.
+ * Las operaciones masivas (JPQL update/delete, SQL nativo) no pasan por aqui.
+ */
+@RequiredArgsConstructor
+public class EntityChangeJournalListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeJournal changeJournal;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        append(event.getPersister(), event.getId(), "CREATED", null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        append(event.getPersister(), event.getId(), "UPDATED", event.getOldState(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        append(event.getPersister(), event.getId(), "DELETED", event.getDeletedState(), null);
+    }
+
+    // si el commit falla no hay nada que guardar
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void append(EntityPersister persister, Object id, String type, Object[] before, Object[] after) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("before", values(persister, before));
+        state.put("after", values(persister, after));
+        changeJournal.append(persister.getMappedClass().getSimpleName(), id, type, state);
+    }
+
+    /** el estado de Hibernate es un Object[] en el orden de persister.getPropertyNames() **/
+    private Map<String, Object> values(EntityPersister persister, Object[] values) {
+        if (values == null) {
+            return null; // alta, baja o update de una entidad detached sin estado cargado
+        }
+        PersistenceUnitUtil persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (types[i].isCollectionType()) {
+                continue;
+            }
+            Object value = values[i];
+            // de un proxy lazy se saca el id sin inicializarlo
+            columns.put(names[i], types[i].isEntityType() && value != null ? persistenceUnitUtil.getIdentifier(value) : value);
+        }
+        return columns;
+    }
+}
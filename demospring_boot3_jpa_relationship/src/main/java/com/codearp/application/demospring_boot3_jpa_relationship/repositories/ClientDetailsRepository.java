@@ -2,6 +2,21 @@ package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
 
 import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface ClientDetailsRepository extends JpaRepository<ClientDetails,Long> {
+
+    // Puntos en bloque: un update en la bbdd en vez de cargar y modificar cada ClientDetails (ver InvoiceRepository.deleteByClientId)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ClientDetails d set d.points = coalesce(d.points, 0) + :delta where d.premium = :premium")
+    int addPointsWherePremium(@Param("premium") boolean premium, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ClientDetails d set d.points = coalesce(d.points, 0) + :delta " +
+            "where d.id in (select c.clientDetails.id from Client c where c.id in :clientIds)")
+    int addPointsToClients(@Param("clientIds") Collection<Long> clientIds, @Param("delta") int delta);
 }
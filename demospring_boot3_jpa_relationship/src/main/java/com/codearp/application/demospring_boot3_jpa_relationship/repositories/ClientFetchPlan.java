@@ -0,0 +1,68 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Colecciones de Client que se quieren cargar junto al cliente (ClientFetchPlanRepository). clientDetails no esta:
+ * se carga siempre con el cliente.
+ *
+ * <code>clientRepository.findAllById(ids, ClientFetchPlan.of(Association.INVOICES, Association.ADDRESSES))</code>
+ */
+public final class ClientFetchPlan {
+
+    public enum Association {
+        INVOICES("invoices"),
+        ADDRESSES("addresses");
+
+        private final String attribute;
+
+        Association(String attribute) {
+            this.attribute = attribute;
+        }
+
+        String attribute() {
+            return attribute;
+        }
+    }
+
+    public static final ClientFetchPlan NONE = new ClientFetchPlan(EnumSet.noneOf(Association.class));
+    public static final ClientFetchPlan ALL = new ClientFetchPlan(EnumSet.allOf(Association.class));
+
+    private final Set<Association> associations;
+
+    private ClientFetchPlan(EnumSet<Association> associations) {
+        this.associations = Collections.unmodifiableSet(associations);
+    }
+
+    public static ClientFetchPlan of(Association... associations) {
+        EnumSet<Association> set = EnumSet.noneOf(Association.class);
+        Collections.addAll(set, associations);
+        return new ClientFetchPlan(set);
+    }
+
+    public Set<Association> getAssociations() {
+        return associations;
+    }
+
+    public boolean includes(Association association) {
+        return associations.contains(association);
+    }
+
+    // se usa como clave de la cache de consultas de ClientFetchPlanRepositoryImpl
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ClientFetchPlan plan && associations.equals(plan.associations));
+    }
+
+    @Override
+    public int hashCode() {
+        return associations.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ClientFetchPlan" + associations;
+    }
+}
@@ -0,0 +1,22 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fragmento de ClientRepository: carga de clientes con las asociaciones que pide el llamante (ClientFetchPlan).
+ *
+ * Cada coleccion va en su propia consulta (join fetch de una sola bag: ni MultipleBagFetchException ni producto
+ * cartesiano facturas x direcciones) y todas rellenan las mismas instancias del contexto de persistencia.
+ * clientDetails (to-one) se une a la primera consulta, no multiplica filas.
+ */
+public interface ClientFetchPlanRepository {
+
+    Optional<Client> findById(Long id, ClientFetchPlan plan);
+
+    // en el orden de ids (los que no existen se omiten)
+    List<Client> findAllById(Collection<Long> ids, ClientFetchPlan plan);
+}
@@ -0,0 +1,83 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientFetchPlan.Association;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consultas de un ClientFetchPlan, con los ids en <code>IN (:ids)</code>:
+ * <ol>
+ *     <li>clientes + clientDetails + la primera coleccion del plan</li>
+ *     <li>una consulta mas por cada coleccion restante, sobre las mismas instancias</li>
+ * </ol>
+ * El JPQL de cada plan se guarda (hay 4 planes posibles) y Hibernate reutiliza su plan de consulta.
+ *
+ * clientDetails va siempre en la primera consulta, con cualquier plan: el mapeo es EAGER y sin el join fetch
+ * Hibernate lo cargaria con una select por cliente (N+1). Es un to-one, no multiplica filas.
+ * Para muchos ids mejor ClientMultiGetLoader, que parte los ids en bloques.
+ */
+@Transactional(readOnly = true)
+public class ClientFetchPlanRepositoryImpl implements ClientFetchPlanRepository {
+
+    private final Map<ClientFetchPlan, List<String>> queriesByPlan = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Client> findById(Long id, ClientFetchPlan plan) {
+        return findAllById(List.of(id), plan).stream().findFirst();
+    }
+
+    @Override
+    public List<Client> findAllById(Collection<Long> ids, ClientFetchPlan plan) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<String> queries = queriesByPlan.computeIfAbsent(plan, ClientFetchPlanRepositoryImpl::queries);
+
+        List<Client> clients = entityManager.createQuery(queries.get(0), Client.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        if (clients.isEmpty()) {
+            return clients;
+        }
+        for (String query : queries.subList(1, queries.size())) {
+            entityManager.createQuery(query, Client.class).setParameter("ids", ids).getResultList();
+        }
+
+        Map<Long, Client> byId = HashMap.newHashMap(clients.size());
+        clients.forEach(client -> byId.put(client.getId(), client));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static List<String> queries(ClientFetchPlan plan) {
+        List<String> collections = plan.getAssociations().stream()
+                .map(Association::attribute)
+                .toList();
+
+        StringBuilder root = new StringBuilder("select distinct c from Client c left join fetch c.clientDetails");
+        if (!collections.isEmpty()) {
+            root.append(" left join fetch c.").append(collections.get(0));
+        }
+        root.append(" where c.id in :ids");
+
+        List<String> queries = new ArrayList<>();
+        queries.add(root.toString());
+        for (String collection : collections.subList(Math.min(1, collections.size()), collections.size())) {
+            queries.add("select distinct c from Client c left join fetch c." + collection + " where c.id in :ids");
+        }
+        return queries;
+    }
+}
@@ -1,17 +1,26 @@
 package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
 
 import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// findById(id, plan) / findAllById(ids, plan): ClientFetchPlanRepository, una consulta por coleccion
 @Repository
-public interface ClientRepository extends JpaRepository<Client,Long> {
+public interface ClientRepository extends JpaRepository<Client,Long>, ClientFetchPlanRepository {
 
+    // cacheable: con el perfil "cache" el resultado va a la cache de consultas (se invalida al escribir en CLIENTS/ADDRESSES)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query(value = "select c from Client c left join fetch c.addresses where c.id = ?1" )
     Optional<Client> finOneWithAddresses(Long id);
 
@@ -28,5 +37,15 @@ public interface ClientRepository extends JpaRepository<Client,Long> {
     @Query(name = "Client.findInWithInvoicesAndAddresses")
     List<Client> findInLazy(@Param("ids") List<Long> id);
 
+    // Archivado en bloque: un update, devuelve las filas cambiadas (ver InvoiceRepository.deleteByClientId)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Client c set c.archived = true where c.id in :ids and c.archived = false")
+    int archiveByIds(@Param("ids") Collection<Long> ids);
+
+    // clientes sin facturas emitidas desde :since
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Client c set c.archived = true where c.archived = false " +
+            "and not exists (select i.id from Invoice i where i.client = c and i.issuedAt >= :since)")
+    int archiveWithoutInvoicesSince(@Param("since") LocalDate since);
 
 }
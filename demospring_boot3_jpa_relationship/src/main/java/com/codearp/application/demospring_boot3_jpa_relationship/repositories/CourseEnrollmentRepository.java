@@ -0,0 +1,17 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fragmento de CourseRepository: matriculas en bloque escribiendo directamente en STUDENTS_courses, sin cargar
+ * ni los alumnos ni Course.students (ver EnrollmentService.enrollAll / unenrollAll).
+ */
+public interface CourseEnrollmentRepository {
+
+    // matricula en el curso a los alumnos que existen y no lo estaban, devuelve sus ids
+    List<Long> enrollAll(Long courseId, Collection<Long> studentIds);
+
+    // da de baja del curso a los alumnos que estaban matriculados, devuelve sus ids
+    List<Long> unenrollAll(Long courseId, Collection<Long> studentIds);
+}
@@ -0,0 +1,138 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Matriculas en bloque con sentencias nativas sobre STUDENTS_courses, por bloques de ids:
+ * <ol>
+ *     <li>flush del contexto de persistencia (las matriculas pendientes tienen que estar en la tabla)</li>
+ *     <li>se bloquean las filas de los alumnos (<code>select ... for update</code>, en orden de id para no
+ *     provocar interbloqueos). Toda matricula sube la version del alumno, asi que otra transaccion que matricule o
+ *     desmatricule a los mismos alumnos espera a que esta termine (y al reves)</li>
+ *     <li>con las filas ya bloqueadas se buscan los alumnos que cambian (existen y no estaban matriculados / estaban
+ *     matriculados). Es lo que se devuelve y se publica: lo que otra transaccion confirmo antes ya no aparece</li>
+ *     <li>se les sube la version (@Version): una transaccion que los tenga cargados falla al guardar y
+ *     EnrollmentService la reintenta</li>
+ *     <li><code>insert ... select</code> de esos alumnos / <code>delete ... in (...)</code></li>
+ *     <li>los alumnos y el curso ya cargados en el contexto se refrescan (refresh), asi sus colecciones no quedan
+ *     desfasadas y dirty checking no vuelve a escribir las mismas filas</li>
+ * </ol>
+ * Las sentencias declaran sus tablas (query spaces): Hibernate invalida la cache de consultas y las regiones de la
+ * cache de segundo nivel afectadas (Student y Student.courses), igual que con un update/delete de JPQL.
+ * No pasan por los listeners de Hibernate (ni EntityChangeJournalListener).
+ */
+@Transactional
+public class CourseEnrollmentRepositoryImpl implements CourseEnrollmentRepository {
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private static final String NOT_ENROLLED = "not exists (select 1 from STUDENTS_courses e where e.students_id = s.id and e.courses_id = :courseId)";
+    private static final String ENROLLED = "exists (select 1 from STUDENTS_courses e where e.students_id = s.id and e.courses_id = :courseId)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> enrollAll(Long courseId, Collection<Long> studentIds) {
+        return forEachChunk(courseId, studentIds, chunk -> {
+            lock(chunk);
+            List<Long> changed = select("select s.id from STUDENTS s where s.id in (:ids) and " + NOT_ENROLLED + " for update", courseId, chunk);
+            if (!changed.isEmpty()) {
+                execute("update STUDENTS s set version = version + 1 where s.id in (:ids) and " + NOT_ENROLLED, courseId, changed);
+                execute("insert into STUDENTS_courses (students_id, courses_id) " +
+                        "select s.id, :courseId from STUDENTS s where s.id in (:ids) and " + NOT_ENROLLED, courseId, changed);
+            }
+            return changed;
+        });
+    }
+
+    @Override
+    public List<Long> unenrollAll(Long courseId, Collection<Long> studentIds) {
+        return forEachChunk(courseId, studentIds, chunk -> {
+            lock(chunk);
+            List<Long> changed = select("select s.id from STUDENTS s where s.id in (:ids) and " + ENROLLED + " for update", courseId, chunk);
+            if (!changed.isEmpty()) {
+                execute("update STUDENTS s set version = version + 1 where s.id in (:ids) and " + ENROLLED, courseId, changed);
+                execute("delete from STUDENTS_courses where courses_id = :courseId and students_id in (:ids)", courseId, changed);
+            }
+            return changed;
+        });
+    }
+
+    private List<Long> forEachChunk(Long courseId, Collection<Long> studentIds, Function<List<Long>, List<Long>> writer) {
+        List<Long> distinctIds = studentIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        entityManager.flush();
+
+        List<Long> changed = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+            changed.addAll(writer.apply(distinctIds.subList(from, Math.min(from + ID_CHUNK_SIZE, distinctIds.size()))));
+        }
+        if (!changed.isEmpty()) {
+            refreshManaged(courseId, new HashSet<>(changed));
+        }
+        return changed;
+    }
+
+    // el select de los que cambian es una lectura con bloqueo: en MySQL (REPEATABLE READ) ve lo ultimo confirmado
+    // y no la foto del principio de la transaccion
+    private void lock(List<Long> studentIds) {
+        entityManager.createNativeQuery("select s.id from STUDENTS s where s.id in (:ids) order by s.id for update")
+                .setParameter("ids", studentIds)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> select(String sql, Long courseId, List<Long> studentIds) {
+        List<Number> ids = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .setParameter("courseId", courseId)
+                .setParameterList("ids", studentIds)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private int execute(String sql, Long courseId, List<Long> studentIds) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Student.class)
+                .addSynchronizedQuerySpace("STUDENTS_courses")
+                .setParameter("courseId", courseId)
+                .setParameterList("ids", studentIds)
+                .executeUpdate();
+    }
+
+    private void refreshManaged(Long courseId, Set<Long> studentIds) {
+        List<Object> managed = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : entityManager.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getStatus() != Status.MANAGED) {
+                continue;
+            }
+            if (entry.getKey() instanceof Student student && studentIds.contains(student.getId())
+                    || entry.getKey() instanceof Course course && courseId.equals(course.getId())) {
+                managed.add(entry.getKey());
+            }
+        }
+        managed.forEach(entityManager::refresh);
+    }
+}
@@ -4,6 +4,7 @@ import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+// enrollAll / unenrollAll: CourseEnrollmentRepository, sentencias directas sobre STUDENTS_courses
 @Repository
-public interface CourseRepository extends JpaRepository<Course,Long> {
+public interface CourseRepository extends JpaRepository<Course,Long>, CourseEnrollmentRepository {
 }
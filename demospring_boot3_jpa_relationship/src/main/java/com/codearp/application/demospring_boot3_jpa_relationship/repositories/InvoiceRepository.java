@@ -1,9 +1,39 @@
 package com.codearp.application.demospring_boot3_jpa_relationship.repositories;
 
 import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice,Long> {
+
+    // Paginacion keyset (seek) de las facturas de un cliente: "where client_id = ? and id > ?" en vez de OFFSET
+    Window<Invoice> findByClientIdOrderByIdAsc(Long clientId, ScrollPosition position, Limit limit);
+
+    // Borrados en bloque: un unico delete en la bbdd, sin cargar las facturas ni pasar por orphanRemoval.
+    // flushAutomatically: lo pendiente se escribe antes; clearAutomatically: las entidades cargadas en el contexto
+    // dejan de ser validas y se descartan. Las regiones de cache de INVOICES (invoice, client.invoices) las invalida Hibernate.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Invoice i where i.client.id = :clientId")
+    int deleteByClientId(@Param("clientId") Long clientId);
+
+    // [from, to) y ademas un rango de ids, para borrar por bloques (ClientBulkOperationsService.purgeInvoicesIssuedBetween)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Invoice i where i.issuedAt >= :from and i.issuedAt < :to and i.id between :firstId and :lastId")
+    int deleteIssuedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                            @Param("firstId") Long firstId, @Param("lastId") Long lastId);
+
+    @Query("select min(i.id) from Invoice i where i.issuedAt >= :from and i.issuedAt < :to")
+    Long findMinIdIssuedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select max(i.id) from Invoice i where i.issuedAt >= :from and i.issuedAt < :to")
+    Long findMaxIdIssuedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
@@ -0,0 +1,81 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.runner;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark de inserts de clientes con sus facturas (cascade ALL) a traves de ClientRepository.saveAll.
+ *
+ * <ul>
+ *     <li>perfil <code>benchmark</code>: ids SEQUENCE pooled-lo, Hibernate agrupa los inserts en batch de JDBC.</li>
+ *     <li>perfil <code>benchmark,identity</code>: ids IDENTITY (META-INF/orm-identity.xml), un insert por fila.</li>
+ * </ul>
+ *
+ * Cada bloque (chunk-size clientes) se guarda en su propia transaccion, asi el contexto de persistencia no crece.
+ */
+@Component
+@Profile("benchmark")
+@Slf4j
+@RequiredArgsConstructor
+public class IdGenerationBenchmarkRunner implements CommandLineRunner {
+
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    @Value("${app.benchmark.clients:2000}")
+    private int clients;
+
+    @Value("${app.benchmark.invoices-per-client:10}")
+    private int invoicesPerClient;
+
+    @Value("${app.benchmark.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public void run(String... args) {
+        String mode = environment.acceptsProfiles(Profiles.of("identity")) ? "IDENTITY" : "SEQUENCE pooled-lo";
+
+        // calentamiento (carga de clases, plan de las sentencias, pool de conexiones)
+        insert(Math.min(chunkSize, clients));
+
+        long start = System.nanoTime();
+        long rows = insert(clients);
+        long elapsedNanos = System.nanoTime() - start;
+
+        double seconds = elapsedNanos / 1_000_000_000d;
+        log.info("Benchmark ids {}: {} filas (clientes + facturas) en {} ms -> {} filas/s",
+                mode, rows, Math.round(elapsedNanos / 1_000_000d), Math.round(rows / seconds));
+    }
+
+    private long insert(int total) {
+        long rows = 0;
+        for (int from = 0; from < total; from += chunkSize) {
+            List<Client> chunk = new ArrayList<>(chunkSize);
+            for (int i = from; i < Math.min(from + chunkSize, total); i++) {
+                Client client = Client.builder().name("Client " + i).lastName("Benchmark").build();
+                for (int j = 0; j < invoicesPerClient; j++) {
+                    client.addInvoice(Invoice.builder().description("Invoice " + j).amount(BigDecimal.valueOf(j)).build());
+                }
+                chunk.add(client);
+            }
+            transactionTemplate.executeWithoutResult(status -> clientRepository.saveAll(chunk));
+            rows += (long) chunk.size() * (1 + invoicesPerClient);
+        }
+        return rows;
+    }
+}
@@ -3,6 +3,9 @@ package com.codearp.application.demospring_boot3_jpa_relationship.runner;
 import com.codearp.application.demospring_boot3_jpa_relationship.EnrollmentService;
 import com.codearp.application.demospring_boot3_jpa_relationship.domains.*;
 import com.codearp.application.demospring_boot3_jpa_relationship.repositories.*;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientBulkIngestionService;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.IngestionReport;
+import com.codearp.application.jpa_support.startup.StartupTasks;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -13,6 +16,7 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 @Component
 @Slf4j
@@ -25,8 +29,16 @@ public class InitDataRunner implements CommandLineRunner {
     private final AddressRepository addressRepository;
 
     private final ClientDetailsRepository clientDetailsRepository;
+
+    private final StartupTasks startupTasks;
+
     @Override
-    public void run(String... args) throws Exception {
+    public void run(String... args) {
+        // con el perfil "fast-startup" los ejemplos no retrasan el arranque
+        startupTasks.run("InitDataRunner", this::examples);
+    }
+
+    private void examples() {
         // ### EXAMPLE ManyToOne() (Bidireccional) ###
         //manyToOne();
         //manyToOneAboutAClientExist();
@@ -54,6 +66,9 @@ public class InitDataRunner implements CommandLineRunner {
 
         // Ejmplo ManyToMany
         manyToMany();
+
+        // Ejemplo carga masiva (flush + clear por bloques)
+        //bulkIngestion();
     }
 
     /**
@@ -534,4 +549,19 @@ public class InitDataRunner implements CommandLineRunner {
 
 
     }
+
+    private final ClientBulkIngestionService clientBulkIngestionService;
+
+    /**
+     * Ejemplo de carga masiva: los clientes se generan con un Stream (no se tienen todos en memoria)
+     * y el servicio los persiste por bloques, haciendo flush + clear del contexto de persistencia.
+     */
+    public void bulkIngestion(){
+        IngestionReport report = clientBulkIngestionService.ingest(
+                IntStream.range(0, 10_000).mapToObj(i -> Client.builder().name("Client " + i).lastName("Bulk").build()
+                        .addInvoice(Invoice.builder().description("Alta").amount(BigDecimal.valueOf(100)).build())
+                        .addInvoice(Invoice.builder().description("Cuota").amount(BigDecimal.valueOf(20)).build()))
+        );
+        System.out.println(report);
+    }
 }
@@ -0,0 +1,104 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.services;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientDetailsRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.InvoiceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Operaciones en bloque sobre clientes, facturas y detalles: sentencias update/delete de JPQL en vez de cargar
+ * cada entidad y dejar que el cascade / orphanRemoval borre fila a fila.
+ *
+ * <ul>
+ *     <li>Devuelven las filas afectadas (y se suman en la metrica bulk.rows, etiqueta operation).</li>
+ *     <li>Los repositorios usan clearAutomatically: las entidades ya cargadas en el contexto se descartan.</li>
+ *     <li>Hibernate invalida las regiones de la cache de segundo nivel de las tablas afectadas.</li>
+ *     <li>No hay callbacks (@PreRemove...) ni cascades: las facturas se borran directamente.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class ClientBulkOperationsService {
+
+    private final InvoiceRepository invoiceRepository;
+    private final ClientRepository clientRepository;
+    private final ClientDetailsRepository clientDetailsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.bulk.delete-chunk-size:10000}")
+    private int deleteChunkSize;
+
+    public ClientBulkOperationsService(InvoiceRepository invoiceRepository, ClientRepository clientRepository,
+                                       ClientDetailsRepository clientDetailsRepository,
+                                       TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.invoiceRepository = invoiceRepository;
+        this.clientRepository = clientRepository;
+        this.clientDetailsRepository = clientDetailsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Transactional
+    public int deleteInvoicesOfClient(Long clientId) {
+        return report("delete-invoices-of-client", invoiceRepository.deleteByClientId(clientId));
+    }
+
+    /**
+     * Borra las facturas emitidas en [from, to). No es un unico delete: se recorre el rango de ids en bloques de
+     * app.bulk.delete-chunk-size, cada uno en su transaccion, para no bloquear la tabla ni llenar el undo log
+     * de la bbdd con millones de filas.
+     */
+    public long purgeInvoicesIssuedBetween(LocalDate from, LocalDate to) {
+        Long minId = invoiceRepository.findMinIdIssuedBetween(from, to);
+        Long maxId = invoiceRepository.findMaxIdIssuedBetween(from, to);
+        if (minId == null) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        long deleted = 0;
+        for (long chunkStart = minId; chunkStart <= maxId; chunkStart += deleteChunkSize) {
+            long first = chunkStart;
+            long last = Math.min(chunkStart + deleteChunkSize - 1, maxId);
+            deleted += transactionTemplate.execute(status -> invoiceRepository.deleteIssuedBetween(from, to, first, last));
+        }
+        log.info("Purga de facturas [{}, {}): {} filas en {} ms", from, to, deleted, (System.nanoTime() - start) / 1_000_000);
+        meterRegistry.counter("bulk.rows", "operation", "purge-invoices").increment(deleted);
+        return deleted;
+    }
+
+    @Transactional
+    public int archiveClients(Collection<Long> clientIds) {
+        return report("archive-clients", clientRepository.archiveByIds(clientIds));
+    }
+
+    @Transactional
+    public int archiveClientsWithoutInvoicesSince(LocalDate since) {
+        return report("archive-inactive-clients", clientRepository.archiveWithoutInvoicesSince(since));
+    }
+
+    @Transactional
+    public int addPointsToClients(Collection<Long> clientIds, int delta) {
+        return report("add-points", clientDetailsRepository.addPointsToClients(clientIds, delta));
+    }
+
+    @Transactional
+    public int addPointsToPremiumClients(int delta) {
+        return report("add-points-premium", clientDetailsRepository.addPointsWherePremium(true, delta));
+    }
+
+    private int report(String operation, int rows) {
+        log.info("Operacion en bloque {}: {} filas", operation, rows);
+        meterRegistry.counter("bulk.rows", "operation", operation).increment(rows);
+        return rows;
+    }
+}
@@ -0,0 +1,31 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.services;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.InvoiceRepository;
+import com.codearp.application.jpa_support.pagination.ContinuationTokens;
+import com.codearp.application.jpa_support.pagination.KeysetPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Facturas de un cliente paginadas por keyset (InvoiceRepository.findByClientIdOrderByIdAsc): cada pagina empieza
+ * despues del ultimo id leido, una pagina profunda cuesta lo mismo que la primera (sin OFFSET).
+ */
+@Service
+@RequiredArgsConstructor
+public class ClientInvoicesService {
+
+    private final InvoiceRepository invoiceRepository;
+
+    /**
+     * <code>token</code> es el nextToken de la pagina anterior (nulo para la primera).
+     * Un token manipulado da IllegalArgumentException.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Invoice> findInvoices(Long clientId, String token, int size) {
+        return KeysetPage.of(invoiceRepository.findByClientIdOrderByIdAsc(
+                clientId, ContinuationTokens.decode(token), Limit.of(size)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.services;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientFetchPlan;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga de muchos clientes por id (p.e. la conciliacion, 200k ids) con sus facturas y direcciones.
+ *
+ * ClientRepository.findInLazy manda un unico <code>IN (...)</code> con todos los ids: choca con el limite de
+ * parametros de la bbdd, va por una sola conexion y las colecciones se cargan despues de 10 en 10 (@BatchSize).
+ * Aqui los ids (sin repetidos) se parten en bloques de chunk-size y cada bloque se carga en su propia transaccion
+ * de solo lectura, en paralelo (parallelism hilos, una conexion cada uno), con un ClientFetchPlan: una consulta
+ * por coleccion (ClientFetchPlanRepository). El resultado sigue el orden de los ids de entrada (los que no existen se omiten). Los clientes vuelven
+ * desacoplados (detached) con las colecciones ya inicializadas.
+ *
+ * parallelism debe quedar por debajo del tamano del pool, para no dejar sin conexiones al resto de la aplicacion.
+ */
+@Service
+public class ClientMultiGetLoader implements DisposableBean {
+
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public ClientMultiGetLoader(ClientRepository clientRepository, PlatformTransactionManager transactionManager,
+                                @Value("${app.multi-get.chunk-size:1000}") int chunkSize,
+                                @Value("${app.multi-get.parallelism:4}") int parallelism) {
+        this.clientRepository = clientRepository;
+        this.chunkSize = chunkSize;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "client-multi-get-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<Client> findAllWithInvoicesAndAddresses(List<Long> ids) {
+        return findAll(ids, ClientFetchPlan.ALL);
+    }
+
+    public List<Client> findAll(List<Long> ids, ClientFetchPlan plan) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+
+        List<CompletableFuture<List<Client>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> clientRepository.findAllById(chunk, plan)), executor));
+        }
+
+        Map<Long, Client> byId = HashMap.newHashMap(distinctIds.size());
+        for (CompletableFuture<List<Client>> chunk : chunks) {
+            join(chunk).forEach(client -> byId.put(client.getId(), client));
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // la excepcion del bloque (p.e. DataAccessException) tal cual, sin envolver
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,208 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.services;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Puntos de fidelidad (ClientDetails.points) con escritura diferida (write-behind).
+ *
+ * Cargar el cliente, sumar y guardar por cada incremento es un viaje de ida y vuelta a la bbdd y todos compiten por
+ * el bloqueo de la misma fila. Aqui {@link #addPoints} solo suma en memoria, en un LongAdder por cliente (el unico
+ * bloqueo es el de la entrada del cliente en el ConcurrentHashMap, mientras dura la suma). Cada flush-interval un hilo
+ * aparte vacia lo acumulado: un unico
+ * <code>update ... set points = points + ?</code> por cliente, todos en un batch de JDBC y una sola transaccion.
+ *
+ * <ul>
+ *     <li>flush-interval es la cota de durabilidad: si la aplicacion muere sin parar se pierde como mucho lo sumado
+ *     en ese intervalo. Al parar (destroy) se vacia lo pendiente.</li>
+ *     <li>Si el update falla lo acumulado no se descarta, se reintenta en el siguiente flush.</li>
+ *     <li>{@link #getPoints} lee la bbdd y le suma lo pendiente (se leen las propias escrituras).</li>
+ *     <li>El update no pasa por Hibernate: despues del commit se expulsan de la cache de segundo nivel los
+ *     ClientDetails actualizados. Una entidad ya cargada en un contexto de persistencia no se entera.</li>
+ *     <li>Los incrementos de un cliente sin ClientDetails se descartan (con un warning).</li>
+ *     <li>Con el perfil "shared-pk" (app.client-details.shared-primary-key=true) el id del ClientDetails es el del
+ *     cliente: no hay CLIENTS.CLIENT_DETAILS_ID y no hace falta pasar por CLIENTS.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class ClientPointsAccumulator implements DisposableBean {
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+    // puntos de un cliente e ids de ClientDetails por id de cliente, segun el mapeo de Client / ClientDetails
+    private final String selectPoints;
+    private final String selectDetailsIds;
+
+    // id del cliente -> puntos sumados y todavia no escritos
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // flush (escritura) frente a getPoints (lectura): entre el commit y la resta lo pendiente no debe contarse dos veces
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ClientPointsAccumulator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry,
+                                   @Value("${app.points.flush-interval:1s}") Duration flushInterval,
+                                   @Value("${app.client-details.shared-primary-key:false}") boolean sharedPrimaryKey) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        if (sharedPrimaryKey) {
+            this.selectPoints = "select d.points from CLIENTS_DETAILS d where d.id = ?";
+            this.selectDetailsIds = "select id, id from CLIENTS_DETAILS where id in (:ids)";
+        } else {
+            this.selectPoints = "select d.points from CLIENTS c join CLIENTS_DETAILS d on d.id = c.CLIENT_DETAILS_ID where c.id = ?";
+            this.selectDetailsIds = "select id, CLIENT_DETAILS_ID from CLIENTS where id in (:ids) and CLIENT_DETAILS_ID is not null";
+        }
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("points.pending.clients", pending, Map::size).register(meterRegistry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "client-points-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::scheduledFlush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Suma (o resta, con delta negativo) puntos al cliente, se escriben en el siguiente flush **/
+    public void addPoints(long clientId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        // la suma se hace dentro de compute: el flush comprueba el cero y quita el acumulador en otro compute
+        // sobre la misma entrada, no puede quitarlo entre que este hilo lo obtiene y le suma
+        pending.compute(clientId, (id, points) -> {
+            LongAdder adder = points == null ? new LongAdder() : points;
+            adder.add(delta);
+            return adder;
+        });
+    }
+
+    /** Puntos sumados y todavia no escritos en la bbdd **/
+    public long getPendingPoints(long clientId) {
+        LongAdder points = pending.get(clientId);
+        return points == null ? 0 : points.sum();
+    }
+
+    /** Puntos del cliente: los de la bbdd mas los pendientes. Vacio si el cliente no existe o no tiene ClientDetails **/
+    public Optional<Long> getPoints(long clientId) {
+        lock.readLock().lock();
+        try {
+            List<Integer> points = jdbcTemplate.query(selectPoints, (rs, rowNum) -> rs.getInt(1), clientId);
+            return points.stream().findFirst().map(stored -> stored + getPendingPoints(clientId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Escribe ahora lo pendiente, devuelve los ClientDetails actualizados **/
+    public int flush() {
+        lock.writeLock().lock();
+        try {
+            Map<Long, Long> deltas = new HashMap<>();
+            pending.forEach((clientId, points) -> {
+                long delta = points.sum();
+                if (delta != 0) {
+                    deltas.put(clientId, delta);
+                } else {
+                    // sin cambios desde el ultimo flush: la comprobacion y el borrado en un solo paso, un addPoints
+                    // concurrente suma antes (y el acumulador se queda) o despues (y crea otro)
+                    pending.computeIfPresent(clientId, (id, current) -> current.sum() == 0 ? null : current);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            Map<Long, Long> detailsIds = transactionTemplate.execute(status -> write(deltas));
+            // solo despues del commit: si falla, lo pendiente se queda para el siguiente flush
+            deltas.forEach((clientId, delta) -> pending.get(clientId).add(-delta));
+
+            detailsIds.values().forEach(detailsId -> entityManagerFactory.getCache().evict(ClientDetails.class, detailsId));
+            if (detailsIds.size() < deltas.size()) {
+                log.warn("Puntos descartados de {} clientes sin ClientDetails", deltas.size() - detailsIds.size());
+            }
+            log.debug("Puntos de {} clientes escritos en {} ms", detailsIds.size(), (System.nanoTime() - start) / 1_000_000);
+            meterRegistry.counter("points.flushed.rows").increment(detailsIds.size());
+            return detailsIds.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // id del cliente -> id de su ClientDetails, solo los que se han actualizado
+    private Map<Long, Long> write(Map<Long, Long> deltas) {
+        Map<Long, Long> detailsIds = HashMap.newHashMap(deltas.size());
+        List<Long> clientIds = new ArrayList<>(deltas.keySet());
+        for (int from = 0; from < clientIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = clientIds.subList(from, Math.min(from + ID_CHUNK_SIZE, clientIds.size()));
+            namedParameterJdbcTemplate.query(selectDetailsIds, new MapSqlParameterSource("ids", chunk),
+                    rs -> {
+                        detailsIds.put(rs.getLong(1), rs.getLong(2));
+                    });
+        }
+
+        List<Object[]> updates = new ArrayList<>(detailsIds.size());
+        detailsIds.forEach((clientId, detailsId) -> updates.add(new Object[]{deltas.get(clientId), detailsId}));
+        jdbcTemplate.batchUpdate("update CLIENTS_DETAILS set points = coalesce(points, 0) + ? where id = ?", updates);
+        return detailsIds;
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("No se pueden escribir los puntos pendientes de {} clientes, se reintenta en el siguiente flush",
+                    pending.size(), e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Puntos perdidos al parar: {}", pending, e);
+        }
+    }
+}
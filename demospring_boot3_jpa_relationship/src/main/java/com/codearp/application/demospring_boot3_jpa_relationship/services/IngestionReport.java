@@ -0,0 +1,20 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.services;
+
+import lombok.Value;
+
+/**
+ * Resumen de una carga masiva hecha con {@link ClientBulkIngestionService}.
+ * Las metricas por bloque se publican en Micrometer (ingestion.chunk.*), aqui solo quedan los totales.
+ */
+@Value
+public class IngestionReport {
+
+    long chunks;
+    long aggregates; // clientes
+    long rows;       // clientes + facturas + direcciones + detalles
+    long elapsedMillis;
+
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000d / elapsedMillis;
+    }
+}
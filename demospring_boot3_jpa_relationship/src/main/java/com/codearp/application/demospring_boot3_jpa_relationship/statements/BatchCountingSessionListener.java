@@ -0,0 +1,15 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Cuenta las ejecuciones de batch JDBC (executeBatch). Hibernate crea una instancia por sesion
+ * (hibernate.session.events.auto), por eso necesita el constructor sin argumentos.
+ */
+public class BatchCountingSessionListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        StatementCounter.batch();
+    }
+}
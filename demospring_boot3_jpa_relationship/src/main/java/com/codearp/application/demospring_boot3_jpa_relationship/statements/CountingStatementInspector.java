@@ -0,0 +1,15 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate le pasa cada sentencia SQL antes de prepararla: se cuenta por tipo y se devuelve sin cambios.
+ */
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        StatementCounter.statement(sql);
+        return sql;
+    }
+}
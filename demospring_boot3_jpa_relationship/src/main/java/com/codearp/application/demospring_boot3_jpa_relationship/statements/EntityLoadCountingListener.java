@@ -0,0 +1,15 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Cuenta las entidades que Hibernate carga (hidrata), vengan de la consulta principal o de una coleccion lazy.
+ */
+public class EntityLoadCountingListener implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        StatementCounter.entityLoad();
+    }
+}
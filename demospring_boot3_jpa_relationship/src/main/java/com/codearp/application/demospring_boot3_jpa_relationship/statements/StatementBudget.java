@@ -0,0 +1,45 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limites de sentencias por transaccion o por peticion HTTP (app.statements.budget.*, -1 sin limite).
+ * Al superarlos se escribe un warning con los contadores o, en modo FAIL, se lanza StatementBudgetExceededException.
+ */
+@Slf4j
+public class StatementBudget {
+
+    public enum Mode { WARN, FAIL }
+
+    private final Mode mode;
+    private final long maxSelects;
+    private final long maxStatements;
+    private final long maxEntityLoads;
+
+    public StatementBudget(Mode mode, long maxSelects, long maxStatements, long maxEntityLoads) {
+        this.mode = mode;
+        this.maxSelects = maxSelects;
+        this.maxStatements = maxStatements;
+        this.maxEntityLoads = maxEntityLoads;
+    }
+
+    public void check(String scope, StatementCounts counts) {
+        if (!exceeded(counts.getSelects(), maxSelects)
+                && !exceeded(counts.statements(), maxStatements)
+                && !exceeded(counts.getEntityLoads(), maxEntityLoads)) {
+            log.debug("{}: {}", scope, counts);
+            return;
+        }
+
+        String message = "%s supera el presupuesto de sentencias (selects <= %d, sentencias <= %d, entidades <= %d), posible N+1: %s"
+                .formatted(scope, maxSelects, maxStatements, maxEntityLoads, counts);
+        if (mode == Mode.FAIL) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private static boolean exceeded(long value, long max) {
+        return max >= 0 && value > max;
+    }
+}
@@ -0,0 +1,11 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+/**
+ * Una transaccion o una peticion ha superado el presupuesto de sentencias (app.statements.budget.mode=fail).
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
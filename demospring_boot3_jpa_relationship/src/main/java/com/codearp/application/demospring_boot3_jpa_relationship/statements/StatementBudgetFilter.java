@@ -0,0 +1,31 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Presupuesto por peticion HTTP: incluye todas las transacciones de la peticion y las cargas lazy fuera de ellas
+ * (open-in-view, enable_lazy_load_no_trans).
+ */
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementBudget statementBudget;
+
+    public StatementBudgetFilter(StatementBudget statementBudget) {
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCounts start = StatementCounter.snapshot();
+        filterChain.doFilter(request, response);
+        statementBudget.check("Peticion " + request.getMethod() + " " + request.getRequestURI(),
+                StatementCounter.snapshot().minus(start));
+    }
+}
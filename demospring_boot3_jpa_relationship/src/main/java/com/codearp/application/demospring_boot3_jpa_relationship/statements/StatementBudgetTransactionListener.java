@@ -0,0 +1,49 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Presupuesto por transaccion: foto de los contadores al empezar y comprobacion antes del commit
+ * (en modo FAIL la excepcion hace rollback). Pila por hilo para las transacciones REQUIRES_NEW.
+ */
+public class StatementBudgetTransactionListener implements TransactionExecutionListener {
+
+    private static final ThreadLocal<Deque<StatementCounts>> STARTS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final StatementBudget statementBudget;
+
+    public StatementBudgetTransactionListener(StatementBudget statementBudget) {
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            STARTS.get().push(StatementCounter.snapshot());
+        }
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        StatementCounts start = STARTS.get().peek();
+        if (start != null) {
+            // TransactionTemplate no da nombre a la transaccion, @Transactional usa clase.metodo
+            String name = transaction.getTransactionName().isEmpty() ? "(sin nombre)" : transaction.getTransactionName();
+            statementBudget.check("Transaccion " + name, StatementCounter.snapshot().minus(start));
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        STARTS.get().poll();
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        STARTS.get().poll();
+    }
+}
@@ -0,0 +1,58 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+/**
+ * Asserts de sentencias para los tests de integracion (mismo hilo que el test):
+ * <pre>
+ *     StatementCountAssertions.reset();
+ *     clientRepository.findInLazy(ids).forEach(c -> c.getInvoices().size());
+ *     StatementCountAssertions.assertSelectCount(2);
+ * </pre>
+ * Requiere app.statements.enabled=true (valor por defecto).
+ */
+public final class StatementCountAssertions {
+
+    private static final ThreadLocal<StatementCounts> BASELINE = ThreadLocal.withInitial(() -> StatementCounts.ZERO);
+
+    private StatementCountAssertions() {
+    }
+
+    /** los asserts cuentan a partir de aqui **/
+    public static void reset() {
+        BASELINE.set(StatementCounter.snapshot());
+    }
+
+    /** lo que se ha ejecutado desde el ultimo reset **/
+    public static StatementCounts counts() {
+        return StatementCounter.snapshot().minus(BASELINE.get());
+    }
+
+    public static void assertSelectCount(long expected) {
+        check("selects", expected, counts().getSelects());
+    }
+
+    public static void assertInsertCount(long expected) {
+        check("inserts", expected, counts().getInserts());
+    }
+
+    public static void assertUpdateCount(long expected) {
+        check("updates", expected, counts().getUpdates());
+    }
+
+    public static void assertDeleteCount(long expected) {
+        check("deletes", expected, counts().getDeletes());
+    }
+
+    public static void assertBatchCount(long expected) {
+        check("batches", expected, counts().getBatches());
+    }
+
+    public static void assertEntityLoadCount(long expected) {
+        check("entidades cargadas", expected, counts().getEntityLoads());
+    }
+
+    private static void check(String what, long expected, long actual) {
+        if (expected != actual) {
+            throw new AssertionError("Se esperaban %d %s y ha habido %d: %s".formatted(expected, what, actual, counts()));
+        }
+    }
+}
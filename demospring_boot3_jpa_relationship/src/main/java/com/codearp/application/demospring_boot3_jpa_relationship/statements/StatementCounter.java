@@ -0,0 +1,63 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+/**
+ * Contadores por hilo de lo que hace Hibernate: sentencias (CountingStatementInspector), ejecuciones de batch
+ * (BatchCountingSessionListener) y entidades cargadas (EntityLoadCountingListener).
+ *
+ * Los contadores solo crecen: para saber lo que ha hecho un trozo de codigo se toma una foto antes y otra despues,
+ * asi las transacciones anidadas (REQUIRES_NEW) y la peticion HTTP que las contiene se pueden medir a la vez.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[7]);
+
+    private static final int SELECT = 0;
+    private static final int INSERT = 1;
+    private static final int UPDATE = 2;
+    private static final int DELETE = 3;
+    private static final int OTHER = 4;
+    private static final int BATCH = 5;
+    private static final int ENTITY_LOAD = 6;
+
+    private StatementCounter() {
+    }
+
+    public static StatementCounts snapshot() {
+        long[] counts = COUNTS.get();
+        return new StatementCounts(counts[SELECT], counts[INSERT], counts[UPDATE], counts[DELETE], counts[OTHER],
+                counts[BATCH], counts[ENTITY_LOAD]);
+    }
+
+    static void statement(String sql) {
+        COUNTS.get()[type(sql)]++;
+    }
+
+    static void batch() {
+        COUNTS.get()[BATCH]++;
+    }
+
+    static void entityLoad() {
+        COUNTS.get()[ENTITY_LOAD]++;
+    }
+
+    private static int type(String sql) {
+        String trimmed = sql.stripLeading();
+        if (startsWith(trimmed, "select") || startsWith(trimmed, "with")) {
+            return SELECT;
+        }
+        if (startsWith(trimmed, "insert")) {
+            return INSERT;
+        }
+        if (startsWith(trimmed, "update") || startsWith(trimmed, "merge")) {
+            return UPDATE;
+        }
+        if (startsWith(trimmed, "delete")) {
+            return DELETE;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWith(String sql, String keyword) {
+        return sql.regionMatches(true, 0, keyword, 0, keyword.length());
+    }
+}
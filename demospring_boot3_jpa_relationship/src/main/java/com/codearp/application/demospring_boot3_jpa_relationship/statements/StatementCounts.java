@@ -0,0 +1,31 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.statements;
+
+import lombok.Value;
+
+/**
+ * Sentencias SQL, ejecuciones de batch JDBC y entidades cargadas en un hilo (foto en un momento dado).
+ * La diferencia entre dos fotos ({@link #minus(StatementCounts)}) es lo que ha hecho una transaccion o una peticion.
+ */
+@Value
+public class StatementCounts {
+
+    public static final StatementCounts ZERO = new StatementCounts(0, 0, 0, 0, 0, 0, 0);
+
+    long selects;
+    long inserts;
+    long updates;
+    long deletes;
+    long others;
+    long batches;
+    long entityLoads;
+
+    /** todas las sentencias preparadas (un insert agrupado en batch cuenta una vez) **/
+    public long statements() {
+        return selects + inserts + updates + deletes + others;
+    }
+
+    public StatementCounts minus(StatementCounts before) {
+        return new StatementCounts(selects - before.selects, inserts - before.inserts, updates - before.updates,
+                deletes - before.deletes, others - before.others, batches - before.batches, entityLoads - before.entityLoads);
+    }
+}
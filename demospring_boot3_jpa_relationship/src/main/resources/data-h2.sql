@@ -1,4 +1,6 @@
 -- multi-insert (en h2 no acepta esta sintaxis por defecto)
-INSERT INTO CLIENTS (NAME,LAST_NAME) VALUES ('Andres','Ruiz Peñuela');
-INSERT INTO CLIENTS (NAME,LAST_NAME) VALUES ('Ramón','Poveda Paz');
-INSERT INTO CLIENTS (NAME,LAST_NAME) VALUES ('Juana','Quesada Utrera');
+-- Los ids se dan explicitos (la tabla ya no es IDENTITY) y la secuencia continua a partir de ellos
+INSERT INTO CLIENTS (ID,NAME,LAST_NAME) VALUES (1,'Andres','Ruiz Peñuela');
+INSERT INTO CLIENTS (ID,NAME,LAST_NAME) VALUES (2,'Ramón','Poveda Paz');
+INSERT INTO CLIENTS (ID,NAME,LAST_NAME) VALUES (3,'Juana','Quesada Utrera');
+ALTER SEQUENCE CLIENTS_SEQ RESTART WITH 4;
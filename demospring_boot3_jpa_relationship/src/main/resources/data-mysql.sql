@@ -1,7 +1,10 @@
 ALTER DATABASE testdb CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 ALTER TABLE clients CONVERT TO CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 
-INSERT INTO CLIENTS (NAME,LAST_NAME)  VALUES
-    ('Andres','Ruiz Peñuela'),
-    ('Ramón','Poveda Paz'),
-    ('Juana','Quesada Utrera');
\ No newline at end of file
+INSERT INTO CLIENTS (ID,NAME,LAST_NAME)  VALUES
+    (1,'Andres','Ruiz Peñuela'),
+    (2,'Ramón','Poveda Paz'),
+    (3,'Juana','Quesada Utrera');
+
+-- MySQL no tiene secuencias: Hibernate usa la tabla CLIENTS_SEQ (pooled-lo) como generador
+UPDATE CLIENTS_SEQ SET next_val = 4;
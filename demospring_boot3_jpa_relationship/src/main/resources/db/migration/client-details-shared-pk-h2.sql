@@ -0,0 +1,20 @@
+-- Paso del mapeo con fk (CLIENTS.CLIENT_DETAILS_ID) al de clave primaria compartida (perfil "shared-pk"):
+-- CLIENTS_DETAILS.id pasa a ser el id del cliente. Con la aplicacion parada, antes de arrancar con el perfil.
+-- Los ClientDetails que no son de ningun cliente se pierden (con el mapeo nuevo no se pueden cargar).
+
+-- 1. ClientDetails con el id de su cliente (en otra tabla: cambiar los ids en la misma chocaria con los existentes)
+create table CLIENTS_DETAILS_SHARED_PK (points integer, premium boolean not null, id bigint not null, primary key (id));
+
+insert into CLIENTS_DETAILS_SHARED_PK (points, premium, id)
+select d.points, d.premium, c.id
+from CLIENTS c
+join CLIENTS_DETAILS d on d.id = c.CLIENT_DETAILS_ID;
+
+-- 2. fuera la fk de CLIENTS (H2 borra con la columna su fk y su unique) y la secuencia de ClientDetails
+alter table CLIENTS drop column CLIENT_DETAILS_ID;
+drop table CLIENTS_DETAILS;
+drop sequence if exists CLIENTS_DETAILS_SEQ;
+
+-- 3. la tabla nueva ocupa el sitio de la anterior, con la fk que genera Hibernate para @MapsId
+alter table CLIENTS_DETAILS_SHARED_PK rename to CLIENTS_DETAILS;
+alter table CLIENTS_DETAILS add constraint FK43brvadiydo559w6cfsva5tus foreign key (id) references CLIENTS (id);
@@ -0,0 +1,71 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.jpa_support.journal.ChangeJournal;
+import com.codearp.application.jpa_support.journal.ChangeJournalReader;
+import com.codearp.application.jpa_support.journal.JournalEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@SpringBootTest(properties = {"app.journal.enabled=true", "app.journal.directory=target/journal-${random.uuid}"})
+@ActiveProfiles("test")
+class ChangeJournalTests {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Autowired
+    private ChangeJournalReader changeJournalReader;
+
+    @Test
+    void entityChangesAreJournaledAfterCommit() throws InterruptedException {
+        long from = changeJournal.getLastSequence() + 1;
+        Client client = Client.builder().name("Journal").lastName("Client").build();
+        client.addInvoice(Invoice.builder().description("Journal invoice").amount(BigDecimal.TEN).build());
+        clientRepository.save(client);
+
+        transactionTemplate.executeWithoutResult(status -> clientRepository.findById(client.getId()).orElseThrow().setName("Journaled"));
+
+        // el rollback no deja rastro
+        transactionTemplate.executeWithoutResult(status -> {
+            clientRepository.findById(client.getId()).orElseThrow().setName("Rolled back");
+            clientRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(changeJournal.flush(Duration.ofSeconds(10))).isTrue();
+
+        List<JournalEntry> entries = new ArrayList<>();
+        changeJournalReader.replay(from, entries::add);
+        assertThat(entries).extracting(JournalEntry::getEntity, JournalEntry::getType)
+                .containsSubsequence(
+                        tuple("Client", "CREATED"),
+                        tuple("Invoice", "CREATED"),
+                        tuple("Client", "UPDATED"))
+                .doesNotContain(tuple("Client", "DELETED"));
+        assertThat(entries).filteredOn(entry -> entry.getEntity().equals("Invoice")).singleElement()
+                .extracting(JournalEntry::getState).asString()
+                .contains("\"client\":" + client.getId());
+        assertThat(entries).filteredOn(entry -> entry.getEntity().equals("Client") && entry.getType().equals("UPDATED"))
+                .singleElement().extracting(JournalEntry::getState).asString()
+                .contains("\"name\":\"Journal\"").contains("\"name\":\"Journaled\"").doesNotContain("Rolled back");
+    }
+}
@@ -0,0 +1,125 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Address;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.AddressRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.InvoiceRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientBulkIngestionService;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.IngestionReport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ingestion;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "app.ingestion.chunk-size=3"})
+@ActiveProfiles("test")
+class ClientBulkIngestionTests {
+
+    @Autowired
+    private ClientBulkIngestionService clientBulkIngestionService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void ingestsByChunksAndReportsTheRows() {
+        // cliente i: i facturas, una direccion los pares y detalles los multiplos de 3
+        List<Client> clients = IntStream.range(0, 7).mapToObj(ClientBulkIngestionTests::client).toList();
+        long clientsBefore = clientRepository.count();
+        long invoicesBefore = invoiceRepository.count();
+        long addressesBefore = addressRepository.count();
+        DistributionSummary chunkRows = meterRegistry.get("ingestion.chunk.rows").summary();
+        long chunksBefore = chunkRows.count();
+        double rowsBefore = meterRegistry.get("ingestion.rows").counter().count();
+
+        IngestionReport report = clientBulkIngestionService.ingest(clients.stream());
+
+        // 7 clientes + 21 facturas + 4 direcciones + 3 detalles, en bloques de 3, 3 y 1
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(report.getAggregates()).isEqualTo(7);
+        assertThat(report.getRows()).isEqualTo(35);
+        assertThat(chunkRows.count() - chunksBefore).isEqualTo(3);
+        assertThat(meterRegistry.get("ingestion.rows").counter().count() - rowsBefore).isEqualTo(35);
+
+        assertThat(clientRepository.count() - clientsBefore).isEqualTo(7);
+        assertThat(invoiceRepository.count() - invoicesBefore).isEqualTo(21);
+        assertThat(addressRepository.count() - addressesBefore).isEqualTo(4);
+        assertThat(clients).allSatisfy(client -> assertThat(client.getId()).isNotNull());
+    }
+
+    @Test
+    void everyChunkIsFlushedAndClearedInTheCallersTransaction() {
+        List<Client> clients = IntStream.range(0, 5).mapToObj(ClientBulkIngestionTests::client).toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            IngestionReport report = clientBulkIngestionService.ingest(clients.stream(), 2);
+
+            assertThat(report.getChunks()).isEqualTo(3);
+            // el contexto de persistencia no se queda con los clientes persistidos
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+            assertThat(clients).noneMatch(entityManager::contains);
+            // el flush ya los escribio: se ven en la misma transaccion
+            assertThat(clientRepository.findAllById(clients.stream().map(Client::getId).toList())).hasSize(5);
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void emptyStreamAndInvalidChunkSize() {
+        IngestionReport report = clientBulkIngestionService.ingest(Stream.empty());
+
+        assertThat(report.getChunks()).isZero();
+        assertThat(report.getRows()).isZero();
+        assertThatThrownBy(() -> clientBulkIngestionService.ingest(Stream.empty(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Client client(int i) {
+        Client client = Client.builder().name("Ingestion " + i).lastName("Client").build();
+        for (int invoice = 0; invoice < i; invoice++) {
+            client.addInvoice(Invoice.builder().description("Invoice " + invoice).amount(BigDecimal.TEN)
+                    .issuedAt(LocalDate.of(2024, 1, 1)).build());
+        }
+        if (i % 2 == 0) {
+            client.getAddresses().add(Address.builder().street("Street " + i).number(i).build());
+        }
+        if (i % 3 == 0) {
+            client.addClientDetails(ClientDetails.builder().premium(false).points(i).build());
+        }
+        return client;
+    }
+}
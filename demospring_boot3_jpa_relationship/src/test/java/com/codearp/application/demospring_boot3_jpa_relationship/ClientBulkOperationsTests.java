@@ -0,0 +1,67 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.InvoiceRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientBulkOperationsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.bulk.delete-chunk-size=3")
+@ActiveProfiles({"test", "cache"})
+class ClientBulkOperationsTests {
+
+    @Autowired
+    private ClientBulkOperationsService clientBulkOperationsService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void bulkOperationsReportRowsAndInvalidateTheCache() {
+        Client client = Client.builder().name("Bulk").lastName("Operations").build();
+        client.addClientDetails(ClientDetails.builder().premium(true).points(10).build());
+        for (int day = 1; day <= 10; day++) {
+            client.addInvoice(Invoice.builder().description("Invoice " + day).amount(BigDecimal.ONE)
+                    .issuedAt(LocalDate.of(2024, 1, day)).build());
+        }
+        Long id = clientRepository.save(client).getId();
+
+        // cliente, detalles y facturas en la cache de segundo nivel
+        transactionTemplate.executeWithoutResult(status -> clientRepository.findById(id).orElseThrow().getInvoices().size());
+
+        // dias 1..7, por bloques de 3 ids
+        assertThat(clientBulkOperationsService.purgeInvoicesIssuedBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8)))
+                .isEqualTo(7);
+        assertThat(clientBulkOperationsService.archiveClients(List.of(id))).isEqualTo(1);
+        assertThat(clientBulkOperationsService.archiveClients(List.of(id))).isZero();
+        assertThat(clientBulkOperationsService.addPointsToClients(List.of(id), 5)).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Client reloaded = clientRepository.findById(id).orElseThrow();
+            assertThat(reloaded.isArchived()).isTrue();
+            assertThat(reloaded.getInvoices()).hasSize(3);
+            assertThat(reloaded.getClientDetails().getPoints()).isEqualTo(15);
+        });
+
+        assertThat(clientBulkOperationsService.deleteInvoicesOfClient(id)).isEqualTo(3);
+        assertThat(invoiceRepository.findAll()).noneMatch(invoice -> invoice.getClient().getId().equals(id));
+    }
+}
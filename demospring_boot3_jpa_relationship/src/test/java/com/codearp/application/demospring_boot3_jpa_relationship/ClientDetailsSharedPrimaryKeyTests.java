@@ -0,0 +1,115 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientDetailsRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientPointsAccumulator;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementCountAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shared_pk;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "app.points.flush-interval=1h"
+})
+@ActiveProfiles({"test", "shared-pk"})
+class ClientDetailsSharedPrimaryKeyTests {
+
+    private static final String COLUMNS = "select TABLE_NAME, COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS " +
+            "where TABLE_NAME in ('CLIENTS', 'CLIENTS_DETAILS') order by TABLE_NAME, COLUMN_NAME";
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientDetailsRepository clientDetailsRepository;
+
+    @Autowired
+    private ClientPointsAccumulator clientPointsAccumulator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bothSidesResolveByTheClientId() {
+        Client client = Client.builder().name("Shared").lastName("PrimaryKey").build();
+        client.addClientDetails(ClientDetails.builder().premium(true).points(10).build());
+        StatementCountAssertions.reset();
+        Long id = transactionTemplate.execute(status -> clientRepository.save(client).getId());
+        // CLIENTS_SEQ y los dos inserts, sin secuencia de ClientDetails
+        StatementCountAssertions.assertSelectCount(1);
+        StatementCountAssertions.assertInsertCount(2);
+        assertThat(client.getClientDetails().getId()).isEqualTo(id);
+
+        // ClientDetails -> Client: el proxy ya tiene el id, el cliente se lee por su clave primaria al usarlo
+        StatementCountAssertions.reset();
+        String name = transactionTemplate.execute(status -> {
+            ClientDetails details = clientDetailsRepository.findById(id).orElseThrow();
+            StatementCountAssertions.assertSelectCount(1);
+            assertThat(details.getClient().getId()).isEqualTo(id);
+            StatementCountAssertions.assertSelectCount(1);
+            return details.getClient().getName();
+        });
+        StatementCountAssertions.assertSelectCount(2);
+        assertThat(name).isEqualTo("Shared");
+
+        // Client -> ClientDetails: CLIENTS_DETAILS por id
+        StatementCountAssertions.reset();
+        Integer points = transactionTemplate.execute(status -> clientRepository.findById(id).orElseThrow().getClientDetails().getPoints());
+        StatementCountAssertions.assertSelectCount(2);
+        assertThat(points).isEqualTo(10);
+
+        Integer updated = transactionTemplate.execute(status -> clientDetailsRepository.addPointsToClients(List.of(id), 5));
+        assertThat(updated).isEqualTo(1);
+        clientPointsAccumulator.addPoints(id, 3);
+        assertThat(clientPointsAccumulator.flush()).isEqualTo(1);
+        assertThat(clientPointsAccumulator.getPoints(id)).hasValue(18L);
+    }
+
+    @Test
+    void migrationMovesClientDetailsToTheClientId() throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:shared_pk_migration;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE", "sa", "sa", true);
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate legacy = new JdbcTemplate(dataSource);
+            // esquema de Hibernate con el mapeo de las anotaciones (fk en CLIENTS)
+            legacy.execute("create sequence CLIENTS_DETAILS_SEQ start with 1 increment by 50");
+            legacy.execute("create table CLIENTS (ARCHIVED boolean default false not null, CLIENT_DETAILS_ID bigint unique, " +
+                    "id bigint not null, LAST_NAME varchar(255), name varchar(255), primary key (id))");
+            legacy.execute("create table CLIENTS_DETAILS (points integer, premium boolean not null, id bigint not null, primary key (id))");
+            legacy.execute("alter table CLIENTS add constraint FK21tc801yvni7u2rfid7ejqa5m foreign key (CLIENT_DETAILS_ID) references CLIENTS_DETAILS");
+            legacy.update("insert into CLIENTS_DETAILS (points, premium, id) values (100, true, 1), (200, false, 2), (300, false, 3)");
+            // el 3 no es de ningun cliente
+            legacy.update("insert into CLIENTS (id, name, LAST_NAME, CLIENT_DETAILS_ID) values (1, 'A', 'A', 2), (2, 'B', 'B', 1), (3, 'C', 'C', null)");
+
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/client-details-shared-pk-h2.sql"));
+
+            assertThat(legacy.queryForList("select id, points, premium from CLIENTS_DETAILS order by id")).containsExactly(
+                    Map.of("id", 1L, "points", 200, "premium", false),
+                    Map.of("id", 2L, "points", 100, "premium", true));
+            // las mismas columnas que genera Hibernate con el perfil "shared-pk"
+            assertThat(legacy.queryForList(COLUMNS)).isEqualTo(jdbcTemplate.queryForList(COLUMNS));
+            assertThat(legacy.queryForObject("select count(*) from INFORMATION_SCHEMA.TABLE_CONSTRAINTS " +
+                    "where TABLE_NAME = 'CLIENTS_DETAILS' and CONSTRAINT_TYPE = 'FOREIGN KEY'", Integer.class)).isEqualTo(1);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+}
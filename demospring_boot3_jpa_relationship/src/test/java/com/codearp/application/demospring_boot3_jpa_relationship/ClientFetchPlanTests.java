@@ -0,0 +1,75 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Address;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientFetchPlan;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientFetchPlan.Association;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementCountAssertions;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ClientFetchPlanTests {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void loadsEachCollectionWithItsOwnQueryWithoutCartesianProduct() {
+        Client client = Client.builder().name("Fetch").lastName("Plan").build();
+        client.addClientDetails(ClientDetails.builder().premium(true).points(1).build());
+        for (int i = 0; i < 3; i++) {
+            client.addInvoice(Invoice.builder().description("Invoice " + i).amount(BigDecimal.ONE).build());
+        }
+        for (int i = 0; i < 2; i++) {
+            client.getAddresses().add(Address.builder().street("Street").number(i).build());
+        }
+        Long id = clientRepository.save(client).getId();
+
+        StatementCountAssertions.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            Client loaded = clientRepository.findById(id, ClientFetchPlan.ALL).orElseThrow();
+            assertThat(loaded.getInvoices()).hasSize(3);
+            assertThat(loaded.getAddresses()).hasSize(2);
+            assertThat(loaded.getClientDetails().getPoints()).isEqualTo(1);
+        });
+        // clientes + detalles + facturas, y direcciones
+        StatementCountAssertions.assertSelectCount(2);
+
+        StatementCountAssertions.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            Client loaded = clientRepository.findById(id, ClientFetchPlan.of(Association.INVOICES)).orElseThrow();
+            assertThat(Hibernate.isInitialized(loaded.getInvoices())).isTrue();
+            assertThat(Hibernate.isInitialized(loaded.getAddresses())).isFalse();
+        });
+        // clientDetails (EAGER) va siempre en la misma consulta
+        StatementCountAssertions.assertSelectCount(1);
+    }
+
+    @Test
+    void clientDetailsIsNotLoadedOnePerClient() {
+        List<Long> ids = clientRepository.findAll().stream().map(Client::getId).toList();
+        assertThat(ids).hasSizeGreaterThan(1);
+
+        StatementCountAssertions.reset();
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(clientRepository.findAllById(ids, ClientFetchPlan.NONE)).hasSameSizeAs(ids));
+        StatementCountAssertions.assertSelectCount(1);
+    }
+}
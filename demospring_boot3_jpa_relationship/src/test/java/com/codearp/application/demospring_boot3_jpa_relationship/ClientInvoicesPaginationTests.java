@@ -0,0 +1,73 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientInvoicesService;
+import com.codearp.application.jpa_support.pagination.KeysetPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:client_invoices;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+@ActiveProfiles("test")
+class ClientInvoicesPaginationTests {
+
+    @Autowired
+    private ClientInvoicesService clientInvoicesService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Test
+    void pagesFollowTheTokenUntilTheLastInvoice() {
+        Long clientId = clientWithInvoices(5);
+        // facturas de otro cliente entre medias: no aparecen
+        clientWithInvoices(3);
+
+        List<Long> read = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        String token = null;
+        do {
+            KeysetPage<Invoice> page = clientInvoicesService.findInvoices(clientId, token, 2);
+            assertThat(page.getContent()).allSatisfy(invoice -> assertThat(invoice.getClient().getId()).isEqualTo(clientId));
+            page.getContent().forEach(invoice -> read.add(invoice.getId()));
+            sizes.add(page.getContent().size());
+            token = page.getNextToken();
+        } while (token != null);
+
+        assertThat(sizes).containsExactly(2, 2, 1);
+        assertThat(read).hasSize(5).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void lastFullPageHasNoNextToken() {
+        Long clientId = clientWithInvoices(2);
+
+        KeysetPage<Invoice> first = clientInvoicesService.findInvoices(clientId, null, 2);
+
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isFalse();
+        assertThat(clientInvoicesService.findInvoices(Long.MAX_VALUE, null, 2).getContent()).isEmpty();
+        assertThatThrownBy(() -> clientInvoicesService.findInvoices(clientId, "not-a-token", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Long clientWithInvoices(int invoices) {
+        Client client = Client.builder().name("Keyset").lastName("Invoices").build();
+        for (int day = 1; day <= invoices; day++) {
+            client.addInvoice(Invoice.builder().description("Invoice " + day).amount(BigDecimal.ONE)
+                    .issuedAt(LocalDate.of(2024, 1, day)).build());
+        }
+        return clientRepository.save(client).getId();
+    }
+}
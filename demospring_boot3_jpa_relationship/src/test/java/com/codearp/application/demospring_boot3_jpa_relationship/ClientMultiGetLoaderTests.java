@@ -0,0 +1,32 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientMultiGetLoader;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.multi-get.chunk-size=2")
+@ActiveProfiles("test")
+class ClientMultiGetLoaderTests {
+
+    @Autowired
+    private ClientMultiGetLoader clientMultiGetLoader;
+
+    @Test
+    void loadsChunksInParallelAndKeepsTheInputOrder() {
+        List<Client> clients = clientMultiGetLoader.findAllWithInvoicesAndAddresses(List.of(3L, 999L, 1L, 2L, 3L));
+
+        assertThat(clients).extracting(Client::getId).containsExactly(3L, 1L, 2L, 3L);
+        assertThat(clients).allSatisfy(client -> {
+            assertThat(Hibernate.isInitialized(client.getInvoices())).isTrue();
+            assertThat(Hibernate.isInitialized(client.getAddresses())).isTrue();
+        });
+    }
+}
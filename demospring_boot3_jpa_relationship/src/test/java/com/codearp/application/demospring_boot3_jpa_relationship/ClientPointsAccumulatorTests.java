@@ -0,0 +1,144 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientPointsAccumulator;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// flush-interval largo: los flush los hace el test
+@SpringBootTest(properties = "app.points.flush-interval=1h")
+@ActiveProfiles({"test", "cache"})
+class ClientPointsAccumulatorTests {
+
+    @Autowired
+    private ClientPointsAccumulator clientPointsAccumulator;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // el CacheManager de JCache es el mismo para todos los contextos de test (misma uri de ehcache.xml):
+    // puede tener entidades de otro test con los mismos ids
+    @BeforeEach
+    void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void incrementsAreCoalescedAndWrittenInOneFlush() throws Exception {
+        Client client = Client.builder().name("Points").lastName("WriteBehind").build();
+        client.addClientDetails(ClientDetails.builder().premium(false).points(100).build());
+        Long id = clientRepository.save(client).getId();
+        Long withoutDetails = clientRepository.save(Client.builder().name("Points").lastName("NoDetails").build()).getId();
+
+        // ClientDetails en la cache de segundo nivel
+        assertThat(points(id)).isEqualTo(100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        clientPointsAccumulator.addPoints(id, 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        clientPointsAccumulator.addPoints(id, -50);
+        clientPointsAccumulator.addPoints(withoutDetails, 10);
+
+        // todavia en memoria, pero getPoints ya los cuenta
+        assertThat(clientPointsAccumulator.getPendingPoints(id)).isEqualTo(3950);
+        assertThat(clientPointsAccumulator.getPoints(id)).contains(4050L);
+        assertThat(clientPointsAccumulator.getPoints(withoutDetails)).isEmpty();
+        assertThat(points(id)).isEqualTo(100);
+
+        assertThat(clientPointsAccumulator.flush()).isEqualTo(1);
+        assertThat(clientPointsAccumulator.getPendingPoints(id)).isZero();
+        assertThat(clientPointsAccumulator.getPendingPoints(withoutDetails)).isZero();
+        assertThat(clientPointsAccumulator.getPoints(id)).contains(4050L);
+        // expulsado de la cache: se vuelve a leer de la bbdd
+        assertThat(points(id)).isEqualTo(4050);
+
+        // sin cambios: nada que escribir
+        assertThat(clientPointsAccumulator.flush()).isZero();
+        clientPointsAccumulator.addPoints(id, 5);
+        assertThat(clientPointsAccumulator.flush()).isEqualTo(1);
+        assertThat(points(id)).isEqualTo(4055);
+    }
+
+    @Test
+    void incrementsAreNotLostWhileFlushing() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Client client = Client.builder().name("Points " + i).lastName("Concurrent").build();
+            client.addClientDetails(ClientDetails.builder().premium(false).points(0).build());
+            ids.add(clientRepository.save(client).getId());
+        }
+
+        // +1 y -1 alternos: los acumuladores pasan por cero todo el rato mientras el flush los quita
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        for (Long id : ids) {
+                            clientPointsAccumulator.addPoints(id, i % 2 == 0 ? 1 : -1);
+                        }
+                    }
+                    for (Long id : ids) {
+                        clientPointsAccumulator.addPoints(id, 1);
+                    }
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                while (futures.stream().anyMatch(future -> !future.isDone())) {
+                    clientPointsAccumulator.flush();
+                }
+            });
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            flusher.get();
+        } finally {
+            executor.shutdown();
+        }
+        clientPointsAccumulator.flush();
+
+        for (Long id : ids) {
+            assertThat(clientPointsAccumulator.getPendingPoints(id)).isZero();
+            assertThat(points(id)).isEqualTo(4);
+        }
+    }
+
+    private Integer points(Long clientId) {
+        return transactionTemplate.execute(status -> clientRepository.findById(clientId).orElseThrow().getClientDetails().getPoints());
+    }
+}
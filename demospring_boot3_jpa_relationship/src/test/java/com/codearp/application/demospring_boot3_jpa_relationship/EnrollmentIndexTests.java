@@ -0,0 +1,143 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.enrollment.EnrollmentChangedEvent;
+import com.codearp.application.demospring_boot3_jpa_relationship.enrollment.EnrollmentIndex;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:enrollment_index;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+@ActiveProfiles("test")
+class EnrollmentIndexTests {
+
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Test
+    void followsCommittedEnrollmentsAndMatchesARebuild() {
+        List<Long> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            students.add(studentRepository.save(Student.builder().name("Index " + i).lastName("Student").build()).getId());
+        }
+        Long first = courseRepository.save(Course.builder().name("First").description("Index").build()).getId();
+        Long second = courseRepository.save(Course.builder().name("Second").description("Index").build()).getId();
+
+        enrollmentService.enroll(students.get(0), first);
+        enrollmentService.enrollAll(second, students);
+        enrollmentService.enrollAll(first, students.subList(1, 2));
+        // deshecha: no llega al indice
+        transactionTemplate.executeWithoutResult(status -> {
+            enrollmentService.enroll(studentRepository.findById(students.get(2)).orElseThrow(),
+                    courseRepository.findById(first).orElseThrow());
+            status.setRollbackOnly();
+        });
+
+        assertIndex(students, first, second);
+        assertThat(enrollmentIndex.coursesOf(students.get(0))).hasValueSatisfying(ids -> assertThat(ids).containsExactly(first, second));
+
+        enrollmentIndex.rebuild();
+        assertIndex(students, first, second);
+
+        enrollmentService.unenroll(students.get(0), first);
+        enrollmentService.unenrollAll(second, students);
+        assertThat(enrollmentIndex.isEnrolled(students.get(0), first)).hasValue(false);
+        assertThat(enrollmentIndex.courseSize(first)).hasValue(1);
+        assertThat(enrollmentIndex.courseSize(second)).hasValue(0);
+        assertThat(enrollmentIndex.coursesOf(students.get(0))).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    @Test
+    void setAlgebraAcrossArrayAndBitmapContainers() {
+        // ids que no existen en la bbdd, el indice solo ve los eventos
+        long a = 1_000_001;
+        long b = 1_000_002;
+        long[] even = LongStream.concat(LongStream.range(0, 10_000).filter(id -> id % 2 == 0), LongStream.range(70_000, 70_010)).toArray();
+        long[] multiplesOf3 = LongStream.range(0, 10_000).filter(id -> id % 3 == 0).toArray();
+        publish(EnrollmentChangedEvent.Type.ENROLLED, a, even);
+        publish(EnrollmentChangedEvent.Type.ENROLLED, b, multiplesOf3);
+
+        Set<Long> evenSet = toSet(even);
+        Set<Long> intersection = new TreeSet<>(evenSet);
+        intersection.retainAll(toSet(multiplesOf3));
+        Set<Long> union = new TreeSet<>(evenSet);
+        union.addAll(toSet(multiplesOf3));
+
+        assertThat(enrollmentIndex.studentsOf(a)).hasValueSatisfying(ids -> assertThat(ids).containsExactly(even));
+        assertThat(enrollmentIndex.studentsInAll(List.of(a, b))).hasValueSatisfying(ids -> assertThat(ids).containsExactly(toArray(intersection)));
+        assertThat(enrollmentIndex.countStudentsInAll(List.of(a, b))).hasValue(intersection.size());
+        assertThat(enrollmentIndex.studentsInAny(List.of(a, b))).hasValueSatisfying(ids -> assertThat(ids).containsExactly(toArray(union)));
+        assertThat(enrollmentIndex.courseSizes()).hasValueSatisfying(sizes -> assertThat(sizes)
+                .containsEntry(a, even.length).containsEntry(b, multiplesOf3.length));
+        assertThat(enrollmentIndex.isEnrolled(70_004, a)).hasValue(true);
+        assertThat(enrollmentIndex.isEnrolled(70_004, b)).hasValue(false);
+
+        // por debajo de 4096 el mapa de bits vuelve a ser un array
+        long[] removed = LongStream.range(0, 9_000).filter(id -> id % 2 == 0).toArray();
+        publish(EnrollmentChangedEvent.Type.UNENROLLED, a, removed);
+        assertThat(enrollmentIndex.courseSize(a)).hasValue(even.length - removed.length);
+        assertThat(enrollmentIndex.studentsInAll(List.of(a, b))).hasValueSatisfying(ids ->
+                assertThat(ids).containsExactly(toArray(intersection.stream().filter(id -> id >= 9_000).toList())));
+
+        publish(EnrollmentChangedEvent.Type.UNENROLLED, a, even);
+        publish(EnrollmentChangedEvent.Type.UNENROLLED, b, multiplesOf3);
+        assertThat(enrollmentIndex.courseSizes()).hasValueSatisfying(sizes -> assertThat(sizes).doesNotContainKeys(a, b));
+    }
+
+    private void assertIndex(List<Long> students, Long first, Long second) {
+        assertThat(enrollmentIndex.isEnrolled(students.get(0), first)).hasValue(true);
+        assertThat(enrollmentIndex.isEnrolled(students.get(2), first)).hasValue(false);
+        assertThat(enrollmentIndex.courseSize(first)).hasValue(2);
+        assertThat(enrollmentIndex.courseSize(second)).hasValue(3);
+        assertThat(enrollmentIndex.studentsInAll(List.of(first, second)))
+                .hasValueSatisfying(ids -> assertThat(ids).containsExactly(students.get(0), students.get(1)));
+        assertThat(enrollmentIndex.studentsInAny(List.of(first, second)))
+                .hasValueSatisfying(ids -> assertThat(ids).containsExactly(toArray(students)));
+    }
+
+    private void publish(EnrollmentChangedEvent.Type type, long courseId, long[] studentIds) {
+        applicationEventPublisher.publishEvent(new EnrollmentChangedEvent(type, courseId, studentIds));
+    }
+
+    private static long[] toArray(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new TreeSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,190 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.concurrency.OptimisticRetryExecutor;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollment;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "app.optimistic-retry.max-attempts=50",
+        "app.optimistic-retry.initial-backoff=1ms",
+        "app.optimistic-retry.max-backoff=20ms"
+})
+@ActiveProfiles("test")
+class EnrollmentServiceTests {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void staleStudentIsRetriedInANewTransaction() {
+        Long studentId = studentRepository.save(Student.builder().name("Stale").lastName("Student").build()).getId();
+        List<Long> courseIds = courses(2);
+        double conflicts = counter("optimistic.lock.conflicts", "test-stale");
+
+        AtomicInteger attempts = new AtomicInteger();
+        optimisticRetryExecutor.executeWithoutResult("test-stale", () -> {
+            Student student = studentRepository.findById(studentId).orElseThrow();
+            Course course = courseRepository.findById(courseIds.get(0)).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                // otra transaccion (otro hilo) matricula al alumno despues de que este lo haya leido
+                CompletableFuture.runAsync(() -> enrollmentService.enroll(studentId, courseIds.get(1))).join();
+            }
+            enrollmentService.enroll(student, course);
+        });
+
+        assertThat(attempts).hasValue(2);
+        assertThat(counter("optimistic.lock.conflicts", "test-stale") - conflicts).isEqualTo(1);
+        assertThat(enrolledCourses(studentId)).containsExactlyInAnyOrderElementsOf(courseIds);
+    }
+
+    @Test
+    void concurrentEnrollmentsAreNotLost() throws Exception {
+        List<Long> studentIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            studentIds.add(studentRepository.save(Student.builder().name("Concurrent " + i).lastName("Student").build()).getId());
+        }
+        List<Long> courseIds = courses(10);
+
+        // cada hilo matricula a todos los alumnos en sus cursos: el mismo alumno cambia desde varios hilos a la vez
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int first = thread;
+                futures.add(executor.submit(() -> {
+                    for (int course = first; course < courseIds.size(); course += 4) {
+                        for (Long studentId : studentIds) {
+                            enrollmentService.enroll(studentId, courseIds.get(course));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (Long studentId : studentIds) {
+            assertThat(enrolledCourses(studentId)).containsExactlyInAnyOrderElementsOf(courseIds);
+        }
+        assertThat(counter("optimistic.lock.exhausted", "enroll")).isZero();
+        assertThat(counter("optimistic.lock.retries", "enroll")).isEqualTo(counter("optimistic.lock.conflicts", "enroll"));
+
+        enrollmentService.unenroll(studentIds.get(0), courseIds.get(0));
+        assertThat(enrolledCourses(studentIds.get(0))).hasSize(courseIds.size() - 1);
+    }
+
+    @Test
+    void bulkEnrollmentWritesTheJoinTableAndRefreshesLoadedInstances() {
+        List<Long> studentIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            studentIds.add(studentRepository.save(Student.builder().name("Bulk " + i).lastName("Student").build()).getId());
+        }
+        Long courseId = courses(1).get(0);
+        List<Long> withUnknown = new ArrayList<>(studentIds);
+        withUnknown.add(Long.MAX_VALUE);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // cargados antes: el refresh les pone la matricula y la version nueva
+            Student loaded = studentRepository.findById(studentIds.get(0)).orElseThrow();
+            Course course = courseRepository.findById(courseId).orElseThrow();
+            assertThat(loaded.getCourses()).isEmpty();
+            Long version = loaded.getVersion();
+
+            assertThat(enrollmentService.enrollAll(courseId, withUnknown)).isEqualTo(3);
+            assertThat(enrollmentService.enrollAll(courseId, studentIds)).isZero();
+            assertThat(loaded.getCourses()).containsExactly(course);
+            assertThat(loaded.getVersion()).isEqualTo(version + 1);
+            assertThat(course.getStudents()).hasSize(3);
+        });
+        for (Long studentId : studentIds) {
+            assertThat(enrolledCourses(studentId)).containsExactly(courseId);
+        }
+
+        assertThat(enrollmentService.unenrollAll(courseId, studentIds.subList(0, 2))).isEqualTo(2);
+        assertThat(enrolledCourses(studentIds.get(0))).isEmpty();
+        assertThat(enrolledCourses(studentIds.get(2))).containsExactly(courseId);
+    }
+
+    @Test
+    void concurrentBulkEnrollmentsCountEachEnrollmentOnce() throws Exception {
+        List<Long> studentIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            studentIds.add(studentRepository.save(Student.builder().name("Race " + i).lastName("Student").build()).getId());
+        }
+        Long courseId = courses(1).get(0);
+
+        // varios hilos matriculan a los mismos alumnos a la vez: entre todos solo hay 20 matriculas nuevas
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        int enrolled = 0;
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> enrollmentService.enrollAll(courseId, studentIds)));
+            }
+            for (Future<Integer> future : futures) {
+                enrolled += future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(enrolled).isEqualTo(studentIds.size());
+        for (Long studentId : studentIds) {
+            assertThat(enrolledCourses(studentId)).containsExactly(courseId);
+        }
+    }
+
+    private List<Long> courses(int count) {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            courses.add(Course.builder().name("Course " + i).description("Enrollment").build());
+        }
+        return courseRepository.saveAll(courses).stream().map(Course::getId).toList();
+    }
+
+    private List<Long> enrolledCourses(Long studentId) {
+        return transactionTemplate.execute(status ->
+                studentRepository.findById(studentId).orElseThrow().getCourses().stream().map(Course::getId).toList());
+    }
+
+    private double counter(String name, String operation) {
+        return meterRegistry.find(name).tag("operation", operation).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
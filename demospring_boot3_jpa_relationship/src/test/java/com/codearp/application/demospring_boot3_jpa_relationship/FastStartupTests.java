@@ -0,0 +1,47 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.enrollment.EnrollmentIndex;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.jpa_support.startup.StartupTasks;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fast_startup;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+@ActiveProfiles({"test", "fast-startup"})
+class FastStartupTests {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private StartupTasks startupTasks;
+
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
+
+    @Test
+    void deferredBootstrapLoadsDataSqlAfterTheSchema() {
+        // data-h2.sql, con el EntityManagerFactory construido en segundo plano
+        assertThat(clientRepository.findById(1L)).map(Client::getName).hasValue("Andres");
+    }
+
+    @Test
+    void startupTasksRunInOrderOffTheStartupThread() throws Exception {
+        assertThat(startupTasks.isBackground()).isTrue();
+
+        // un solo hilo y en orden: cuando termina esta ya han terminado InitDataRunner y la reconstruccion del indice
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        startupTasks.run("test", () -> thread.complete(Thread.currentThread().getName()));
+
+        assertThat(thread.get(30, TimeUnit.SECONDS)).isEqualTo("startup-tasks");
+        assertThat(enrollmentIndex.isReady()).isTrue();
+    }
+}
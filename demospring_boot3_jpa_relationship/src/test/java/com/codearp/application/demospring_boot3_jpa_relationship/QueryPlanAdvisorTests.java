@@ -0,0 +1,51 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.jpa_support.queryplan.QueryPlanAdvisor;
+import com.codearp.application.jpa_support.queryplan.QueryPlanFinding;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:queryplan;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "app.query-advisor.enabled=true"})
+@ActiveProfiles("test")
+class QueryPlanAdvisorTests {
+
+    @Autowired
+    private QueryPlanAdvisor queryPlanAdvisor;
+
+    @Test
+    void hotQueriesUseTheDeclaredIndexes() {
+        Map<String, QueryPlanFinding> findings = queryPlanAdvisor.advise().stream()
+                .collect(Collectors.toMap(QueryPlanFinding::getSource, Function.identity()));
+
+        for (String source : List.of(
+                "StudentRepository.findStudentWithCourseId(Long)",
+                "InvoiceRepository.findMinIdIssuedBetween(LocalDate, LocalDate)",
+                "InvoiceRepository.deleteByClientId(Long)")) {
+            QueryPlanFinding finding = findings.get(source);
+            assertThat(finding).as(source).isNotNull();
+            assertThat(finding.getError()).as(source).isNull();
+            assertThat(finding.isFullScan()).as(source + ": " + finding.getPlan()).isFalse();
+        }
+    }
+
+    @Test
+    void aFunctionOnTheFilteredColumnIsAFullScan() {
+        QueryPlanFinding finding = queryPlanAdvisor.explain("upper(name)",
+                "select c from Client c where upper(c.name) like :name");
+
+        assertThat(finding.getError()).isNull();
+        assertThat(finding.getFullScans()).as(finding.getPlan()).hasSize(1);
+        assertThat(queryPlanAdvisor.explain("listado", "select c from Client c").isFullScan()).isFalse();
+    }
+}
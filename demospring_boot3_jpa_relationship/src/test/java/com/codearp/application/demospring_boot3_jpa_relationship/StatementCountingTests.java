@@ -0,0 +1,62 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Address;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementBudget;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementBudgetExceededException;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementCountAssertions;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementCounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StatementCountingTests {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void findInLazyLoadsCollectionsInBatchesInsteadOfOneSelectPerClient() {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Client client = Client.builder().name("Client " + i).lastName("Statements").build();
+            client.addInvoice(Invoice.builder().description("Invoice").amount(BigDecimal.ONE).build());
+            client.getAddresses().add(Address.builder().street("Street").number(i).build());
+            clients.add(client);
+        }
+        List<Long> ids = transactionTemplate.execute(status -> clientRepository.saveAll(clients)).stream().map(Client::getId).toList();
+
+        StatementCountAssertions.reset();
+        transactionTemplate.executeWithoutResult(status -> clientRepository.findInLazy(ids).forEach(client -> {
+            client.getInvoices().size();
+            client.getAddresses().size();
+        }));
+
+        // clientes + un bloque de facturas + un bloque de direcciones (@BatchSize(10)), sin N+1
+        StatementCountAssertions.assertSelectCount(3);
+        StatementCountAssertions.assertEntityLoadCount(15);
+    }
+
+    @Test
+    void budgetInFailModeThrows() {
+        StatementBudget budget = new StatementBudget(StatementBudget.Mode.FAIL, 1, -1, -1);
+
+        assertThatThrownBy(() -> budget.check("Transaccion", new StatementCounts(2, 0, 0, 0, 0, 0, 2)))
+                .isInstanceOf(StatementBudgetExceededException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.codearp.application.demospring_boot3_jpa_relationship;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientMultiGetLoader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtual_threads;MODE=MySQL;DATABASE_TO_UPPER=false;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "spring.threads.virtual.enabled=true",
+        "app.virtual-threads.db-permits=2",
+        "app.virtual-threads.db-acquire-timeout=5s",
+        "app.virtual-threads.pinned-threshold=1ms",
+        "app.multi-get.chunk-size=1"})
+@ActiveProfiles("test")
+class VirtualThreadsTests {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientMultiGetLoader clientMultiGetLoader;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void everyConnectionTakesAPermit() throws Exception {
+        double before = meterRegistry.get("db.concurrency.wait").functionTimer().count();
+        List<Future<?>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                calls.add(executor.submit(() -> clientRepository.findById(1L)));
+            }
+        }
+        for (Future<?> call : calls) {
+            call.get();
+        }
+
+        assertThat(meterRegistry.get("db.concurrency.wait").functionTimer().count() - before).isEqualTo(200);
+        assertThat(meterRegistry.get("db.concurrency.available").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void aTransactionThatFansOutDoesNotBlockItsWorkers() {
+        // la transaccion ocupa uno de los 2 permisos con su conexion; los hilos del multi-get se turnan en el otro
+        List<Client> clients = transactionTemplate.execute(status -> {
+            clientRepository.findById(1L);
+            return clientMultiGetLoader.findAllWithInvoicesAndAddresses(List.of(3L, 999L, 1L, 2L));
+        });
+
+        assertThat(clients).extracting(Client::getId).containsExactly(3L, 1L, 2L);
+        assertThat(meterRegistry.get("db.concurrency.available").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void pinnedVirtualThreadsAreCounted() throws Exception {
+        assumeTrue(Runtime.version().feature() < 24, "desde Java 24 un synchronized no clava el hilo virtual");
+
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR entrega los eventos del stream mas o menos cada segundo
+        long deadline = System.currentTimeMillis() + 10_000;
+        Timer pinned = null;
+        while (pinned == null && System.currentTimeMillis() < deadline) {
+            pinned = meterRegistry.find("jvm.threads.virtual.pinned").tag("source", "other").timer();
+            Thread.sleep(50);
+        }
+        assertThat(pinned).isNotNull();
+        assertThat(pinned.count()).isPositive();
+    }
+}
@@ -0,0 +1,155 @@
+package com.codearp.application.demospring_boot3_jpa_relationship.enrollment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// CompressedBitmap es package-private: el test va en su paquete y sin contexto de Spring
+class CompressedBitmapTests {
+
+    @Test
+    void emptyBitmap() {
+        CompressedBitmap empty = new CompressedBitmap();
+        CompressedBitmap other = bitmapOf(LongStream.rangeClosed(1, 10));
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.cardinality()).isZero();
+        assertThat(empty.contains(0)).isFalse();
+        assertThat(empty.remove(0)).isFalse();
+        assertThat(empty.toArray()).isEmpty();
+        assertThat(empty.and(other).isEmpty()).isTrue();
+        assertThat(empty.andCardinality(other)).isZero();
+        assertThat(empty.or(other).toArray()).isEqualTo(other.toArray());
+        assertThat(empty.copy().isEmpty()).isTrue();
+    }
+
+    @Test
+    void removingTheLastIdDropsItsContainer() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        long emptySize = bitmap.sizeInBytes();
+
+        assertThat(bitmap.add(70_000)).isTrue();
+        assertThat(bitmap.add(70_000)).isFalse();
+        assertThat(bitmap.remove(70_001)).isFalse();
+        assertThat(bitmap.remove(70_000)).isTrue();
+
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.sizeInBytes()).isEqualTo(emptySize);
+        // el contenedor se vuelve a crear
+        assertThat(bitmap.add(70_000)).isTrue();
+        assertThat(bitmap.toArray()).containsExactly(70_000);
+    }
+
+    @Test
+    void arrayContainerBecomesABitmapAfter4096Ids() {
+        CompressedBitmap bitmap = bitmapOf(LongStream.range(0, 4096).map(i -> i * 2));
+        assertThat(bitmap.cardinality()).isEqualTo(4096);
+        assertThat(bitmap.add(8190)).isFalse();
+
+        // el id 4097 pasa el contenedor a mapa de bits con los mismos ids
+        assertThat(bitmap.add(8192)).isTrue();
+        assertThat(bitmap.add(8192)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+        assertThat(bitmap.contains(8190)).isTrue();
+        assertThat(bitmap.contains(8191)).isFalse();
+        assertThat(bitmap.toArray()).isEqualTo(LongStream.rangeClosed(0, 4096).map(i -> i * 2).toArray());
+
+        // contenedor lleno: 8 KB fijos, un array necesitaria 128 KB
+        LongStream.range(0, 65_536).forEach(bitmap::add);
+        assertThat(bitmap.cardinality()).isEqualTo(65_536);
+        assertThat(bitmap.sizeInBytes()).isLessThan(9 * 1024);
+        assertThat(bitmap.contains(65_535)).isTrue();
+        assertThat(bitmap.contains(65_536)).isFalse();
+
+        // al bajar de 4097 ids vuelve a ser un array con los mismos ids
+        LongStream.range(0, 65_536).filter(i -> i % 16 != 0).forEach(bitmap::remove);
+        assertThat(bitmap.cardinality()).isEqualTo(4096);
+        assertThat(bitmap.remove(16)).isTrue();
+        assertThat(bitmap.remove(16)).isFalse();
+        assertThat(bitmap.add(16)).isTrue();
+        assertThat(bitmap.toArray()).isEqualTo(LongStream.range(0, 4096).map(i -> i * 16).toArray());
+        assertThat(bitmap.add(17)).isTrue();
+        assertThat(bitmap.contains(17)).isTrue();
+        assertThat(bitmap.cardinality()).isEqualTo(4097);
+    }
+
+    @Test
+    void boundaryValues() {
+        long[] ids = { 0, 65_535, 65_536, 131_071, 131_072, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+        // se anaden de mayor a menor: los contenedores se insertan delante
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = ids.length - 1; i >= 0; i--) {
+            assertThat(bitmap.add(ids[i])).isTrue();
+        }
+
+        assertThat(bitmap.toArray()).containsExactly(ids);
+        for (long id : ids) {
+            assertThat(bitmap.contains(id)).as("contains %d", id).isTrue();
+        }
+        assertThat(bitmap.contains(1)).isFalse();
+        assertThat(bitmap.contains(65_534)).isFalse();
+        assertThat(bitmap.contains(196_608)).isFalse();
+        assertThat(bitmap.contains(Long.MAX_VALUE - 2)).isFalse();
+
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bitmap.contains(Long.MIN_VALUE)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void andAndOrMatchASortedSetAcrossContainerTypes() {
+        Random random = new Random(42);
+        TreeSet<Long> left = new TreeSet<>();
+        TreeSet<Long> right = new TreeSet<>();
+        // contenedor 0: mapa de bits en los dos; contenedor 1: mapa de bits y array; contenedor 2: arrays; 3 y 4 en uno solo
+        fill(left, random, 0, 10_000);
+        fill(right, random, 0, 6_000);
+        fill(left, random, 1, 5_000);
+        fill(right, random, 1, 300);
+        fill(left, random, 2, 200);
+        fill(right, random, 2, 200);
+        fill(left, random, 3, 50);
+        fill(right, random, 4, 50);
+        CompressedBitmap leftBitmap = bitmapOf(left.stream().mapToLong(Long::longValue));
+        CompressedBitmap rightBitmap = bitmapOf(right.stream().mapToLong(Long::longValue));
+
+        TreeSet<Long> intersection = new TreeSet<>(left);
+        intersection.retainAll(right);
+        TreeSet<Long> union = new TreeSet<>(left);
+        union.addAll(right);
+
+        assertThat(leftBitmap.and(rightBitmap).toArray()).isEqualTo(toArray(intersection));
+        assertThat(rightBitmap.and(leftBitmap).toArray()).isEqualTo(toArray(intersection));
+        assertThat(leftBitmap.andCardinality(rightBitmap)).isEqualTo(intersection.size());
+        assertThat(leftBitmap.or(rightBitmap).toArray()).isEqualTo(toArray(union));
+        assertThat(rightBitmap.or(leftBitmap).toArray()).isEqualTo(toArray(union));
+        assertThat(leftBitmap.toArray()).isEqualTo(toArray(left));
+
+        // las copias y los resultados no comparten contenedores con el original
+        CompressedBitmap copy = leftBitmap.copy();
+        CompressedBitmap or = leftBitmap.or(rightBitmap);
+        copy.remove(left.first());
+        or.remove(left.first());
+        assertThat(leftBitmap.contains(left.first())).isTrue();
+    }
+
+    private static void fill(TreeSet<Long> ids, Random random, long container, int count) {
+        while (ids.subSet(container << 16, (container + 1) << 16).size() < count) {
+            ids.add((container << 16) + random.nextInt(65_536));
+        }
+    }
+
+    private static long[] toArray(TreeSet<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static CompressedBitmap bitmapOf(LongStream ids) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        ids.forEach(bitmap::add);
+        return bitmap;
+    }
+}
@@ -0,0 +1,83 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.EnrollmentService;
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matricular a todos los alumnos en un curso vacio, en una transaccion:
+ * <ul>
+ *     <li>perEntity: cargar cada alumno, EnrollmentService.enroll(student, course) y dirty checking al hacer flush</li>
+ *     <li>enrollAll: EnrollmentService.enrollAll(courseId, ids), insert ... select por bloques de 1000 ids</li>
+ * </ul>
+ * Las matriculas se borran antes de cada invocacion (SingleShotTime, una matricula completa por medida).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkEnrollmentBenchmark {
+
+    @Param("5000")
+    private int students;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentService enrollmentService;
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> studentIds;
+    private Long courseId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        enrollmentService = context.getBean(EnrollmentService.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Student> newStudents = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            newStudents.add(Student.builder().name("Student " + i).lastName("Benchmark").build());
+        }
+        studentIds = transactionTemplate.execute(status -> studentRepository.saveAll(newStudents)).stream().map(Student::getId).toList();
+        courseId = courseRepository.save(Course.builder().name("Course").description("Benchmark").build()).getId();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearEnrollments() {
+        context.getBean(JdbcTemplate.class).update("delete from STUDENTS_courses");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void perEntity() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Course course = courseRepository.findById(courseId).orElseThrow();
+            studentRepository.findAllById(studentIds).forEach(student -> enrollmentService.enroll(student, course));
+        });
+    }
+
+    @Benchmark
+    public int enrollAll() {
+        return transactionTemplate.execute(status -> enrollmentService.enrollAll(courseId, studentIds));
+    }
+}
@@ -0,0 +1,70 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.jpa_support.journal.ChangeJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cambios por segundo que aguanta el diario de cambios (ChangeJournal), sin Spring ni bbdd.
+ *
+ * append solo encola; con la cola llena espera al hilo escritor (append-timeout de un dia: no se descarta nada), asi que a partir de unos segundos el resultado
+ * es lo que escribe el diario (JSON + segmento mapeado + un force() por lote con force=true). Al final de cada
+ * iteracion se espera a que este todo escrito, para no medir solo la cola.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChangeJournalBenchmark {
+
+    @Param({"true", "false"})
+    private boolean force;
+
+    private Path directory;
+    private ChangeJournal journal;
+    private Map<String, Object> state;
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("change-journal");
+        journal = new ChangeJournal(directory, 64 * 1024 * 1024, 65536, force, Duration.ofDays(1), new ObjectMapper());
+
+        Map<String, Object> before = new LinkedHashMap<>();
+        before.put("name", "Andres");
+        before.put("lastname", "Ruiz");
+        before.put("programingLanguage", "Java");
+        Map<String, Object> after = new LinkedHashMap<>(before);
+        after.put("programingLanguage", "Kotlin");
+        state = new LinkedHashMap<>();
+        state.put("before", before);
+        state.put("after", after);
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() throws InterruptedException {
+        journal.flush(Duration.ofMinutes(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append("Person", id++, "UPDATED", state);
+    }
+}
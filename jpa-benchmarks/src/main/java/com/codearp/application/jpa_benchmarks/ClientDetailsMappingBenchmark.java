@@ -0,0 +1,149 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientDetailsRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementCounter;
+import com.codearp.application.demospring_boot3_jpa_relationship.statements.StatementCounts;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Los ejemplos exampleOneToOne* de InitDataRunner (una transaccion por peticion) con los dos mapeos de
+ * Client / ClientDetails:
+ * <ul>
+ *     <li>fk: el de las anotaciones, CLIENTS.CLIENT_DETAILS_ID y ClientDetails.client mappedBy</li>
+ *     <li>shared-pk: META-INF/orm-shared-pk.xml, ClientDetails comparte el id del cliente (@MapsId)</li>
+ * </ul>
+ * Flujos:
+ * <ul>
+ *     <li>createWithDetails: exampleOneToOne, cliente nuevo con sus ClientDetails</li>
+ *     <li>addDetailsToExisting: exampleOneToOneAboutClientExistsBidireccional, findById + addClientDetails + save</li>
+ *     <li>loadClientWithDetails: findById del cliente y sus puntos</li>
+ *     <li>loadDetails: findById de ClientDetails y sus puntos, sin usar el cliente</li>
+ *     <li>loadDetailsWithClient: findById de ClientDetails y el nombre de su cliente</li>
+ * </ul>
+ * Las escrituras hacen flush y se deshacen, los datos son los mismos en todas las invocaciones.
+ * Al empezar imprime las sentencias de cada flujo (StatementCounter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientDetailsMappingBenchmark {
+
+    @Param({"fk", "shared-pk"})
+    private String mapping;
+
+    @Param("1000")
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private ClientRepository clientRepository;
+    private ClientDetailsRepository clientDetailsRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> clientIds;
+    private List<Long> detailsIds;
+    // clientes sin ClientDetails
+    private List<Long> withoutDetailsIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = mapping.equals("shared-pk")
+                ? SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties",
+                        "spring.jpa.mapping-resources=META-INF/orm-shared-pk.xml", "app.client-details.shared-primary-key=true")
+                : SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        clientRepository = context.getBean(ClientRepository.class);
+        clientDetailsRepository = context.getBean(ClientDetailsRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Client> withDetails = new ArrayList<>(clients);
+        List<Client> withoutDetails = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Client client = Client.builder().name("Client " + i).lastName("Details").build();
+            client.addClientDetails(ClientDetails.builder().premium(false).points(i).build());
+            withDetails.add(client);
+            withoutDetails.add(Client.builder().name("Client " + i).lastName("NoDetails").build());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            clientRepository.saveAll(withDetails);
+            clientRepository.saveAll(withoutDetails);
+        });
+        clientIds = withDetails.stream().map(Client::getId).toList();
+        detailsIds = withDetails.stream().map(client -> client.getClientDetails().getId()).toList();
+        withoutDetailsIds = withoutDetails.stream().map(Client::getId).toList();
+
+        printStatements("createWithDetails", this::createWithDetails);
+        printStatements("addDetailsToExisting", this::addDetailsToExisting);
+        printStatements("loadClientWithDetails", this::loadClientWithDetails);
+        printStatements("loadDetails", this::loadDetails);
+        printStatements("loadDetailsWithClient", this::loadDetailsWithClient);
+    }
+
+    private void printStatements(String benchmark, Supplier<?> operation) {
+        StatementCounts before = StatementCounter.snapshot();
+        operation.get();
+        StatementCounts counts = StatementCounter.snapshot().minus(before);
+        System.out.printf("%n%s %s: %d selects, %d inserts, %d updates%n", mapping, benchmark,
+                counts.getSelects(), counts.getInserts(), counts.getUpdates());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long createWithDetails() {
+        return transactionTemplate.execute(status -> {
+            Client client = Client.builder().name("New").lastName("Details").build();
+            client.addClientDetails(ClientDetails.builder().premium(true).points(1).build());
+            Long id = clientRepository.save(client).getId();
+            clientRepository.flush();
+            status.setRollbackOnly();
+            return id;
+        });
+    }
+
+    @Benchmark
+    public Long addDetailsToExisting() {
+        Long id = withoutDetailsIds.get(next++ % withoutDetailsIds.size());
+        return transactionTemplate.execute(status -> {
+            Client client = clientRepository.findById(id).orElseThrow();
+            client.addClientDetails(ClientDetails.builder().premium(true).points(1).build());
+            clientRepository.save(client);
+            clientRepository.flush();
+            status.setRollbackOnly();
+            return client.getClientDetails().getId();
+        });
+    }
+
+    @Benchmark
+    public Integer loadClientWithDetails() {
+        Long id = clientIds.get(next++ % clientIds.size());
+        return transactionTemplate.execute(status -> clientRepository.findById(id).orElseThrow().getClientDetails().getPoints());
+    }
+
+    @Benchmark
+    public Integer loadDetails() {
+        Long id = detailsIds.get(next++ % detailsIds.size());
+        return transactionTemplate.execute(status -> clientDetailsRepository.findById(id).orElseThrow().getPoints());
+    }
+
+    @Benchmark
+    public String loadDetailsWithClient() {
+        Long id = detailsIds.get(next++ % detailsIds.size());
+        return transactionTemplate.execute(status -> clientDetailsRepository.findById(id).orElseThrow().getClient().getName());
+    }
+}
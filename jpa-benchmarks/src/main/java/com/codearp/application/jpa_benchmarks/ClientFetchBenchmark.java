@@ -0,0 +1,105 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Address;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientMultiGetLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cargar N clientes con sus facturas y direcciones:
+ * <ul>
+ *     <li>findOne: una consulta por cliente con join fetch de las dos colecciones</li>
+ *     <li>findInLazy: una consulta para todos los clientes y las colecciones en bloques de @BatchSize(10)</li>
+ *     <li>ClientMultiGetLoader: bloques de multiGetChunkSize ids en paralelo, dos consultas por bloque</li>
+ * </ul>
+ * Cada operacion recorre las colecciones (las dos primeras dentro de una transaccion de solo lectura, el loader
+ * abre las suyas).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientFetchBenchmark {
+
+    @Param("100")
+    private int clients;
+
+    @Param("5")
+    private int invoicesPerClient;
+
+    @Param("2")
+    private int addressesPerClient;
+
+    @Param("25")
+    private int multiGetChunkSize;
+
+    private ConfigurableApplicationContext context;
+    private ClientRepository clientRepository;
+    private ClientMultiGetLoader clientMultiGetLoader;
+    private TransactionTemplate readOnly;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties",
+                "app.multi-get.chunk-size=" + multiGetChunkSize);
+        clientRepository = context.getBean(ClientRepository.class);
+        clientMultiGetLoader = context.getBean(ClientMultiGetLoader.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Client> batch = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Client client = Client.builder().name("Client " + i).lastName("Benchmark").build();
+            for (int j = 0; j < invoicesPerClient; j++) {
+                client.addInvoice(Invoice.builder().description("Invoice " + j).amount(BigDecimal.valueOf(j)).build());
+            }
+            for (int j = 0; j < addressesPerClient; j++) {
+                client.getAddresses().add(Address.builder().street("Street " + j).number(j).build());
+            }
+            batch.add(client);
+        }
+        ids = transactionTemplate.execute(status -> clientRepository.saveAll(batch)).stream().map(Client::getId).toList();
+
+        readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void findOneMultiFetch(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> ids.forEach(id ->
+                clientRepository.findOne(id).ifPresent(client -> consume(client, blackhole))));
+    }
+
+    @Benchmark
+    public void findInLazyBatchSize(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> clientRepository.findInLazy(ids).forEach(client -> consume(client, blackhole)));
+    }
+
+    @Benchmark
+    public void multiGetLoader(Blackhole blackhole) {
+        clientMultiGetLoader.findAllWithInvoicesAndAddresses(ids).forEach(client -> consume(client, blackhole));
+    }
+
+    private static void consume(Client client, Blackhole blackhole) {
+        client.getInvoices().forEach(blackhole::consume);
+        client.getAddresses().forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,121 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Address;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientFetchPlan;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Clientes con 100 facturas y 20 direcciones:
+ * <ul>
+ *     <li>joinFetchFindOne: Client.findWithInvoicesAndAddresses, join fetch de las dos colecciones (100 x 20 filas por cliente)</li>
+ *     <li>fetchPlanFindOne: ClientFetchPlan.ALL, una consulta por coleccion (100 + 20 filas)</li>
+ *     <li>findInLazy / fetchPlanFindAll: los mismos clientes de una vez</li>
+ * </ul>
+ * Ademas del tiempo, al arrancar se imprimen las filas que lee cada uno (RowCounter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientFetchPlanBenchmark {
+
+    @Param("10")
+    private int clients;
+
+    @Param("100")
+    private int invoicesPerClient;
+
+    @Param("20")
+    private int addressesPerClient;
+
+    private ConfigurableApplicationContext context;
+    private ClientRepository clientRepository;
+    private TransactionTemplate readOnly;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties", RowCounter.INITIALIZER);
+        clientRepository = context.getBean(ClientRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Client> batch = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Client client = Client.builder().name("Client " + i).lastName("Benchmark").build();
+            client.addClientDetails(ClientDetails.builder().premium(false).points(i).build());
+            for (int j = 0; j < invoicesPerClient; j++) {
+                client.addInvoice(Invoice.builder().description("Invoice " + j).amount(BigDecimal.valueOf(j)).build());
+            }
+            for (int j = 0; j < addressesPerClient; j++) {
+                client.getAddresses().add(Address.builder().street("Street " + j).number(j).build());
+            }
+            batch.add(client);
+        }
+        ids = transactionTemplate.execute(status -> clientRepository.saveAll(batch)).stream().map(Client::getId).toList();
+
+        readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        Blackhole blackhole = new Blackhole("Today's password is swordfish. I understand instantiating Blackholes directly is dangerous.");
+        printRows("joinFetchFindOne", this::joinFetchFindOne, blackhole);
+        printRows("fetchPlanFindOne", this::fetchPlanFindOne, blackhole);
+        printRows("findInLazy", this::findInLazy, blackhole);
+        printRows("fetchPlanFindAll", this::fetchPlanFindAll, blackhole);
+    }
+
+    private static void printRows(String benchmark, Consumer<Blackhole> operation, Blackhole blackhole) {
+        long before = RowCounter.rows();
+        operation.accept(blackhole);
+        System.out.printf("%n%s: %d filas leidas por operacion%n", benchmark, RowCounter.rows() - before);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void joinFetchFindOne(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> ids.forEach(id ->
+                clientRepository.findOne(id).ifPresent(client -> consume(client, blackhole))));
+    }
+
+    @Benchmark
+    public void fetchPlanFindOne(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> ids.forEach(id ->
+                clientRepository.findById(id, ClientFetchPlan.ALL).ifPresent(client -> consume(client, blackhole))));
+    }
+
+    @Benchmark
+    public void findInLazy(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> clientRepository.findInLazy(ids).forEach(client -> consume(client, blackhole)));
+    }
+
+    @Benchmark
+    public void fetchPlanFindAll(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status ->
+                clientRepository.findAllById(ids, ClientFetchPlan.ALL).forEach(client -> consume(client, blackhole)));
+    }
+
+    private static void consume(Client client, Blackhole blackhole) {
+        blackhole.consume(client.getClientDetails());
+        client.getInvoices().forEach(blackhole::consume);
+        client.getAddresses().forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,76 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.services.ClientPointsAccumulator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incrementos de ClientDetails.points repartidos entre pocos clientes, desde varios hilos:
+ * <ul>
+ *     <li>loadModifySave: cargar el cliente, sumar al ClientDetails y commit (un update por incremento)</li>
+ *     <li>writeBehind: ClientPointsAccumulator.addPoints, el update se hace cada app.points.flush-interval</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ClientPointsBenchmark {
+
+    @Param("20")
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private ClientRepository clientRepository;
+    private ClientPointsAccumulator clientPointsAccumulator;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        clientRepository = context.getBean(ClientRepository.class);
+        clientPointsAccumulator = context.getBean(ClientPointsAccumulator.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Client> batch = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Client client = Client.builder().name("Client " + i).lastName("Benchmark").build();
+            client.addClientDetails(ClientDetails.builder().premium(false).points(0).build());
+            batch.add(client);
+        }
+        ids = transactionTemplate.execute(status -> clientRepository.saveAll(batch)).stream().map(Client::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void loadModifySave() {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        transactionTemplate.executeWithoutResult(status -> {
+            ClientDetails details = clientRepository.findById(id).orElseThrow().getClientDetails();
+            details.setPoints(details.getPoints() + 1);
+        });
+    }
+
+    @Benchmark
+    public void writeBehind() {
+        clientPointsAccumulator.addPoints(ids.get(ThreadLocalRandom.current().nextInt(ids.size())), 1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.EnrollmentService;
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EnrollmentService.enroll en su propia transaccion: cargar alumno y curso, matricular y commit (insert en STUDENTS_courses).
+ *
+ * Las parejas alumno/curso se recorren en orden y las matriculas se borran al empezar cada iteracion,
+ * si no las colecciones crecen durante toda la ejecucion y cada iteracion mediria algo distinto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrollmentBenchmark {
+
+    @Param("1000")
+    private int students;
+
+    @Param("20")
+    private int courses;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentService enrollmentService;
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> studentIds;
+    private List<Long> courseIds;
+    private int pair;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        enrollmentService = context.getBean(EnrollmentService.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Student> newStudents = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            newStudents.add(Student.builder().name("Student " + i).lastName("Benchmark").build());
+        }
+        List<Course> newCourses = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            newCourses.add(Course.builder().name("Course " + i).description("Benchmark").build());
+        }
+        studentIds = transactionTemplate.execute(status -> studentRepository.saveAll(newStudents)).stream().map(Student::getId).toList();
+        courseIds = transactionTemplate.execute(status -> courseRepository.saveAll(newCourses)).stream().map(Course::getId).toList();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearEnrollments() {
+        context.getBean(JdbcTemplate.class).update("delete from STUDENTS_courses");
+        pair = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void enroll() {
+        // si se acaban las parejas en una iteracion vuelven a empezar (el alumno ya tiene el curso, no hay insert)
+        int current = pair++ % (students * courses);
+        Long studentId = studentIds.get(current / courses);
+        Long courseId = courseIds.get(current % courses);
+
+        transactionTemplate.executeWithoutResult(status -> enrollmentService.enroll(
+                studentRepository.findById(studentId).orElseThrow(),
+                courseRepository.findById(courseId).orElseThrow()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.EnrollmentService;
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.concurrency.OptimisticRetryExecutor;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matriculas concurrentes (4 hilos) en pocos cursos muy solicitados. Cada operacion matricula al alumno en el curso
+ * o, si ya lo esta, lo da de baja (siempre hay algo que escribir):
+ * <ul>
+ *     <li>optimistic: OptimisticRetryExecutor, sin bloquear filas; si el alumno ha cambiado se repite (@Version)</li>
+ *     <li>pessimistic: alumno y curso con select ... for update, todas las matriculas de un curso van en fila</li>
+ * </ul>
+ * Al terminar se imprimen los conflictos y reintentos del optimista. Las dos cargan en cada operacion las matriculas
+ * del curso (Course.addStudent), con muchos alumnos por curso eso pesa mas que los bloqueos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class EnrollmentContentionBenchmark {
+
+    // pocos alumnos: tambien chocan las matriculas de un mismo alumno (reintentos del optimista)
+    @Param("40")
+    private int students;
+
+    @Param("2")
+    private int courses;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentService enrollmentService;
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+    private StudentRepository studentRepository;
+    private CourseRepository courseRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private List<Long> studentIds;
+    private List<Long> courseIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        enrollmentService = context.getBean(EnrollmentService.class);
+        optimisticRetryExecutor = context.getBean(OptimisticRetryExecutor.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        List<Student> newStudents = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            newStudents.add(Student.builder().name("Student " + i).lastName("Benchmark").build());
+        }
+        List<Course> newCourses = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            newCourses.add(Course.builder().name("Course " + i).description("Benchmark").build());
+        }
+        studentIds = transactionTemplate.execute(status -> studentRepository.saveAll(newStudents)).stream().map(Student::getId).toList();
+        courseIds = transactionTemplate.execute(status -> courseRepository.saveAll(newCourses)).stream().map(Course::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        System.out.printf("%noptimistic: %.0f conflictos, %.0f reintentos, %.0f agotados%n",
+                meterRegistry.counter("optimistic.lock.conflicts", "operation", "toggle").count(),
+                meterRegistry.counter("optimistic.lock.retries", "operation", "toggle").count(),
+                meterRegistry.counter("optimistic.lock.exhausted", "operation", "toggle").count());
+        context.close();
+    }
+
+    @Benchmark
+    public void optimistic() {
+        Long studentId = randomStudent();
+        Long courseId = randomCourse();
+        optimisticRetryExecutor.executeWithoutResult("toggle", () -> toggle(
+                studentRepository.findById(studentId).orElseThrow(),
+                courseRepository.findById(courseId).orElseThrow()));
+    }
+
+    @Benchmark
+    public void pessimistic() {
+        Long studentId = randomStudent();
+        Long courseId = randomCourse();
+        transactionTemplate.executeWithoutResult(status -> toggle(
+                entityManager.find(Student.class, studentId, LockModeType.PESSIMISTIC_WRITE),
+                entityManager.find(Course.class, courseId, LockModeType.PESSIMISTIC_WRITE)));
+    }
+
+    private void toggle(Student student, Course course) {
+        if (student.getCourses().contains(course)) {
+            enrollmentService.unenroll(student, course);
+        } else {
+            enrollmentService.enroll(student, course);
+        }
+    }
+
+    private Long randomStudent() {
+        return studentIds.get(ThreadLocalRandom.current().nextInt(studentIds.size()));
+    }
+
+    private Long randomCourse() {
+        return courseIds.get(ThreadLocalRandom.current().nextInt(courseIds.size()));
+    }
+}
@@ -0,0 +1,179 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.EnrollmentService;
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Course;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Student;
+import com.codearp.application.demospring_boot3_jpa_relationship.enrollment.EnrollmentIndex;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.CourseRepository;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Preguntas sobre matriculas, cargando el grafo de entidades (join fetch, como findStudentWithCourseId) o con
+ * EnrollmentIndex:
+ * <ul>
+ *     <li>membership: esta el alumno en el curso</li>
+ *     <li>intersection: alumnos matriculados en los dos cursos</li>
+ *     <li>courseSizes: alumnos por curso</li>
+ * </ul>
+ * Al empezar imprime la memoria del indice frente a la del contexto de persistencia con todos los alumnos y sus
+ * cursos cargados (diferencia del heap usado despues de System.gc, aproximada).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrollmentIndexBenchmark {
+
+    @Param("5000")
+    private int students;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentIndex enrollmentIndex;
+    private StudentRepository studentRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManagerFactory entityManagerFactory;
+    private List<Long> studentIds;
+    // todos, pares, multiplos de 3, los 100 primeros
+    private List<Long> courseIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        enrollmentIndex = context.getBean(EnrollmentIndex.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        CourseRepository courseRepository = context.getBean(CourseRepository.class);
+        EnrollmentService enrollmentService = context.getBean(EnrollmentService.class);
+
+        List<Student> newStudents = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            newStudents.add(Student.builder().name("Student " + i).lastName("Benchmark").build());
+        }
+        studentIds = transactionTemplate.execute(status -> studentRepository.saveAll(newStudents)).stream().map(Student::getId).toList();
+        List<Course> newCourses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            newCourses.add(Course.builder().name("Course " + i).description("Benchmark").build());
+        }
+        courseIds = courseRepository.saveAll(newCourses).stream().map(Course::getId).toList();
+
+        List<Long> even = new ArrayList<>();
+        List<Long> multiplesOf3 = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            if (i % 2 == 0) {
+                even.add(studentIds.get(i));
+            }
+            if (i % 3 == 0) {
+                multiplesOf3.add(studentIds.get(i));
+            }
+        }
+        enrollmentService.enrollAll(courseIds.get(0), studentIds);
+        enrollmentService.enrollAll(courseIds.get(1), even);
+        enrollmentService.enrollAll(courseIds.get(2), multiplesOf3);
+        enrollmentService.enrollAll(courseIds.get(3), studentIds.subList(0, Math.min(100, students)));
+        enrollmentIndex.rebuild();
+
+        printMemory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean membershipEntities() {
+        Long studentId = nextStudent();
+        Long courseId = courseIds.get(3);
+        return transactionTemplate.execute(status -> studentRepository.findStudentWithCourseById(studentId)
+                .map(student -> student.getCourses().stream().anyMatch(course -> course.getId().equals(courseId)))
+                .orElse(false));
+    }
+
+    @Benchmark
+    public boolean membershipIndex() {
+        return enrollmentIndex.isEnrolled(nextStudent(), courseIds.get(3)).orElseThrow();
+    }
+
+    @Benchmark
+    public int intersectionEntities() {
+        Long second = courseIds.get(2);
+        // alumnos del primer curso con todos sus cursos (un join fetch con where c.id = ... solo trae ese curso)
+        return withEntityManager(entityManager -> entityManager
+                .createQuery("select distinct s from Student s left join fetch s.courses " +
+                        "where s.id in (select e.id from Student e join e.courses c where c.id = :courseId)", Student.class)
+                .setParameter("courseId", courseIds.get(1))
+                .getResultStream()
+                .filter(student -> student.getCourses().stream().anyMatch(course -> course.getId().equals(second)))
+                .count()).intValue();
+    }
+
+    @Benchmark
+    public long[] intersectionIndex() {
+        return enrollmentIndex.studentsInAll(courseIds.subList(1, 3)).orElseThrow();
+    }
+
+    @Benchmark
+    public int courseSizesEntities() {
+        return withEntityManager(entityManager -> entityManager
+                .createQuery("select distinct c from Course c left join fetch c.students", Course.class)
+                .getResultStream()
+                .mapToInt(course -> course.getStudents().size())
+                .sum());
+    }
+
+    @Benchmark
+    public int courseSizesIndex() {
+        return enrollmentIndex.courseSizes().orElseThrow().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private Long nextStudent() {
+        return studentIds.get(next++ % studentIds.size());
+    }
+
+    private <T> T withEntityManager(Function<EntityManager, T> function) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return function.apply(entityManager);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void printMemory() {
+        long before = usedHeap();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Student> loaded = entityManager
+                    .createQuery("select distinct s from Student s left join fetch s.courses", Student.class)
+                    .getResultList();
+            long graph = usedHeap() - before;
+            System.out.printf("%nalumnos: %d, grafo de entidades: %d KB, EnrollmentIndex: %d KB%n",
+                    loaded.size(), graph / 1024, enrollmentIndex.sizeInBytes() / 1024);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,162 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.demospring_boot3_jpa_relationship.SpringBoot3JpaRelationshipApplication;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Client;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.ClientDetails;
+import com.codearp.application.demospring_boot3_jpa_relationship.domains.Invoice;
+import com.codearp.application.demospring_boot3_jpa_relationship.repositories.ClientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de tener muchas entidades en el contexto de persistencia, con y sin la mejora de bytecode de Hibernate
+ * (perfil de Maven "enhance" de demospring_boot3_jpa_relationship). Se ejecuta dos veces, una con cada jar instalado:
+ * <pre>
+ *   mvn -f ../demospring_boot3_jpa_relationship/pom.xml install -DskipTests
+ *   mvn package &amp;&amp; java -jar target/benchmarks.jar EntityEnhancement
+ *   mvn -f ../demospring_boot3_jpa_relationship/pom.xml install -DskipTests -Ptest,enhance
+ *   mvn package &amp;&amp; java -jar target/benchmarks.jar EntityEnhancement
+ * </pre>
+ * <ul>
+ *     <li>flush: clientes con sus facturas cargados (clients * (1 + invoicesPerClient) entidades), se cambian
+ *     dirtyClients y se mide solo el flush. Sin mejora compara todas con su foto, con mejora solo mira las marcadas</li>
+ *     <li>loadInvoices: todas las facturas; con mejora no se lee description (@LazyGroup)</li>
+ *     <li>loadClientDetails: todos los ClientDetails; sin mejora el lado mappedBy (client) se carga igualmente</li>
+ * </ul>
+ * Al empezar imprime si las entidades estan mejoradas y el heap por entidad gestionada (diferencia del heap usado
+ * despues de System.gc con todo cargado, aproximada).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityEnhancementBenchmark {
+
+    private static final String LOAD_CLIENTS = "select distinct c from Client c left join fetch c.invoices where c.lastName = 'Enhancement'";
+
+    @Param("500")
+    private int clients;
+
+    @Param("10")
+    private int invoicesPerClient;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaRelationshipApplication.class, "relationship.properties");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        ClientRepository clientRepository = context.getBean(ClientRepository.class);
+
+        // cerca del limite de la columna (255)
+        String description = "Factura de prueba con una descripcion larga. ".repeat(5);
+        List<Client> batch = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Client client = Client.builder().name("Client " + i).lastName("Enhancement").build();
+            client.addClientDetails(ClientDetails.builder().premium(false).points(i).build());
+            for (int j = 0; j < invoicesPerClient; j++) {
+                client.addInvoice(Invoice.builder().description(description + j).amount(BigDecimal.valueOf(j)).build());
+            }
+            batch.add(client);
+        }
+        transactionTemplate.executeWithoutResult(status -> clientRepository.saveAll(batch));
+
+        printHeapPerEntity();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Contexto de persistencia cargado y con cambios pendientes, uno nuevo por invocacion **/
+    @State(Scope.Thread)
+    public static class LoadedContext {
+
+        @Param("10")
+        private int dirtyClients;
+
+        private EntityManager entityManager;
+
+        @Setup(Level.Invocation)
+        public void load(EntityEnhancementBenchmark benchmark) {
+            entityManager = benchmark.entityManagerFactory.createEntityManager();
+            entityManager.getTransaction().begin();
+            List<Client> loaded = entityManager.createQuery(LOAD_CLIENTS, Client.class).getResultList();
+            for (int i = 0; i < dirtyClients; i++) {
+                loaded.get(i).setName("Changed " + System.nanoTime());
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void rollback() {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public void flush(LoadedContext loadedContext) {
+        loadedContext.entityManager.flush();
+    }
+
+    @Benchmark
+    public BigDecimal loadInvoices() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select i from Invoice i", Invoice.class).getResultStream()
+                    .map(Invoice::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public long loadClientDetails() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select d from ClientDetails d", ClientDetails.class).getResultStream()
+                    .mapToLong(ClientDetails::getPoints)
+                    .sum();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void printHeapPerEntity() {
+        long before = usedHeap();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Client> loaded = entityManager.createQuery(LOAD_CLIENTS, Client.class).getResultList();
+            long used = usedHeap() - before;
+            int entities = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            System.out.printf("%nmejora de bytecode: %s, %d clientes, %d entidades gestionadas, %d bytes por entidad%n",
+                    PersistentAttributeInterceptable.class.isAssignableFrom(Client.class), loaded.size(), entities, used / entities);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
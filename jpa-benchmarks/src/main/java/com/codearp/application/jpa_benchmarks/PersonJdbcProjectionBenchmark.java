@@ -0,0 +1,80 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.tokioschool.spring.SpringBoot3JpaApplication;
+import com.tokioschool.spring.dto.PersonDto;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.projections.NameDto;
+import com.tokioschool.spring.projections.NameProjection;
+import com.tokioschool.spring.repository.PersonJdbcRepository;
+import com.tokioschool.spring.repository.PersonProjectionQueries;
+import com.tokioschool.spring.repository.PersonRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Las proyecciones de PersonProjectionQueries con JPA (PersonRepository) y con JDBC (PersonJdbcRepository).
+ *
+ * Cada invocacion lee {@value #ROWS} filas y cuenta como {@value #ROWS} operaciones, asi el resultado son filas/s.
+ * Para los bytes por fila hay que lanzarlo con el profiler de GC, la metrica es <code>gc.alloc.rate.norm</code>:
+ * <pre>java -jar target/benchmarks.jar PersonJdbcProjectionBenchmark -prof gc</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(PersonJdbcProjectionBenchmark.ROWS)
+public class PersonJdbcProjectionBenchmark {
+
+    static final int ROWS = 1000;
+
+    @Param({"jpa", "jdbc"})
+    private String repository;
+
+    private ConfigurableApplicationContext context;
+    private PersonProjectionQueries queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaApplication.class, "persons.properties");
+        PersonRepository personRepository = context.getBean(PersonRepository.class);
+        queries = "jdbc".equals(repository) ? context.getBean(PersonJdbcRepository.class) : personRepository;
+
+        List<Person> batch = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(Person.builder().name("Name " + i).lastname("Lastname " + i).programingLanguage("Java").build());
+        }
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> personRepository.saveAll(batch));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<NameProjection> getNames() {
+        return queries.getNames();
+    }
+
+    @Benchmark
+    public List<NameDto> getNameDtos() {
+        return queries.getNameDtos();
+    }
+
+    @Benchmark
+    public List<PersonDto> findPersonDtos() {
+        return queries.findPersonDtos();
+    }
+
+    @Benchmark
+    public List<Object[]> obtenerPersonDataList() {
+        return queries.obtenerPersonDataList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.codearp.application.jpa_support.pagination.KeysetPage;
+import com.tokioschool.spring.SpringBoot3JpaApplication;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+import com.tokioschool.spring.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pagina N (por defecto la 1000) de las personas ordenadas por name desc, lastname asc, id:
+ * OFFSET (Pageable) contra keyset (PersonService.findByIdBetween con el token de la pagina anterior).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonKeysetPaginationBenchmark {
+
+    private static final int CHUNK = 1_000;
+
+    @Param("200000")
+    private int persons;
+
+    @Param("1000")
+    private int page;
+
+    @Param("20")
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+    private PersonService personService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaApplication.class, "persons.properties");
+        personRepository = context.getBean(PersonRepository.class);
+        personService = context.getBean(PersonService.class);
+
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        for (int from = 0; from < persons; from += CHUNK) {
+            List<Person> batch = new ArrayList<>(CHUNK);
+            for (int i = from; i < Math.min(from + CHUNK, persons); i++) {
+                batch.add(Person.builder().name("Name " + (i % 5_000)).lastname("Lastname " + i)
+                        .programingLanguage(i % 2 == 0 ? "Java" : "Kotlin").build());
+            }
+            transactionTemplate.executeWithoutResult(status -> personRepository.saveAll(batch));
+        }
+
+        // token de la ultima fila de la pagina anterior (lo que el cliente traeria)
+        for (int i = 1; i < page; i++) {
+            token = personService.findByIdBetween(Long.MIN_VALUE, Long.MAX_VALUE, token, pageSize).getNextToken();
+        }
+        List<Long> offsetIds = offset().stream().map(Person::getId).toList();
+        List<Long> keysetIds = keyset().getContent().stream().map(Person::getId).toList();
+        if (!offsetIds.equals(keysetIds)) {
+            throw new IllegalStateException("OFFSET and keyset return different pages: " + offsetIds + " / " + keysetIds);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> offset() {
+        return personRepository.findByIdBetweenOrderByNameDescLastnameAscIdAsc(
+                Long.MIN_VALUE, Long.MAX_VALUE, PageRequest.of(page - 1, pageSize));
+    }
+
+    @Benchmark
+    public KeysetPage<Person> keyset() {
+        return personService.findByIdBetween(Long.MIN_VALUE, Long.MAX_VALUE, token, pageSize);
+    }
+}
@@ -0,0 +1,92 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.tokioschool.spring.SpringBoot3JpaApplication;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+import com.tokioschool.spring.search.PersonNameIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busquedas por "contiene" de PersonRepository (searchLikeName, findPersonNameLikeNameV2) con {@code persons} personas:
+ * <code>like '%x%'</code> recorriendo la tabla (scan, app.persons.name-index.enabled=false) o con el indice de
+ * trigramas PersonNameIndex (trigram).
+ *
+ * Los nombres son un nombre de pila y un codigo aleatorio en base 36, y se busca un fragmento de 3 caracteres del codigo
+ * (unas decenas de personas por busqueda). Las personas se cargan con JDBC y el indice se reconstruye con rebuild().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PersonNameSearchBenchmark {
+
+    private static final String[] NAMES = {"Andres", "Tadeo", "Simon", "Lucia", "Marta", "Pablo", "Elena", "Hugo"};
+    private static final String[] LASTNAMES = {"Ruiz", "Ramirez", "Perez", "Garcia", "Lopez", "Martin", "Sanchez", "Gomez"};
+    private static final int INSERT_CHUNK = 10_000;
+
+    @Param("1000000")
+    private int persons;
+
+    @Param({"scan", "trigram"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+    private final List<String> fragments = new ArrayList<>();
+    private int call;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaApplication.class, "persons.properties",
+                "app.persons.name-index.enabled=" + "trigram".equals(mode));
+        personRepository = context.getBean(PersonRepository.class);
+
+        Random random = new Random(42);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // ids a continuacion de las personas que crea el ApplicationRunner del proyecto
+        long firstId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1000 from persons", Long.class);
+        List<Object[]> batch = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 1; i <= persons; i++) {
+            String code = Integer.toString(36 * 36 * 36 + random.nextInt(35 * 36 * 36 * 36), 36);
+            batch.add(new Object[]{firstId + i, NAMES[i % NAMES.length] + " " + code, LASTNAMES[i % LASTNAMES.length], "Java"});
+            if (batch.size() == INSERT_CHUNK || i == persons) {
+                jdbcTemplate.batchUpdate("insert into persons (id, name, lastname, progaming_language) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+            if (i % (persons / 64) == 0) {
+                fragments.add(code.substring(1));
+            }
+        }
+        if ("trigram".equals(mode)) {
+            context.getBean(PersonNameIndex.class).rebuild();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> searchLikeName() {
+        return personRepository.searchLikeName(fragment().toUpperCase());
+    }
+
+    @Benchmark
+    public List<String> findPersonNameLikeNameV2() {
+        return personRepository.findPersonNameLikeNameV2(fragment());
+    }
+
+    private String fragment() {
+        return fragments.get(call++ % fragments.size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.tokioschool.spring.SpringBoot3JpaApplication;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.projections.NameDto;
+import com.tokioschool.spring.projections.NameProjection;
+import com.tokioschool.spring.repository.PersonRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proyecciones de PersonRepository (name, lastname de todas las personas):
+ * interfaz (NameProjection), DTO (NameDto, "select new") y Object[].
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonProjectionBenchmark {
+
+    @Param("1000")
+    private int persons;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaApplication.class, "persons.properties");
+        personRepository = context.getBean(PersonRepository.class);
+
+        List<Person> batch = new ArrayList<>(persons);
+        for (int i = 0; i < persons; i++) {
+            batch.add(Person.builder().name("Name " + i).lastname("Lastname " + i).programingLanguage("Java").build());
+        }
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> personRepository.saveAll(batch));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<NameProjection> interfaceProjection() {
+        return personRepository.getNames();
+    }
+
+    @Benchmark
+    public List<NameDto> dtoProjection() {
+        return personRepository.getNameDtos();
+    }
+
+    @Benchmark
+    public List<Object[]> objectArray() {
+        return personRepository.getNamesAsObj();
+    }
+}
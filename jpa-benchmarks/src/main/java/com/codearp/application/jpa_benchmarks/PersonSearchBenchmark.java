@@ -0,0 +1,88 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.tokioschool.spring.SpringBoot3JpaApplication;
+import com.tokioschool.spring.dto.PersonSummary;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+import com.tokioschool.spring.service.PersonSearchPlanCache;
+import com.tokioschool.spring.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PersonService.search(name, language) y searchSummaries con las mismas combinaciones de parametros una y otra vez:
+ * Specification (Criteria nueva en cada llamada), cache de plan por forma y plan + cache de resultados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonSearchBenchmark {
+
+    private static final String[] LANGUAGES = {"Java", "Kotlin", "Scala", "Groovy"};
+
+    @Param("2000")
+    private int persons;
+
+    @Param("500")
+    private int names;
+
+    private ConfigurableApplicationContext context;
+    private PersonService personService;
+    private PersonSearchPlanCache personSearchPlanCache;
+    private int call;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringContexts.start(SpringBoot3JpaApplication.class, "persons.properties");
+        personService = context.getBean(PersonService.class);
+        personSearchPlanCache = context.getBean(PersonSearchPlanCache.class);
+
+        List<Person> batch = new ArrayList<>(persons);
+        for (int i = 0; i < persons; i++) {
+            batch.add(Person.builder().name("Name " + (i % names)).lastname("Lastname " + i)
+                    .programingLanguage(LANGUAGES[i % LANGUAGES.length]).build());
+        }
+        PersonRepository personRepository = context.getBean(PersonRepository.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> personRepository.saveAll(batch));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> specification() {
+        call++;
+        return personService.searchBySpecification(name(), language());
+    }
+
+    @Benchmark
+    public List<Person> planCache() {
+        call++;
+        return personSearchPlanCache.search(name(), language());
+    }
+
+    @Benchmark
+    public List<PersonSummary> planAndResultCache() {
+        call++;
+        return personService.searchSummaries(name(), language());
+    }
+
+    private String name() {
+        return "Name " + (call % names);
+    }
+
+    // una de cada tres busquedas solo por nombre
+    private String language() {
+        return call % 3 == 0 ? null : LANGUAGES[call % LANGUAGES.length];
+    }
+}
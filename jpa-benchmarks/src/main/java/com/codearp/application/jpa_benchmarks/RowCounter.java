@@ -0,0 +1,66 @@
+package com.codearp.application.jpa_benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filas leidas de la bbdd (ResultSet.next() que devuelve true), para comparar cuantas filas transfiere cada forma de
+ * cargar lo mismo (p.e. el producto cartesiano de dos join fetch).
+ *
+ * El DataSource del contexto se envuelve con proxies de JDBC (Connection, Statement y ResultSet): se arranca con
+ * <code>SpringContexts.start(..., RowCounter.INITIALIZER, ...)</code> y se lee con {@link #rows()}.
+ */
+final class RowCounter {
+
+    static final ApplicationContextInitializer<ConfigurableApplicationContext> INITIALIZER = context ->
+            context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            });
+
+    private static final Set<Class<?>> WRAPPED = Set.of(Connection.class, Statement.class, PreparedStatement.class,
+            CallableStatement.class, ResultSet.class);
+    private static final AtomicLong ROWS = new AtomicLong();
+
+    private RowCounter() {
+    }
+
+    static long rows() {
+        return ROWS.get();
+    }
+
+    // AutoCloseable: el pool (HikariDataSource.close) se sigue cerrando al cerrar el contexto
+    private static <T> T proxy(Class<T> type, Object target) {
+        return type.cast(Proxy.newProxyInstance(RowCounter.class.getClassLoader(), new Class<?>[]{type, AutoCloseable.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (type == ResultSet.class && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                        ROWS.incrementAndGet();
+                    }
+                    Class<?> returnType = method.getReturnType();
+                    if (result != null && (WRAPPED.contains(returnType) || returnType == DataSource.class && type != DataSource.class)) {
+                        return proxy(returnType, result);
+                    }
+                    return result;
+                }));
+    }
+}
@@ -0,0 +1,32 @@
+package com.codearp.application.jpa_benchmarks;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Arranque de los proyectos dentro de un benchmark (una vez por trial, en el @Setup del estado).
+ *
+ * Los dos proyectos estan en el mismo classpath y los dos tienen su application.properties, asi que la
+ * configuracion se indica con spring.config.location (src/main/resources/benchmarks/*.properties).
+ */
+final class SpringContexts {
+
+    private SpringContexts() {
+    }
+
+    static ConfigurableApplicationContext start(Class<?> application, String config, String... properties) {
+        return builder(application, config, properties).run();
+    }
+
+    static ConfigurableApplicationContext start(Class<?> application, String config,
+                                                ApplicationContextInitializer<?> initializer, String... properties) {
+        return builder(application, config, properties).initializers(initializer).run();
+    }
+
+    private static SpringApplicationBuilder builder(Class<?> application, String config, String... properties) {
+        return new SpringApplicationBuilder(application)
+                .properties("spring.config.location=classpath:/benchmarks/" + config)
+                .properties(properties);
+    }
+}
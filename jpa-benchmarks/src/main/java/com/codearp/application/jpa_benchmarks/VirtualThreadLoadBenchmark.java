@@ -0,0 +1,126 @@
+package com.codearp.application.jpa_benchmarks;
+
+import com.tokioschool.spring.SpringBoot3JpaApplication;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga HTTP de GET /persons/{id} (spring-boot-3-jpa) con Tomcat en hilos de plataforma (200 hilos)
+ * y en hilos virtuales (spring.threads.virtual.enabled, con DatabaseConcurrencyLimiter).
+ *
+ * No es un benchmark de JMH: lo que interesa es el p99 con N peticiones a la vez, y eso lo dan N clientes
+ * concurrentes (hilos virtuales) que repiten la peticion, no los hilos de JMH. Por cada modo y nivel de
+ * concurrencia se imprime peticiones/s, p50, p99, errores y, en modo virtual, los hilos clavados.
+ *
+ * <pre>java -cp target/benchmarks.jar com.codearp.application.jpa_benchmarks.VirtualThreadLoadBenchmark [concurrencia...]</pre>
+ *
+ * Por defecto 1000 2500 5000 10000. Cliente y servidor comparten proceso: 10000 conexiones son 20000 descriptores,
+ * hace falta <code>ulimit -n</code> por encima.
+ */
+public class VirtualThreadLoadBenchmark {
+
+    private static final int REQUESTS_PER_CLIENT = 5;
+    private static final int PERSONS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = args.length == 0
+                ? new int[]{1000, 2500, 5000, 10000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        System.out.printf("%-9s %11s %12s %9s %9s %7s %7s%n", "modo", "concurrencia", "peticiones/s", "p50 ms", "p99 ms", "errores", "pinned");
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = SpringContexts.start(SpringBoot3JpaApplication.class,
+                    "web-load.properties", "spring.threads.virtual.enabled=" + virtual)) {
+                long firstId = insertPersons(context);
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/persons/";
+                try (HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .build()) {
+                    run(client, baseUrl, firstId, Math.min(500, levels[0])); // calentamiento
+                    for (int concurrency : levels) {
+                        Result result = run(client, baseUrl, firstId, concurrency);
+                        System.out.printf("%-9s %11d %12.0f %9.1f %9.1f %7d %7d%n", virtual ? "virtual" : "platform",
+                                concurrency, result.throughput(), result.percentile(0.50), result.percentile(0.99),
+                                result.errors(), pinned(context));
+                    }
+                }
+            }
+        }
+    }
+
+    // devuelve el primer id, los demas son consecutivos (ids de secuencia en una bbdd recien creada)
+    private static long insertPersons(ConfigurableApplicationContext context) {
+        PersonRepository personRepository = context.getBean(PersonRepository.class);
+        List<Person> batch = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            batch.add(Person.builder().name("Name " + i).lastname("Lastname " + i).programingLanguage("Java").build());
+        }
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> personRepository.saveAll(batch));
+        return batch.get(0).getId();
+    }
+
+    private static Result run(HttpClient client, String baseUrl, long firstId, int concurrency) throws InterruptedException {
+        long[] latencies = new long[concurrency * REQUESTS_PER_CLIENT];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.execute(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        HttpRequest request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + (firstId + ThreadLocalRandom.current().nextInt(PERSONS)))).GET().build();
+                        long requestStart = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[next.getAndIncrement()] = System.nanoTime() - requestStart;
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed, errors.get());
+    }
+
+    private static long pinned(ConfigurableApplicationContext context) {
+        return context.getBean(MeterRegistry.class).find("jvm.threads.virtual.pinned").timers().stream()
+                .mapToLong(Timer::count).sum();
+    }
+
+    private record Result(long[] sortedLatencies, long elapsedNanos, int errors) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1_000_000_000d);
+        }
+
+        double percentile(double p) {
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
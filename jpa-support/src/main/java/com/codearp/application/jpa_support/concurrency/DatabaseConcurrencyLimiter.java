@@ -0,0 +1,145 @@
+package com.codearp.application.jpa_support.concurrency;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita las conexiones a la bbdd abiertas a la vez con un semaforo del tamano del pool de Hikari.
+ *
+ * Con hilos virtuales no hay un pool de hilos que haga de limite: 10.000 peticiones son 10.000 hilos pidiendo
+ * conexion a la vez. Sin el semaforo esperan dentro de Hikari (y fallan con su connectionTimeout), con el semaforo
+ * esperan aqui, en orden (semaforo justo).
+ *
+ * El permiso se pide al sacar la conexion del DataSource ({@link #limit(DataSource)}) y se devuelve al cerrarla:
+ * cuenta lo mismo que el pool, ni mas ni menos. Una transaccion larga (p.e. un export en streaming) ocupa un
+ * permiso porque ocupa una conexion, y los hilos que lanza una transaccion (multi-get en paralelo) piden los
+ * suyos sin esperar al hilo que los lanza, que no suelta nada mientras tanto.
+ *
+ * Metricas (es un MeterBinder): db.concurrency.available, db.concurrency.waiting y db.concurrency.wait
+ * (tiempo esperando permiso).
+ */
+public class DatabaseConcurrencyLimiter implements MeterBinder {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public DatabaseConcurrencyLimiter(int permits, Duration acquireTimeout) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * El DataSource que pide un permiso por cada conexion.
+     */
+    public DataSource limit(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                acquire();
+                return permitted(() -> super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                acquire();
+                return permitted(() -> super.getConnection(username, password));
+            }
+        };
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("db.concurrency.wait", this, limiter -> limiter.acquisitions.sum(),
+                        limiter -> limiter.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Tiempo esperando permiso para usar la bbdd")
+                .register(registry);
+        Gauge.builder("db.concurrency.available", permits, Semaphore::availablePermits)
+                .description("Permisos libres (conexiones que se pueden pedir sin esperar)")
+                .register(registry);
+        Gauge.builder("db.concurrency.waiting", permits, Semaphore::getQueueLength)
+                .description("Hilos esperando permiso")
+                .register(registry);
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando permiso para usar la bbdd", e);
+        } finally {
+            acquisitions.increment();
+            waitNanos.add(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            throw new SQLTransientConnectionException("Sin permiso para usar la bbdd despues de "
+                    + acquireTimeout.toMillis() + " ms (" + permits.getQueueLength() + " hilos esperando)");
+        }
+    }
+
+    // con el permiso ya cogido: si no hay conexion se devuelve enseguida, si la hay se devuelve al cerrarla
+    private Connection permitted(ConnectionSupplier target) throws SQLException {
+        Connection connection;
+        try {
+            connection = target.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getTargetConnection" -> connection;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Conexion con permiso: " + connection;
+                    case "close" -> {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,72 @@
+package com.codearp.application.jpa_support.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Detecta hilos virtuales "clavados" (pinned) a su hilo portador con el evento de JFR jdk.VirtualThreadPinned:
+ * un hilo virtual que se bloquea dentro de un bloque synchronized (o en codigo nativo) no suelta el portador.
+ * Los drivers JDBC tienen caminos synchronized (H2 en la sesion, MySQL en la conexion), y con pocos portadores
+ * (tantos como cpus) unos cuantos hilos clavados frenan a todos.
+ *
+ * Cada evento se registra en el timer jvm.threads.virtual.pinned con la etiqueta source: el primer paquete
+ * conocido de la pila (h2, mysql, hikari, hibernate) u other. Solo se registran los bloqueos de mas de threshold.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    // paquete -> etiqueta, por orden: el driver antes que el pool y el pool antes que Hibernate
+    private static final List<String[]> SOURCES = List.of(
+            new String[] { "org.h2.", "h2" },
+            new String[] { "com.mysql.", "mysql" },
+            new String[] { "com.zaxxer.hikari.", "hikari" },
+            new String[] { "org.hibernate.", "hibernate" });
+
+    private final RecordingStream stream = new RecordingStream();
+    private final MeterRegistry meterRegistry;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        stream.enable(PINNED).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED, this::pinned);
+        stream.startAsync();
+    }
+
+    private void pinned(RecordedEvent event) {
+        String source = source(event);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Hilos virtuales bloqueados sin soltar su hilo portador")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        log.debug("Hilo virtual clavado {} ms ({})", event.getDuration().toMillis(), source);
+    }
+
+    static String source(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "other";
+        }
+        for (String[] candidate : SOURCES) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                if (frame.getMethod().getType().getName().startsWith(candidate[0])) {
+                    return candidate[1];
+                }
+            }
+        }
+        return "other";
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,295 @@
+package com.codearp.application.jpa_support.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diario de cambios de solo escritura al final (append-only) en segmentos mapeados en memoria (JournalFormat).
+ *
+ * {@link #append} solo deja el cambio en una cola, asi que la transaccion que lo genera no espera al disco.
+ * Un unico hilo escritor vacia la cola por lotes: serializa el estado a JSON, copia los registros al segmento
+ * mapeado y hace un unico force() por lote (group commit). Cuanto mas carga, mas grandes los lotes y menos
+ * force() por cambio.
+ *
+ * Solo se pierden cambios en estos casos, y cada uno tiene su contador ({@link ChangeJournalMetrics}):
+ * <ul>
+ *     <li>la cola sigue llena despues de esperar append-timeout: append (el hilo que ha hecho el commit) no se queda
+ *     bloqueado mas tiempo y descarta el cambio (dropped)</li>
+ *     <li>el cambio no se puede escribir (estado que no se serializa, registro mayor que el segmento): se salta solo
+ *     ese cambio, el resto del lote se escribe (failed)</li>
+ * </ul>
+ * Un error de E/S del segmento (crear el siguiente, force) para el diario: append y flush lanzan
+ * IllegalStateException con la causa.
+ *
+ * Al abrir se sigue escribiendo en el ultimo segmento, despues del ultimo registro valido.
+ */
+@Slf4j
+public class ChangeJournal implements AutoCloseable {
+
+    private static final int MAX_BATCH = 4096;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean force;
+    private final Duration appendTimeout;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Change> queue;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Thread writer;
+
+    // solo los usa el hilo escritor (y open/close)
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private volatile long nextSequence;
+
+    private long persisted; // protegido por this
+    private volatile boolean closed;
+    // error de E/S que ha parado el hilo escritor
+    private volatile Exception failure;
+
+    public ChangeJournal(Path directory, int segmentSize, int queueCapacity, boolean force, Duration appendTimeout,
+                         ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.force = force;
+        this.appendTimeout = appendTimeout;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        open();
+        this.writer = new Thread(this::write, "change-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Anade el cambio sin esperar a que se escriba (state se serializa en el hilo escritor). Con la cola llena espera
+     * como mucho append-timeout; devuelve false si el cambio se ha descartado.
+     */
+    public boolean append(String entity, Object entityId, String type, Map<String, Object> state) {
+        checkOpen();
+        try {
+            Change change = new Change(Instant.now().toEpochMilli(), entity, String.valueOf(entityId), type, state);
+            if (!queue.offer(change, appendTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                dropped.incrementAndGet();
+                log.warn("Diario de cambios lleno durante {}: se descarta el cambio {} de {} {}", appendTimeout, type,
+                        entity, entityId);
+                return false;
+            }
+            appended.incrementAndGet();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando sitio en el diario de cambios", e);
+        }
+    }
+
+    /** Espera a que todo lo anadido hasta ahora este escrito (y con force, en disco) o descartado por no poder escribirse **/
+    public synchronized boolean flush(Duration timeout) throws InterruptedException {
+        long target = appended.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (persisted < target) {
+            checkFailure();
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /** Cambios descartados porque la cola seguia llena despues de append-timeout **/
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /** Cambios que no se han podido escribir (estado no serializable, registro mayor que el segmento) **/
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /** Cambios en la cola, pendientes de escribir **/
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.join();
+        try {
+            if (failure == null) {
+                segment.force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write() {
+        List<Change> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Change first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (Change change : batch) {
+                    byte[] body = encode(change);
+                    if (body != null) {
+                        write(body);
+                    }
+                }
+                if (force) {
+                    segment.force();
+                }
+                persisted(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | UncheckedIOException e) {
+                // el segmento ya no es fiable: se para el diario en lugar de seguir perdiendo cambios sin avisar
+                log.error("Error de E/S en el diario de cambios {}, se para el diario", directory, e);
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    // null si el cambio no se puede escribir: se salta solo ese
+    private byte[] encode(Change change) {
+        try {
+            byte[] body = JournalFormat.encode(nextSequence, change.timestamp, change.entity, change.entityId,
+                    change.type, json(change.state));
+            int size = JournalFormat.HEADER + body.length;
+            if (size > segmentSize) {
+                throw new IllegalArgumentException("Cambio de " + size + " bytes, mayor que el segmento (" + segmentSize + ")");
+            }
+            return body;
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.error("No se puede escribir en el diario el cambio {} de {} {}", change.type, change.entity,
+                    change.entityId, e);
+            return null;
+        }
+    }
+
+    private void write(byte[] body) throws IOException {
+        int size = JournalFormat.HEADER + body.length;
+        if (segment.remaining() < size) {
+            roll();
+        }
+        // el cuerpo y el crc antes que la longitud: un lector nunca ve una longitud sin su registro
+        int position = segment.position();
+        segment.put(position + JournalFormat.HEADER, body);
+        segment.putInt(position + 4, JournalFormat.crc(body));
+        segment.putInt(position, body.length);
+        segment.position(position + size);
+        nextSequence++;
+    }
+
+    private String json(Map<String, Object> state) {
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Estado no serializable: " + e.getMessage(), e);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("El diario de cambios esta cerrado");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new IllegalStateException("El diario de cambios se ha parado por un error de E/S", failure);
+        }
+    }
+
+    private synchronized void persisted(int changes) {
+        persisted += changes;
+        notifyAll();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = JournalFormat.segments(directory);
+            if (segments.isEmpty()) {
+                nextSequence = 1;
+                map(JournalFormat.segment(directory, nextSequence));
+                return;
+            }
+            Path last = segments.get(segments.size() - 1);
+            nextSequence = JournalFormat.firstSequence(last);
+            map(last);
+            JournalEntry entry;
+            while ((entry = JournalFormat.read(segment)) != null) {
+                nextSequence = entry.getSequence() + 1;
+            }
+            // lo que haya despues del ultimo registro valido es un registro a medio escribir
+            for (int i = segment.position(); i < segment.limit(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            log.info("Diario de cambios en {}: se continua en la secuencia {}", directory, nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede abrir el diario de cambios en " + directory, e);
+        }
+    }
+
+    private void roll() throws IOException {
+        segment.force();
+        channel.close();
+        map(JournalFormat.segment(directory, nextSequence));
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private record Change(long timestamp, String entity, String entityId, String type, Map<String, Object> state) {
+    }
+}
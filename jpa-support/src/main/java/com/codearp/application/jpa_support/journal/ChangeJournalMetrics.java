@@ -0,0 +1,34 @@
+package com.codearp.application.jpa_support.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Metricas de un {@link ChangeJournal}; como bean de Spring Boot se registran solas:
+ * journal.changes.dropped (cola llena), journal.changes.failed (cambios que no se pueden escribir),
+ * journal.queue.size y journal.failed (1 si el diario se ha parado por un error de E/S).
+ */
+public class ChangeJournalMetrics implements MeterBinder {
+
+    private final ChangeJournal changeJournal;
+
+    public ChangeJournalMetrics(ChangeJournal changeJournal) {
+        this.changeJournal = changeJournal;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("journal.changes.dropped", changeJournal, ChangeJournal::getDropped)
+                .description("Cambios descartados porque la cola del diario seguia llena despues de append-timeout")
+                .register(registry);
+        FunctionCounter.builder("journal.changes.failed", changeJournal, ChangeJournal::getFailed)
+                .description("Cambios que no se han podido escribir en el diario")
+                .register(registry);
+        Gauge.builder("journal.queue.size", changeJournal, ChangeJournal::getQueued)
+                .register(registry);
+        Gauge.builder("journal.failed", changeJournal, journal -> journal.isFailed() ? 1 : 0)
+                .register(registry);
+    }
+}
@@ -0,0 +1,166 @@
+package com.codearp.application.jpa_support.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lectura del diario de cambios de ChangeJournal, en el mismo proceso o en otro (solo lee los ficheros).
+ *
+ * <ul>
+ *     <li>{@link #replay}: todos los cambios desde una secuencia hasta lo ultimo escrito.</li>
+ *     <li>{@link #tail}: lo mismo y despues se queda esperando los nuevos (cada poll-interval) en un hilo propio.</li>
+ * </ul>
+ */
+@Slf4j
+public class ChangeJournalReader {
+
+    private final Path directory;
+
+    public ChangeJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /** Entrega los cambios con secuencia >= fromSequence y devuelve la siguiente secuencia a leer **/
+    public long replay(long fromSequence, Consumer<JournalEntry> consumer) {
+        Cursor cursor = new Cursor(fromSequence);
+        cursor.readAvailable(consumer);
+        cursor.close();
+        return cursor.nextSequence;
+    }
+
+    public Tail tail(long fromSequence, Consumer<JournalEntry> consumer, Duration pollInterval) {
+        return new Tail(new Cursor(fromSequence), consumer, pollInterval);
+    }
+
+    /** Lectura continua del diario; close() la para **/
+    public static final class Tail implements AutoCloseable {
+
+        private final Thread thread;
+        private volatile boolean closed;
+
+        private Tail(Cursor cursor, Consumer<JournalEntry> consumer, Duration pollInterval) {
+            thread = new Thread(() -> {
+                try {
+                    while (!closed) {
+                        if (!cursor.readAvailable(consumer)) {
+                            Thread.sleep(pollInterval.toMillis());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.error("Lectura del diario de cambios interrumpida", e);
+                } finally {
+                    cursor.close();
+                }
+            }, "change-journal-tail");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            closed = true;
+            thread.join();
+        }
+    }
+
+    /** Segmento y posicion de lectura **/
+    private final class Cursor {
+
+        private long nextSequence;
+        private Path file;
+        private FileChannel channel;
+        private MappedByteBuffer segment;
+
+        private Cursor(long fromSequence) {
+            this.nextSequence = fromSequence;
+        }
+
+        /** lee todo lo disponible; false si no habia nada nuevo **/
+        boolean readAvailable(Consumer<JournalEntry> consumer) {
+            boolean read = false;
+            while (true) {
+                if (segment == null && !open()) {
+                    return read;
+                }
+                JournalEntry entry = JournalFormat.read(segment);
+                if (entry == null) {
+                    Path newer = newer();
+                    if (newer == null) {
+                        return read;
+                    }
+                    // si ya hay un segmento posterior este no va a crecer mas: se vuelve a mirar por si el
+                    // ultimo registro se ha terminado de escribir entre la lectura y el listado
+                    entry = JournalFormat.read(segment);
+                    if (entry == null) {
+                        close();
+                        map(newer);
+                        continue;
+                    }
+                }
+                if (entry.getSequence() >= nextSequence) {
+                    consumer.accept(entry);
+                    nextSequence = entry.getSequence() + 1;
+                    read = true;
+                }
+            }
+        }
+
+        // primer segmento que puede tener nextSequence: el ultimo que empieza en ella o antes
+        private boolean open() {
+            List<Path> segments = segments();
+            Path candidate = null;
+            for (Path path : segments) {
+                if (candidate == null || JournalFormat.firstSequence(path) <= nextSequence) {
+                    candidate = path;
+                }
+            }
+            return candidate != null && map(candidate);
+        }
+
+        private Path newer() {
+            return segments().stream().filter(path -> path.compareTo(file) > 0).findFirst().orElse(null);
+        }
+
+        private boolean map(Path path) {
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                file = path;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se puede leer el segmento " + path, e);
+            }
+        }
+
+        private List<Path> segments() {
+            try {
+                return JournalFormat.segments(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se puede leer el diario de cambios en " + directory, e);
+            }
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Error cerrando el segmento {}", file, e);
+                }
+            }
+            channel = null;
+            segment = null;
+        }
+    }
+}
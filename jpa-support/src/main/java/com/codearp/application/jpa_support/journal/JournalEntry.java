@@ -0,0 +1,20 @@
+package com.codearp.application.jpa_support.journal;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Un cambio leido del diario. state es JSON con el estado anterior y el nuevo de la entidad
+ * (<code>{"before": {...}, "after": {...}}</code>).
+ */
+@Value
+public class JournalEntry {
+
+    long sequence;
+    Instant timestamp;
+    String entity;
+    String entityId;
+    String type;
+    String state;
+}
@@ -0,0 +1,102 @@
+package com.codearp.application.jpa_support.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato de los segmentos del diario, comun a ChangeJournal y ChangeJournalReader.
+ *
+ * Cada segmento es un fichero de tamano fijo (relleno de ceros) que se llama como la secuencia de su primer
+ * registro. Un registro es <code>[longitud int][crc32c int][cuerpo]</code>; el cuerpo lleva la secuencia, el
+ * instante (ms) y cuatro textos UTF-8 con su longitud. Una longitud 0 es el final de lo escrito; un crc que no
+ * cuadra es un registro a medio escribir y tambien se trata como el final.
+ */
+final class JournalFormat {
+
+    static final int HEADER = 8;
+    private static final String SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static Path segment(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /** segmentos ordenados por secuencia **/
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    static byte[] encode(long sequence, long timestamp, String entity, String entityId, String type, String state) {
+        byte[][] texts = { utf8(entity), utf8(entityId), utf8(type), utf8(state) };
+        int size = 16;
+        for (byte[] text : texts) {
+            size += 4 + text.length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(size).putLong(sequence).putLong(timestamp);
+        for (byte[] text : texts) {
+            body.putInt(text.length).put(text);
+        }
+        return body.array();
+    }
+
+    static int crc(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Lee el registro de la posicion actual y avanza, o devuelve null (sin moverse) si no hay un registro
+     * completo: final de lo escrito o registro a medio escribir.
+     */
+    static JournalEntry read(ByteBuffer segment) {
+        int position = segment.position();
+        if (segment.remaining() < HEADER) {
+            return null;
+        }
+        int length = segment.getInt(position);
+        if (length <= 0 || length > segment.remaining() - HEADER) {
+            return null;
+        }
+        byte[] body = new byte[length];
+        segment.get(position + HEADER, body);
+        if (crc(body) != segment.getInt(position + 4)) {
+            return null;
+        }
+        segment.position(position + HEADER + length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        long sequence = buffer.getLong();
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        return new JournalEntry(sequence, timestamp, text(buffer), text(buffer), text(buffer), text(buffer));
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] text = new byte[buffer.getInt()];
+        buffer.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+package com.codearp.application.jpa_support.pagination;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+/**
+ * Convierte la posicion de keyset (valores de las columnas de ordenacion de la ultima fila leida)
+ * en un token opaco (base64 url) para devolver al cliente, y al reves.
+ *
+ * Se guarda el tipo de cada valor para que la comparacion en la query se haga con el tipo del atributo
+ * (p.e. un id Long no vuelve como Integer).
+ */
+public final class ContinuationTokens {
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+
+    private ContinuationTokens() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded: " + position);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeBoolean(keyset.scrollsForward());
+            out.writeShort(keyset.getKeys().size());
+            for (Map.Entry<String, Object> key : keyset.getKeys().entrySet()) {
+                out.writeUTF(key.getKey());
+                writeValue(out, key.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /** un token nulo o vacio es la primera pagina **/
+    public static KeysetScrollPosition decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported continuation token version");
+            }
+            boolean forward = in.readBoolean();
+            int size = in.readShort();
+            Map<String, Object> keys = new LinkedHashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                keys.put(in.readUTF(), readValue(in));
+            }
+            return forward ? ScrollPosition.forward(keys) : ScrollPosition.backward(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case String s -> {
+                out.writeByte(STRING);
+                out.writeUTF(s);
+            }
+            case Long l -> {
+                out.writeByte(LONG);
+                out.writeLong(l);
+            }
+            case Integer i -> {
+                out.writeByte(INTEGER);
+                out.writeInt(i);
+            }
+            default -> throw new IllegalArgumentException("Unsupported keyset value type: " + value.getClass());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> in.readUTF();
+            case LONG -> in.readLong();
+            case INTEGER -> in.readInt();
+            default -> throw new IllegalArgumentException("Unknown keyset value type " + type);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.codearp.application.jpa_support.pagination;
+
+import java.util.List;
+
+import org.springframework.data.domain.Window;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Pagina de una consulta keyset (seek): el contenido y el token para pedir la siguiente
+ * (nulo si no hay mas filas).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextToken;
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public static <T> KeysetPage<T> of(Window<T> window) {
+        String next = window.hasNext() && !window.isEmpty()
+                ? ContinuationTokens.encode(window.positionAt(window.size() - 1))
+                : null;
+        return new KeysetPage<>(window.getContent(), next);
+    }
+}
@@ -0,0 +1,268 @@
+package com.codearp.application.jpa_support.queryplan;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.data.repository.core.support.RepositoryFactoryInformation;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * EXPLAIN de todas las consultas declaradas (@Query de los repositorios, JPQL, y @NamedQuery de las entidades)
+ * para encontrar las que recorren una tabla entera (full scan) antes de que la tabla tenga millones de filas.
+ *
+ * <ol>
+ *     <li>La consulta se lanza con valores de ejemplo en una sesion con un {@link StatementInspector} propio, que
+ *     guarda el SQL que Hibernate va a ejecutar y lo corta antes de llegar a la bbdd (tampoco los delete/update).</li>
+ *     <li>Se lanza <code>EXPLAIN</code> de ese SQL con valores de ejemplo en los parametros segun su tipo.</li>
+ *     <li>Full scan segun el plan: en H2 <code>/* TABLA.tableScan *&#47;</code> con un WHERE en el plan o en una tabla
+ *     que no es la primera del join; en MySQL <code>type = ALL</code> o <code>index</code> con "Using where" o
+ *     "Using join buffer". Sirve igual si el indice no se puede usar por una funcion, p.e. <code>upper(name) like</code>.</li>
+ * </ol>
+ * Los listados completos (la primera tabla sin where) no se marcan: recorrer la tabla es lo que piden.
+ * Las @Query nativas y los query methods (findByX) no se analizan.
+ *
+ * Se ejecuta al arrancar con app.query-advisor.enabled=true (QueryPlanAdvisorConfig de cada proyecto) y en los tests
+ * con {@link #advise()} y {@link #explain(String, String)}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryPlanAdvisor {
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\* ([\\w.]+)\\.tableScan \\*/");
+    private static final Pattern H2_WHERE = Pattern.compile("\\bWHERE\\b");
+    // Spring Data acepta "like %?1%" / "like %:name%" (anade los % al valor), en JPQL no son validos
+    private static final Pattern LIKE_WILDCARDS = Pattern.compile("%(\\?\\d*|:\\w+)%|%(\\?\\d*|:\\w+)|(\\?\\d*|:\\w+)%");
+    private static final Map<Class<?>, Object> SAMPLE_VALUES = Map.ofEntries(
+            Map.entry(Long.class, 1L), Map.entry(long.class, 1L),
+            Map.entry(Integer.class, 1), Map.entry(int.class, 1),
+            Map.entry(Short.class, (short) 1), Map.entry(short.class, (short) 1),
+            Map.entry(Double.class, 1d), Map.entry(double.class, 1d),
+            Map.entry(BigDecimal.class, BigDecimal.ONE),
+            Map.entry(Boolean.class, true), Map.entry(boolean.class, true),
+            Map.entry(String.class, "a"),
+            Map.entry(LocalDate.class, LocalDate.EPOCH),
+            Map.entry(LocalDateTime.class, LocalDate.EPOCH.atStartOfDay()),
+            Map.entry(Instant.class, Instant.EPOCH));
+
+    private final ListableBeanFactory beanFactory;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    public List<QueryPlanFinding> advise() {
+        Map<String, String> queries = declaredQueries();
+        List<QueryPlanFinding> findings = new ArrayList<>(queries.size());
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = isMySql(connection);
+            queries.forEach((source, jpql) -> findings.add(explain(source, jpql, connection, mysql)));
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se puede obtener una conexion para el EXPLAIN de las consultas", e);
+        }
+        return findings;
+    }
+
+    /**
+     * EXPLAIN de una consulta JPQL cualquiera, igual que las declaradas.
+     */
+    public QueryPlanFinding explain(String source, String jpql) {
+        try (Connection connection = dataSource.getConnection()) {
+            return explain(source, jpql, connection, isMySql(connection));
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se puede obtener una conexion para el EXPLAIN de " + source, e);
+        }
+    }
+
+    // log de advise(): un warning por consulta con full scan
+    public void report() {
+        List<QueryPlanFinding> findings = advise();
+        findings.stream().filter(QueryPlanFinding::isFullScan).forEach(finding ->
+                log.warn("Full scan de {} en {}:\n  {}\n  {}", finding.getFullScans(), finding.getSource(), finding.getSql(), finding.getPlan()));
+        findings.stream().filter(finding -> finding.getError() != null).forEach(finding ->
+                log.debug("Sin EXPLAIN para {}: {}", finding.getSource(), finding.getError()));
+        log.info("EXPLAIN de {} consultas declaradas: {} con full scan", findings.size(),
+                findings.stream().filter(QueryPlanFinding::isFullScan).count());
+    }
+
+    private Map<String, String> declaredQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                queries.put(namedQuery.name(), namedQuery.query());
+            }
+        }
+        for (RepositoryFactoryInformation<?, ?> information : beanFactory.getBeansOfType(RepositoryFactoryInformation.class, false, false).values()) {
+            Class<?> repository = information.getRepositoryInformation().getRepositoryInterface();
+            for (Method method : repository.getDeclaredMethods()) {
+                org.springframework.data.jpa.repository.Query query = method.getAnnotation(org.springframework.data.jpa.repository.Query.class);
+                if (query != null && !query.nativeQuery() && !query.value().isEmpty()) {
+                    queries.put(source(repository, method), LIKE_WILDCARDS.matcher(query.value()).replaceAll("$1$2$3"));
+                }
+            }
+        }
+        return queries;
+    }
+
+    private static String source(Class<?> repository, Method method) {
+        return repository.getSimpleName() + "." + method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    private QueryPlanFinding explain(String source, String jpql, Connection connection, boolean mysql) {
+        String sql;
+        try {
+            sql = toSql(jpql);
+        } catch (RuntimeException e) {
+            return QueryPlanFinding.failed(source, null, "No se puede obtener el SQL: " + e.getMessage());
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            bindSampleValues(statement);
+            List<String> fullScans = new ArrayList<>();
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (mysql) {
+                        String table = resultSet.getString("table");
+                        String type = resultSet.getString("type");
+                        String extra = Objects.toString(resultSet.getString("Extra"), "");
+                        plan.append(table).append(": ").append(type).append(' ');
+                        if (("ALL".equals(type) || "index".equals(type))
+                                && (extra.contains("Using where") || extra.contains("Using join buffer"))) {
+                            fullScans.add(table);
+                        }
+                    } else {
+                        String row = resultSet.getString(1).replaceAll("\\s+", " ");
+                        plan.append(row);
+                        boolean filtered = H2_WHERE.matcher(row).find();
+                        Matcher tableScan = H2_TABLE_SCAN.matcher(row);
+                        while (tableScan.find()) {
+                            // la primera tabla se recorre una vez; las demas, una vez por cada fila de las anteriores
+                            boolean firstTable = tableScan.start() == row.indexOf("/*");
+                            if (filtered || !firstTable) {
+                                fullScans.add(tableScan.group(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return new QueryPlanFinding(source, sql, plan.toString().trim(), List.copyOf(fullScans), null);
+        } catch (SQLException e) {
+            return QueryPlanFinding.failed(source, sql, "EXPLAIN fallido: " + e.getMessage());
+        }
+    }
+
+    // el SQL que Hibernate ejecutaria: la consulta se lanza en una sesion propia y SqlCapture la corta antes de la bbdd
+    private String toSql(String jpql) {
+        SqlCapture capture = new SqlCapture();
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(capture).openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                Query query = session.createQuery(jpql);
+                bindSampleValues(query);
+                if (isMutation(jpql)) {
+                    query.executeUpdate();
+                } else {
+                    query.getResultList();
+                }
+            } catch (RuntimeException e) {
+                if (capture.sql == null) {
+                    throw e;
+                }
+            } finally {
+                transaction.rollback();
+            }
+        }
+        if (capture.sql == null) {
+            throw new IllegalStateException("Hibernate no ha generado SQL para " + jpql);
+        }
+        return capture.sql;
+    }
+
+    private static boolean isMutation(String jpql) {
+        String statement = jpql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("update") || statement.startsWith("delete") || statement.startsWith("insert");
+    }
+
+    private static void bindSampleValues(Query query) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            Class<?> type = parameter.getParameterType();
+            Object value = type != null && type.isEnum() ? type.getEnumConstants()[0] : SAMPLE_VALUES.get(type);
+            if (parameter.getName() != null) {
+                query.setParameter(parameter.getName(), value);
+            } else {
+                query.setParameter(parameter.getPosition(), value);
+            }
+        }
+    }
+
+    private static void bindSampleValues(PreparedStatement statement) throws SQLException {
+        ParameterMetaData parameters = statement.getParameterMetaData();
+        for (int i = 1; i <= parameters.getParameterCount(); i++) {
+            switch (parameters.getParameterType(i)) {
+                case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> statement.setLong(i, 1L);
+                case Types.DECIMAL, Types.NUMERIC, Types.DOUBLE, Types.FLOAT, Types.REAL -> statement.setBigDecimal(i, BigDecimal.ONE);
+                case Types.BOOLEAN, Types.BIT -> statement.setBoolean(i, true);
+                case Types.DATE -> statement.setDate(i, Date.valueOf(LocalDate.now()));
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> statement.setTimestamp(i, Timestamp.valueOf(LocalDateTime.now()));
+                default -> statement.setString(i, "a");
+            }
+        }
+    }
+
+    private static class SqlCapture implements StatementInspector {
+
+        private String sql;
+
+        @Override
+        public String inspect(String sql) {
+            if (this.sql == null) {
+                this.sql = sql;
+            }
+            throw new SqlCaptured();
+        }
+    }
+
+    private static class SqlCaptured extends RuntimeException {
+
+        SqlCaptured() {
+            super("SQL capturado para el EXPLAIN", null, false, false);
+        }
+    }
+}
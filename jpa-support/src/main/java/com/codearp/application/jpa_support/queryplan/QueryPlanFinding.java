@@ -0,0 +1,27 @@
+package com.codearp.application.jpa_support.queryplan;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Resultado del EXPLAIN de una consulta declarada (@Query / @NamedQuery).
+ * fullScans son las tablas que la bbdd recorre enteras; error, si no se ha podido obtener el SQL o explicarlo.
+ */
+@Value
+public class QueryPlanFinding {
+
+    String source;
+    String sql;
+    String plan;
+    List<String> fullScans;
+    String error;
+
+    static QueryPlanFinding failed(String source, String sql, String error) {
+        return new QueryPlanFinding(source, sql, null, List.of(), error);
+    }
+
+    public boolean isFullScan() {
+        return !fullScans.isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package com.codearp.application.jpa_support.startup;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Con spring.data.jpa.repositories.bootstrap-mode=deferred (perfil "fast-startup") el EntityManagerFactory se
+ * construye en otro hilo: el bean es un proxy que esta listo enseguida y Hibernate crea las tablas (ddl-auto) en
+ * segundo plano. spring.jpa.defer-datasource-initialization solo hace que los scripts de spring.sql.init (data.sql...)
+ * esperen al bean, asi que segun el orden de creacion de los beans se ejecutaban antes de que existieran las tablas.
+ *
+ * Antes de ejecutar los scripts se espera a que termine la construccion (cualquier llamada al proxy lo hace).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.data.jpa.repositories.bootstrap-mode", havingValue = "deferred")
+public class DeferredJpaBootstrapConfig {
+
+    @Bean
+    public static BeanPostProcessor scriptInitializerAfterJpaBootstrap(ListableBeanFactory beanFactory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractScriptDatabaseInitializer) {
+                    beanFactory.getBeanProvider(EntityManagerFactory.class).forEach(EntityManagerFactory::getMetamodel);
+                }
+                return bean;
+            }
+        };
+    }
+}
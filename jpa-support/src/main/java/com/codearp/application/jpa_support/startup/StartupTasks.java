@@ -0,0 +1,101 @@
+package com.codearp.application.jpa_support.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationStartupAware;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabajo que se hace al arrancar (runners, listeners de ApplicationReadyEvent) y que no hace falta para atender
+ * peticiones: los datos y ejemplos de los runners, la reconstruccion de los indices en memoria, el EXPLAIN de
+ * QueryPlanAdvisor...
+ *
+ * SpringApplication no publica ApplicationReadyEvent (ni pasa a ACCEPTING_TRAFFIC) hasta que terminan los runners, y
+ * los listeners de ApplicationReadyEvent se ejecutan antes del cambio de estado.
+ * <ul>
+ *     <li>app.startup.background-tasks=false (por defecto): se ejecutan en el hilo de arranque, como antes, y cada
+ *     una queda en la linea de tiempo del arranque (paso app.startup.task).</li>
+ *     <li>app.startup.background-tasks=true (perfil "fast-startup"): se encolan en un hilo aparte, en orden, y la
+ *     aplicacion esta lista sin esperarlas. Lo que dependa de ellas tiene que aguantar que no hayan terminado (los
+ *     indices en memoria ya responden vacio hasta la primera reconstruccion). Un error solo se registra.</li>
+ * </ul>
+ * Cada aplicacion lo registra con {@code @Import} (no esta en su paquete) y pone las propiedades app.startup.*.
+ */
+@Component
+@Slf4j
+public class StartupTasks implements ApplicationStartupAware, DisposableBean {
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private final boolean background;
+    // null si se ejecutan en el hilo de arranque
+    private final ExecutorService executor;
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    public StartupTasks(@Value("${app.startup.background-tasks:false}") boolean background) {
+        this.background = background;
+        this.executor = background ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "startup-tasks");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    public boolean isBackground() {
+        return background;
+    }
+
+    /** En el hilo de arranque un error (las excepciones comprobadas en un IllegalStateException) para el arranque **/
+    public void run(String name, Task task) {
+        if (!background) {
+            // el paso solo en el hilo de arranque: BufferingApplicationStartup anida los pasos por orden de inicio
+            StartupStep step = applicationStartup.start("app.startup.task").tag("name", name);
+            try {
+                timed(name, task);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Tarea de arranque " + name + " fallida", e);
+            } finally {
+                step.end();
+            }
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                timed(name, task);
+            } catch (Exception e) {
+                log.error("Tarea de arranque {} fallida", name, e);
+            }
+        });
+    }
+
+    private static void timed(String name, Task task) throws Exception {
+        long start = System.nanoTime();
+        task.run();
+        log.info("Tarea de arranque {} en {} ms", name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.codearp.application.jpa_support.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Linea de tiempo del arranque: el main de la aplicacion usa un BufferingApplicationStartup que guarda los pasos de
+ * Spring (spring.beans.instantiate con el nombre del bean, spring.context.refresh, spring.data.repository.init...) y
+ * los de {@link StartupTasks}. Al estar lista la aplicacion (ApplicationReadyEvent):
+ * <ul>
+ *     <li>escribe el tiempo hasta ese momento y los app.startup.timeline.top pasos con mas tiempo propio (su duracion
+ *     menos la de los pasos que contiene, si no spring.context.refresh se lo llevaria todo)</li>
+ *     <li>con app.startup.timeline.file, todos los pasos en ese fichero (tsv ordenado por inicio) para compararlo con
+ *     el de otra version</li>
+ * </ul>
+ * Mientras no se vacie (POST /actuator/startup) la misma linea de tiempo sale en GET /actuator/startup.
+ * Sin BufferingApplicationStartup (tests, contextos creados con otro SpringApplication) no hace nada.
+ */
+@Component
+@Slf4j
+public class StartupTimelineReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final int top;
+    private final String file;
+
+    public StartupTimelineReport(@Value("${app.startup.timeline.top:15}") int top,
+            @Value("${app.startup.timeline.file:}") String file) {
+        this.top = top;
+        this.file = file;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        List<Step> steps = steps(timeline);
+        log.info("Arranque en {} ms, {} pasos. Pasos con mas tiempo propio:{}", event.getTimeTaken().toMillis(),
+                steps.size(), format(mostExpensive(steps, top)));
+        if (!file.isBlank()) {
+            write(Path.of(file), timeline.getStartTime(), steps);
+        }
+    }
+
+    /** Pasos terminados con su tiempo propio, en orden de inicio **/
+    static List<Step> steps(StartupTimeline timeline) {
+        Map<Long, Duration> children = new HashMap<>();
+        for (TimelineEvent event : timeline.getEvents()) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                children.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+        List<Step> steps = new ArrayList<>();
+        for (TimelineEvent event : timeline.getEvents()) {
+            StartupStep step = event.getStartupStep();
+            Duration self = event.getDuration().minus(children.getOrDefault(step.getId(), Duration.ZERO));
+            steps.add(new Step(event.getStartTime(), event.getDuration(), self, step.getName(), tags(step)));
+        }
+        steps.sort(Comparator.comparing(Step::start));
+        return steps;
+    }
+
+    static List<Step> mostExpensive(List<Step> steps, int limit) {
+        return steps.stream()
+                .sorted(Comparator.comparing(Step::self).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private static String tags(StartupStep step) {
+        StringJoiner tags = new StringJoiner(" ");
+        step.getTags().forEach(tag -> tags.add(tag.getKey() + "=" + tag.getValue()));
+        return tags.toString();
+    }
+
+    private static String format(List<Step> steps) {
+        StringBuilder lines = new StringBuilder();
+        for (Step step : steps) {
+            lines.append("%n%8d ms %8d ms  %s %s".formatted(step.self().toMillis(), step.duration().toMillis(), step.name(),
+                    step.tags()));
+        }
+        return lines.toString();
+    }
+
+    private static void write(Path path, Instant startTime, List<Step> steps) {
+        List<String> lines = new ArrayList<>(steps.size() + 1);
+        lines.add("start_ms\tduration_ms\tself_ms\tstep\ttags");
+        for (Step step : steps) {
+            lines.add("%d\t%d\t%d\t%s\t%s".formatted(Duration.between(startTime, step.start()).toMillis(),
+                    step.duration().toMillis(), step.self().toMillis(), step.name(), step.tags()));
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(path, lines);
+            log.info("Linea de tiempo del arranque en {}", path.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    record Step(Instant start, Duration duration, Duration self, String name, String tags) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.codearp.application.jpa_support.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeJournalTests {
+
+    private static final Duration APPEND_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void continuesAfterReopeningAndTailsAcrossSegments() throws Exception {
+        // segmentos de 4KB: unos 30 registros cada uno
+        try (ChangeJournal journal = new ChangeJournal(directory, 4096, 1024, true, APPEND_TIMEOUT, objectMapper)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append("Test", i, "CREATED", Map.of("value", i));
+            }
+            assertThat(journal.flush(Duration.ofSeconds(10))).isTrue();
+        }
+
+        List<JournalEntry> tailed = new CopyOnWriteArrayList<>();
+        ChangeJournalReader reader = new ChangeJournalReader(directory);
+        try (ChangeJournal journal = new ChangeJournal(directory, 4096, 1024, true, APPEND_TIMEOUT, objectMapper);
+             ChangeJournalReader.Tail tail = reader.tail(50, tailed::add, Duration.ofMillis(10))) {
+            assertThat(journal.getLastSequence()).isEqualTo(100);
+            for (int i = 100; i < 200; i++) {
+                journal.append("Test", i, "CREATED", Map.of("value", i));
+            }
+            assertThat(journal.flush(Duration.ofSeconds(10))).isTrue();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (tailed.size() < 151 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertThat(tailed).extracting(JournalEntry::getSequence)
+                .containsExactlyElementsOf(LongStream.rangeClosed(50, 200).boxed().toList());
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        assertThat(reader.replay(1, replayed::add)).isEqualTo(201);
+        assertThat(replayed).hasSize(200);
+        assertThat(replayed.get(199).getEntityId()).isEqualTo("199");
+        assertThat(replayed.get(199).getState()).isEqualTo("{\"value\":199}");
+    }
+
+    @Test
+    void aChangeThatCannotBeWrittenSkipsOnlyThatChange() throws Exception {
+        try (ChangeJournal journal = new ChangeJournal(directory, 4096, 1024, true, APPEND_TIMEOUT, objectMapper)) {
+            for (int i = 0; i < 50; i++) {
+                Object value = switch (i) {
+                    case 10 -> new Object(); // Jackson no serializa un bean sin propiedades
+                    case 20 -> "x".repeat(5000); // mayor que el segmento
+                    default -> i;
+                };
+                assertThat(journal.append("Test", i, "CREATED", Map.of("value", value))).isTrue();
+            }
+            assertThat(journal.flush(Duration.ofSeconds(10))).isTrue();
+            assertThat(journal.getFailed()).isEqualTo(2);
+            assertThat(journal.isFailed()).isFalse();
+            assertThat(journal.getLastSequence()).isEqualTo(48);
+        }
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        new ChangeJournalReader(directory).replay(1, replayed::add);
+        assertThat(replayed).extracting(JournalEntry::getEntityId).hasSize(48).doesNotContain("10", "20")
+                .contains("9", "11", "19", "21", "49");
+        assertThat(replayed).extracting(JournalEntry::getSequence)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 48).boxed().toList());
+    }
+}
@@ -0,0 +1,41 @@
+package com.codearp.application.jpa_support.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ContinuationTokensTests {
+
+    @Test
+    void roundTripKeepsKeyOrderAndTypes() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("name", "Andres");
+        keys.put("lastname", null);
+        keys.put("id", 42L);
+
+        KeysetScrollPosition position = ContinuationTokens.decode(ContinuationTokens.encode(ScrollPosition.forward(keys)));
+
+        assertThat(position.scrollsForward()).isTrue();
+        assertThat(position.getKeys()).containsExactly(
+                entry("name", "Andres"), entry("lastname", null), entry("id", 42L));
+    }
+
+    @Test
+    void emptyTokenIsFirstPage() {
+        assertThat(ContinuationTokens.decode(null).isInitial()).isTrue();
+        assertThat(ContinuationTokens.decode("").isInitial()).isTrue();
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        assertThatThrownBy(() -> ContinuationTokens.decode("not-a-token"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
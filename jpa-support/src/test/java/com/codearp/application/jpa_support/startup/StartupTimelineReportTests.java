@@ -0,0 +1,32 @@
+package com.codearp.application.jpa_support.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupTimelineReportTests {
+
+    @Test
+    void selfTimeExcludesNestedSteps() throws InterruptedException {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+        StartupStep refresh = startup.start("refresh");
+        StartupStep bean = startup.start("bean").tag("beanName", "personNameIndex");
+        Thread.sleep(50);
+        bean.end();
+        refresh.end();
+
+        List<StartupTimelineReport.Step> steps = StartupTimelineReport.steps(startup.getBufferedTimeline());
+
+        assertThat(steps).extracting(StartupTimelineReport.Step::name).containsExactly("refresh", "bean");
+        StartupTimelineReport.Step outer = steps.get(0);
+        StartupTimelineReport.Step inner = steps.get(1);
+        assertThat(inner.tags()).isEqualTo("beanName=personNameIndex");
+        assertThat(inner.self()).isEqualTo(inner.duration());
+        assertThat(outer.self()).isEqualTo(outer.duration().minus(inner.duration()));
+        assertThat(StartupTimelineReport.mostExpensive(steps, 1)).containsExactly(inner);
+    }
+}
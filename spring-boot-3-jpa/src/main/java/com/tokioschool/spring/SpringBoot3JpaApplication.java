@@ -13,9 +13,15 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.codearp.application.jpa_support.startup.DeferredJpaBootstrapConfig;
+import com.codearp.application.jpa_support.startup.StartupTasks;
+import com.codearp.application.jpa_support.startup.StartupTimelineReport;
 import com.github.javafaker.Faker;
 import com.tokioschool.spring.entity.Person;
 import com.tokioschool.spring.projections.NameDto;
@@ -26,21 +32,32 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @SpringBootApplication
+@EnableCaching
+@Import({ StartupTasks.class, StartupTimelineReport.class, DeferredJpaBootstrapConfig.class })
 @RequiredArgsConstructor
 @Slf4j
 public class SpringBoot3JpaApplication implements ApplicationRunner {
 
 	private final PersonRepository personRepository;
 	private final PersonService personService;
+	private final StartupTasks startupTasks;
 
 	private  Scanner sc;
 
 	public static void main(String[] args) {
-		SpringApplication.run(SpringBoot3JpaApplication.class, args);
+		SpringApplication application = new SpringApplication(SpringBoot3JpaApplication.class);
+		// linea de tiempo del arranque (StartupTimelineReport, /actuator/startup); un arranque son unos pocos miles de pasos
+		application.setApplicationStartup(new BufferingApplicationStartup(10_000));
+		application.run(args);
 	}
 
 	@Override
 	public void run(ApplicationArguments args) throws Exception {
+		// con el perfil "fast-startup" los ejemplos no retrasan el arranque
+		startupTasks.run("SpringBoot3JpaApplication", this::examples);
+	}
+
+	private void examples() {
 
 		sc = new Scanner(System.in);
 
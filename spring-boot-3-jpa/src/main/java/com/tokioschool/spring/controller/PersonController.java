@@ -0,0 +1,32 @@
+package com.tokioschool.spring.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tokioschool.spring.dto.PersonDto;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Consulta de una persona por id, una lectura corta con Spring Data JPA (la usa la prueba de carga
+ * de hilos virtuales frente a hilos de plataforma).
+ *
+ * <code>curl http://localhost:8082/persons/1</code>
+ */
+@RestController
+@RequestMapping("/persons")
+@RequiredArgsConstructor
+public class PersonController {
+
+	private final PersonRepository personRepository;
+
+	@GetMapping("/{id}")
+	public ResponseEntity<PersonDto> findById(@PathVariable("id") Long id) {
+		return ResponseEntity.of(personRepository.findById(id)
+				.map(person -> new PersonDto(person.getName(), person.getLastname())));
+	}
+}
@@ -0,0 +1,44 @@
+package com.tokioschool.spring.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.tokioschool.spring.service.PersonExportService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exporta todas las personas en streaming: la respuesta se escribe en otro hilo (StreamingResponseBody)
+ * mientras se leen las filas, sin construir la lista en memoria.
+ *
+ * <code>curl http://localhost:8082/persons/export/ndjson</code>
+ */
+@RestController
+@RequestMapping("/persons/export")
+@RequiredArgsConstructor
+public class PersonExportController {
+
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+	private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+	private final PersonExportService personExportService;
+
+	@GetMapping(value = "/ndjson", produces = "application/x-ndjson")
+	public ResponseEntity<StreamingResponseBody> ndjson() {
+		return ResponseEntity.ok()
+				.contentType(NDJSON)
+				.body(personExportService::writeNdjson);
+	}
+
+	@GetMapping(value = "/csv", produces = "text/csv")
+	public ResponseEntity<StreamingResponseBody> csv() {
+		return ResponseEntity.ok()
+				.contentType(CSV)
+				.header("Content-Disposition", "attachment; filename=\"persons.csv\"")
+				.body(personExportService::writeCsv);
+	}
+}
@@ -0,0 +1,78 @@
+package com.tokioschool.spring.datasource;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Enrutado de lecturas a replicas (perfil "replicas", app.datasource.routing.enabled=true).
+ * Sustituye al DataSource de spring.datasource.*: escrituras y transacciones normales a la principal,
+ * <code>@Transactional(readOnly = true)</code> (y los metodos de lectura de los repositorios) a una replica.
+ *
+ * Metricas: hikaricp.connections.* por pool (etiqueta pool = primary, nombre de la replica),
+ * datasource.routing (etiqueta target) y datasource.replica.lag / datasource.replica.latency por replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+	@Bean(destroyMethod = "close")
+	public HikariDataSource primaryDataSource(DataSourceRoutingProperties properties, MeterRegistry meterRegistry) {
+		return pool(ReplicaRoutingDataSource.PRIMARY, properties.getPrimary(), false, meterRegistry);
+	}
+
+	// los pools de las replicas los cierra ReplicaMonitor.close()
+	@Bean(destroyMethod = "close")
+	public ReplicaMonitor replicaMonitor(HikariDataSource primaryDataSource, DataSourceRoutingProperties properties,
+			MeterRegistry meterRegistry) {
+		List<Replica> replicas = properties.getReplicas().stream().map(target -> {
+			Replica replica = new Replica(target.getName(), pool(target.getName(), target, true, meterRegistry));
+			Gauge.builder("datasource.replica.lag", replica, r -> r.getLag().toMillis())
+					.description("Retraso de la replica respecto a la principal (ms)")
+					.tag("replica", replica.getName())
+					.register(meterRegistry);
+			Gauge.builder("datasource.replica.latency", replica, Replica::getLatencyMillis)
+					.description("Latencia media de la consulta de latido (ms)")
+					.tag("replica", replica.getName())
+					.register(meterRegistry);
+			return replica;
+		}).toList();
+		return new ReplicaMonitor(primaryDataSource, replicas, properties.getMaxLag(), properties.getProbeInterval());
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaMonitor replicaMonitor,
+			DataSourceRoutingProperties properties, MeterRegistry meterRegistry) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+				primaryDataSource, replicaMonitor.getReplicas(), properties.getStrategy(), meterRegistry));
+	}
+
+	private static HikariDataSource pool(String name, DataSourceRoutingProperties.Target target, boolean readOnly,
+			MeterRegistry meterRegistry) {
+		HikariConfig config = new HikariConfig();
+		config.setPoolName(name);
+		config.setJdbcUrl(target.getUrl());
+		config.setUsername(target.getUsername());
+		config.setPassword(target.getPassword());
+		config.setMaximumPoolSize(target.getMaximumPoolSize());
+		config.setReadOnly(readOnly);
+		config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		return new HikariDataSource(config);
+	}
+}
@@ -0,0 +1,43 @@
+package com.tokioschool.spring.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * app.datasource.routing.*: bbdd principal (escrituras) y replicas (transacciones readOnly).
+ */
+@ConfigurationProperties("app.datasource.routing")
+@Getter @Setter
+public class DataSourceRoutingProperties {
+
+	public enum Strategy { ROUND_ROBIN, LEAST_LATENCY }
+
+	private boolean enabled;
+
+	private Strategy strategy = Strategy.ROUND_ROBIN;
+
+	/** una replica con mas retraso que este deja de recibir lecturas hasta que se pone al dia **/
+	private Duration maxLag = Duration.ofSeconds(5);
+
+	/** cada cuanto se escribe el latido en la principal y se mide el retraso de las replicas **/
+	private Duration probeInterval = Duration.ofSeconds(1);
+
+	private Target primary = new Target();
+
+	private List<Target> replicas = new ArrayList<>();
+
+	@Getter @Setter
+	public static class Target {
+		private String name;
+		private String url;
+		private String username;
+		private String password;
+		private int maximumPoolSize = 10;
+	}
+}
@@ -0,0 +1,40 @@
+package com.tokioschool.spring.datasource;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import lombok.Getter;
+
+/**
+ * Una replica y su ultimo estado medido por ReplicaMonitor (se lee desde los hilos que enrutan).
+ */
+@Getter
+public class Replica {
+
+	// peso de la ultima medida en la media de latencia
+	private static final double LATENCY_WEIGHT = 0.3;
+
+	private final String name;
+	private final DataSource dataSource;
+
+	private volatile boolean available;
+	private volatile Duration lag = Duration.ZERO;
+	private volatile double latencyMillis;
+
+	public Replica(String name, DataSource dataSource) {
+		this.name = name;
+		this.dataSource = dataSource;
+	}
+
+	void measured(Duration lag, double latencyMillis, Duration maxLag) {
+		this.lag = lag;
+		this.latencyMillis = this.latencyMillis == 0 ? latencyMillis
+				: LATENCY_WEIGHT * latencyMillis + (1 - LATENCY_WEIGHT) * this.latencyMillis;
+		this.available = lag.compareTo(maxLag) <= 0;
+	}
+
+	void unreachable() {
+		this.available = false;
+	}
+}
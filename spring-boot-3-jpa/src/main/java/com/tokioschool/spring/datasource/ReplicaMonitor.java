@@ -0,0 +1,119 @@
+package com.tokioschool.spring.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retraso de las replicas por latido: cada probe-interval se escribe la hora (ms) en DS_HEARTBEAT de la principal
+ * y se lee en cada replica; el retraso es ahora - latido leido. Si la replica no responde o no tiene la tabla
+ * (p.e. una H2 que no replica) se marca como no disponible y sus lecturas van a la principal.
+ *
+ * La consulta del latido sirve tambien para medir la latencia de cada replica (estrategia LEAST_LATENCY).
+ *
+ * El monitor es el dueno de los pools de las replicas: {@link #close()} los cierra (no son beans de Spring).
+ */
+@Slf4j
+public class ReplicaMonitor implements AutoCloseable {
+
+	private final DataSource primary;
+	@Getter
+	private final List<Replica> replicas;
+	private final Duration maxLag;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "replica-monitor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public ReplicaMonitor(DataSource primary, List<Replica> replicas, Duration maxLag, Duration probeInterval) {
+		this.primary = primary;
+		this.replicas = replicas;
+		this.maxLag = maxLag;
+
+		createHeartbeat();
+		probe(); // antes de la primera lectura: hasta que no se mide, una replica no esta disponible
+		scheduler.scheduleWithFixedDelay(this::probe, probeInterval.toMillis(), probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	void probe() {
+		try {
+			beat();
+		} catch (SQLException e) {
+			log.warn("No se puede escribir el latido en la bbdd principal: {}", e.getMessage());
+		}
+		replicas.forEach(this::measure);
+	}
+
+	private void measure(Replica replica) {
+		long start = System.nanoTime();
+		try (Connection connection = replica.getDataSource().getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("select BEAT_AT from DS_HEARTBEAT where ID = 1")) {
+			double latencyMillis = (System.nanoTime() - start) / 1_000_000d;
+			if (!resultSet.next()) {
+				replica.unreachable();
+				return;
+			}
+			Duration lag = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - resultSet.getLong(1)));
+			boolean wasAvailable = replica.isAvailable();
+			replica.measured(lag, latencyMillis, maxLag);
+			if (wasAvailable && !replica.isAvailable()) {
+				log.warn("Replica {} con {} ms de retraso, las lecturas van a la principal", replica.getName(), lag.toMillis());
+			}
+		} catch (SQLException e) {
+			if (replica.isAvailable()) {
+				log.warn("Replica {} no disponible: {}", replica.getName(), e.getMessage());
+			}
+			replica.unreachable();
+		}
+	}
+
+	private void createHeartbeat() {
+		try (Connection connection = primary.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("create table if not exists DS_HEARTBEAT (ID int primary key, BEAT_AT bigint not null)");
+		} catch (SQLException e) {
+			throw new IllegalStateException("No se puede crear DS_HEARTBEAT en la bbdd principal", e);
+		}
+	}
+
+	private void beat() throws SQLException {
+		long now = System.currentTimeMillis();
+		try (Connection connection = primary.getConnection();
+				PreparedStatement update = connection.prepareStatement("update DS_HEARTBEAT set BEAT_AT = ? where ID = 1")) {
+			update.setLong(1, now);
+			if (update.executeUpdate() == 0) {
+				try (PreparedStatement insert = connection.prepareStatement("insert into DS_HEARTBEAT (ID, BEAT_AT) values (1, ?)")) {
+					insert.setLong(1, now);
+					insert.executeUpdate();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		for (Replica replica : replicas) {
+			if (replica.getDataSource() instanceof AutoCloseable pool) {
+				try {
+					pool.close();
+				} catch (Exception e) {
+					log.warn("No se puede cerrar el pool de la replica {}: {}", replica.getName(), e.getMessage());
+				}
+			}
+		}
+	}
+}
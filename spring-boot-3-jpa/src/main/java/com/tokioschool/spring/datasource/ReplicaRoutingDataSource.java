@@ -0,0 +1,65 @@
+package com.tokioschool.spring.datasource;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Las transacciones readOnly van a una replica disponible (ROUND_ROBIN o LEAST_LATENCY), el resto a la principal.
+ * Si ninguna replica esta disponible (retraso mayor que max-lag o caida) la lectura va a la principal.
+ *
+ * Tiene que ir dentro de un LazyConnectionDataSourceProxy: JpaTransactionManager pide la conexion al empezar la
+ * transaccion, antes de marcarla como readOnly, y sin el proxy todo iria a la principal.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+
+	private final List<Replica> replicas;
+	private final DataSourceRoutingProperties.Strategy strategy;
+	private final MeterRegistry meterRegistry;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas,
+			DataSourceRoutingProperties.Strategy strategy, MeterRegistry meterRegistry) {
+		this.replicas = replicas;
+		this.strategy = strategy;
+		this.meterRegistry = meterRegistry;
+
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String target = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? replica() : PRIMARY;
+		meterRegistry.counter("datasource.routing", "target", target).increment();
+		return target;
+	}
+
+	private String replica() {
+		List<Replica> available = replicas.stream().filter(Replica::isAvailable).toList();
+		if (available.isEmpty()) {
+			return PRIMARY;
+		}
+		return switch (strategy) {
+			case ROUND_ROBIN -> available.get(Math.floorMod(next.getAndIncrement(), available.size())).getName();
+			case LEAST_LATENCY -> available.stream()
+					.min(Comparator.comparingDouble(Replica::getLatencyMillis))
+					.orElseThrow().getName();
+		};
+	}
+}
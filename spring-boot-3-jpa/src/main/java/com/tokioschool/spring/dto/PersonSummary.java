@@ -0,0 +1,16 @@
+package com.tokioschool.spring.dto;
+
+import lombok.Value;
+
+/**
+ * Resultado de PersonService.searchSummaries: inmutable y sin sesion de Hibernate detras, se puede guardar en la cache
+ * y compartir entre hilos (una entidad Person gestionada no).
+ */
+@Value
+public class PersonSummary {
+
+	Long id;
+	String name;
+	String lastname;
+	String programingLanguage;
+}
@@ -4,14 +4,21 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name="persons")
+// indices para los predicados de PersonRepository: programingLanguage + name (searchByProgramingLanguageAndName,
+// el prefijo sirve para searchByProgramingLanguage) y name (findOneName, findPersonByNameBetween, busquedas por nombre)
+@Table(name="persons", indexes = {
+		@Index(name = "idx_persons_language_name", columnList = "progaming_language, name"),
+		@Index(name = "idx_persons_name_lastname", columnList = "name, lastname")
+})
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @ToString
 @Builder
 public class Person {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	// SEQUENCE (pooled-lo) en lugar de IDENTITY para que saveAll pueda agrupar los inserts en batch
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "persons_seq")
+	@SequenceGenerator(name = "persons_seq", sequenceName = "PERSONS_SEQ", allocationSize = 50)
 	private Long id;
 	
 	private String name;
@@ -26,6 +33,14 @@ public class Person {
 	@Column(name = "progaming_language")
 	private String programingLanguage;
 
+	// usado por la consulta "select new Person(...)" de PersonRepository.findAllClassPerson
+	public Person(Long id, String name, String lastname, String programingLanguage) {
+		this.id = id;
+		this.name = name;
+		this.lastname = lastname;
+		this.programingLanguage = programingLanguage;
+	}
+
 	@PostLoad
 	public void postLoad(){
 		this.fullName = this.name + " "+ this.lastname;
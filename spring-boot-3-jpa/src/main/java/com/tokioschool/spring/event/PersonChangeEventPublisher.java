@@ -0,0 +1,100 @@
+package com.tokioschool.spring.event;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.event.PersonChangedEvent.PersonState;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Listener de Hibernate que, tras el commit, publica un {@link PersonChangedEvent} de Spring por cada
+ * insert, update o delete de {@link Person}. Los consumidores (@EventListener) solo ven cambios confirmados
+ * y, en los updates, tambien el estado anterior.
+ *
+ * Las operaciones masivas (JPQL update/delete, SQL nativo) no pasan por aqui.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersonChangeEventPublisher
+		implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+	private final EntityManagerFactory entityManagerFactory;
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	@PostConstruct
+	void register() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return Person.class.equals(persister.getMappedClass());
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		Long id = (Long) event.getId();
+		applicationEventPublisher.publishEvent(new PersonChangedEvent(PersonChangedEvent.Type.CREATED, id,
+				null, state(id, event.getPersister(), event.getState())));
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		Long id = (Long) event.getId();
+		applicationEventPublisher.publishEvent(new PersonChangedEvent(PersonChangedEvent.Type.UPDATED, id,
+				state(id, event.getPersister(), event.getOldState()), state(id, event.getPersister(), event.getState())));
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		Long id = (Long) event.getId();
+		applicationEventPublisher.publishEvent(new PersonChangedEvent(PersonChangedEvent.Type.DELETED, id,
+				state(id, event.getPersister(), event.getDeletedState()), null));
+	}
+
+	// si el commit falla no hay nada que publicar
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	/** el estado de Hibernate es un Object[] en el orden de persister.getPropertyNames() **/
+	private static PersonState state(Long id, EntityPersister persister, Object[] values) {
+		if (values == null) {
+			return null; // p.e. update de una entidad detached sin estado cargado
+		}
+		List<String> properties = Arrays.asList(persister.getPropertyNames());
+		return new PersonState(id,
+				(String) values[properties.indexOf("name")],
+				(String) values[properties.indexOf("lastname")],
+				(String) values[properties.indexOf("programingLanguage")]);
+	}
+}
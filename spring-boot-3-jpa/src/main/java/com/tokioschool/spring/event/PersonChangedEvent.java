@@ -0,0 +1,27 @@
+package com.tokioschool.spring.event;
+
+import lombok.Value;
+
+/**
+ * Cambio de una persona ya confirmado en la bbdd (se publica despues del commit).
+ * <code>before</code> es nulo en las altas y <code>after</code> en las bajas.
+ */
+@Value
+public class PersonChangedEvent {
+
+	public enum Type { CREATED, UPDATED, DELETED }
+
+	Type type;
+	Long id;
+	PersonState before;
+	PersonState after;
+
+	/** Valores de las columnas de la persona en un momento dado **/
+	@Value
+	public static class PersonState {
+		Long id;
+		String name;
+		String lastname;
+		String programingLanguage;
+	}
+}
@@ -0,0 +1,15 @@
+package com.tokioschool.spring.event;
+
+import lombok.Value;
+
+/**
+ * Una transaccion confirmada ha escrito en la tabla persons (se publica despues del commit, una vez por transaccion).
+ * A diferencia de {@link PersonChangedEvent} no dice que personas: llega con los update/delete masivos y el SQL
+ * nativo, no con los cambios de las entidades (esos ya publican su PersonChangedEvent).
+ * <code>sql</code> es la primera sentencia de la transaccion que escribio en la tabla.
+ */
+@Value
+public class PersonTableChangedEvent {
+
+	String sql;
+}
@@ -0,0 +1,83 @@
+package com.tokioschool.spring.event;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * StatementInspector de Hibernate que publica un {@link PersonTableChangedEvent} despues del commit de cada
+ * transaccion que escribe en la tabla persons. Cubre lo que no llega como {@link PersonChangedEvent}: los
+ * update/delete masivos de JPQL y el SQL nativo lanzado con Hibernate. Los insert/update/delete de las entidades
+ * se ejecutan durante el flush de la sesion de la transaccion y se ignoran: ya tienen su PersonChangedEvent.
+ *
+ * Lo que se escribe con JdbcTemplate o desde otra aplicacion no pasa por Hibernate: ahi solo queda el TTL de las caches.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersonTableWriteInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+	private static final Object KEY = PersonTableWriteInspector.class.getName() + ".WRITTEN";
+	private static final Pattern PERSONS_WRITE = Pattern.compile(
+			"^\\s*(?:/\\*.*?\\*/\\s*)?(?:update|delete\\s+from|insert\\s+into|merge\\s+into)\\s+persons\\b",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+	}
+
+	@Override
+	public String inspect(String sql) {
+		if (PERSONS_WRITE.matcher(sql).find() && !flushingEntities()) {
+			written(sql);
+		}
+		return sql;
+	}
+
+	// el flush de la sesion unida a la transaccion de Spring ejecuta las acciones de las entidades
+	private static boolean flushingEntities() {
+		for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+			if (resource instanceof EntityManagerHolder holder
+					&& holder.getEntityManager().unwrap(SessionImplementor.class).getPersistenceContextInternal().isFlushing()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void written(String sql) {
+		// sin transaccion de Spring (no deberia: un update masivo la exige) se avisa ya
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			applicationEventPublisher.publishEvent(new PersonTableChangedEvent(sql));
+			return;
+		}
+		if (TransactionSynchronizationManager.hasResource(KEY)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(KEY, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				applicationEventPublisher.publishEvent(new PersonTableChangedEvent(sql));
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+			}
+		});
+	}
+}
@@ -0,0 +1,96 @@
+package com.tokioschool.spring.event;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tokioschool.spring.entity.Person;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Si la transaccion actual ha escrito alguna {@link Person}. Lo que se mantiene con los {@link PersonChangedEvent}
+ * (PersonNameIndex, PersonStatistics) solo ve los cambios despues del commit: una transaccion que ha escrito
+ * personas tiene que ir a la bbdd para ver sus propios cambios, igual que veia el JPQL con el auto flush.
+ *
+ * Listener de Hibernate de los insert/update/delete al volcarse (no despues del commit), que deja una marca en la
+ * transaccion de Spring hasta que termina.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersonTransactionWrites implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+	private static final Object KEY = PersonTransactionWrites.class.getName() + ".WRITTEN";
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	@PostConstruct
+	void register() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	/**
+	 * Vuelca los cambios pendientes de la sesion (como el auto flush de una consulta) y dice si la transaccion actual
+	 * ha escrito personas. En una transaccion de solo lectura no hay nada que volcar.
+	 */
+	public boolean inCurrentTransaction(EntityManager entityManager) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return false;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			entityManager.flush();
+		}
+		return TransactionSynchronizationManager.hasResource(KEY);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		written(event.getPersister());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		written(event.getPersister());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		written(event.getPersister());
+	}
+
+	private static void written(EntityPersister persister) {
+		if (!Person.class.equals(persister.getMappedClass()) || !TransactionSynchronizationManager.isSynchronizationActive()
+				|| TransactionSynchronizationManager.hasResource(KEY)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(KEY, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+			}
+		});
+	}
+}
@@ -0,0 +1,51 @@
+package com.tokioschool.spring.journal;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.codearp.application.jpa_support.journal.ChangeJournal;
+import com.codearp.application.jpa_support.journal.ChangeJournalMetrics;
+import com.codearp.application.jpa_support.journal.ChangeJournalReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Diario de cambios de Person (app.journal.enabled=true). Cada aplicacion necesita su propio directorio:
+ * solo puede haber un ChangeJournal escribiendo en el.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class ChangeJournalConfig {
+
+	@Bean(destroyMethod = "close")
+	public ChangeJournal changeJournal(
+			@Value("${app.journal.directory:journal}") Path directory,
+			@Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+			@Value("${app.journal.queue-capacity:65536}") int queueCapacity,
+			@Value("${app.journal.force:true}") boolean force,
+			@Value("${app.journal.append-timeout:1s}") Duration appendTimeout,
+			ObjectMapper objectMapper) {
+		return new ChangeJournal(directory, Math.toIntExact(segmentSize.toBytes()), queueCapacity, force, appendTimeout,
+				objectMapper);
+	}
+
+	@Bean
+	public ChangeJournalMetrics changeJournalMetrics(ChangeJournal changeJournal) {
+		return new ChangeJournalMetrics(changeJournal);
+	}
+
+	@Bean
+	public ChangeJournalReader changeJournalReader(ChangeJournal changeJournal) {
+		return new ChangeJournalReader(changeJournal.getDirectory());
+	}
+
+	@Bean
+	public PersonChangeJournalListener personChangeJournalListener(ChangeJournal changeJournal) {
+		return new PersonChangeJournalListener(changeJournal);
+	}
+}
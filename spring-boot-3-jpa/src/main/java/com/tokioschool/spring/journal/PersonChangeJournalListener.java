@@ -0,0 +1,43 @@
+package com.tokioschool.spring.journal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+
+import com.tokioschool.spring.event.PersonChangedEvent;
+import com.tokioschool.spring.event.PersonChangedEvent.PersonState;
+
+import com.codearp.application.jpa_support.journal.ChangeJournal;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Historico de Person: cada PersonChangedEvent (ya confirmado) va al diario de cambios con el estado anterior y
+ * el nuevo. Audit solo guarda en la fila cuando se creo y cuando se modifico por ultima vez; el diario guarda
+ * todos los cambios sin escribir mas en la bbdd.
+ */
+@RequiredArgsConstructor
+public class PersonChangeJournalListener {
+
+	private final ChangeJournal changeJournal;
+
+	@EventListener
+	public void onPersonChanged(PersonChangedEvent event) {
+		Map<String, Object> state = new LinkedHashMap<>();
+		state.put("before", values(event.getBefore()));
+		state.put("after", values(event.getAfter()));
+		changeJournal.append("Person", event.getId(), event.getType().name(), state);
+	}
+
+	private static Map<String, Object> values(PersonState person) {
+		if (person == null) {
+			return null;
+		}
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put("name", person.getName());
+		values.put("lastname", person.getLastname());
+		values.put("programingLanguage", person.getProgramingLanguage());
+		return values;
+	}
+}
@@ -0,0 +1,35 @@
+package com.tokioschool.spring.queryplan;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.codearp.application.jpa_support.queryplan.QueryPlanAdvisor;
+import com.codearp.application.jpa_support.startup.StartupTasks;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * EXPLAIN de las consultas declaradas al arrancar (app.query-advisor.enabled=true): un warning por cada full scan.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-advisor.enabled", havingValue = "true")
+public class QueryPlanAdvisorConfig {
+
+	@Bean
+	public QueryPlanAdvisor queryPlanAdvisor(ListableBeanFactory beanFactory, EntityManagerFactory entityManagerFactory,
+			DataSource dataSource) {
+		return new QueryPlanAdvisor(beanFactory, entityManagerFactory, dataSource);
+	}
+
+	@Bean
+	public ApplicationListener<ApplicationReadyEvent> queryPlanAdvisorRunner(QueryPlanAdvisor queryPlanAdvisor,
+			StartupTasks startupTasks) {
+		return event -> startupTasks.run("QueryPlanAdvisor", queryPlanAdvisor::report);
+	}
+}
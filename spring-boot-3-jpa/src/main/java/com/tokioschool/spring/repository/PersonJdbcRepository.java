@@ -0,0 +1,72 @@
+package com.tokioschool.spring.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tokioschool.spring.dto.PersonDto;
+import com.tokioschool.spring.projections.NameDto;
+import com.tokioschool.spring.projections.NameProjection;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Las mismas proyecciones que PersonRepository pero con NamedParameterJdbcTemplate, sin pasar por Hibernate:
+ * no hay contexto de persistencia, ni proxies de la proyeccion por interfaz, ni traduccion de JPQL.
+ *
+ * El SQL es constante, NamedParameterJdbcTemplate lo parsea una vez y lo guarda en su cache (cacheLimit).
+ * Los RowMapper son estaticos, leen por posicion de columna (sin buscar por nombre) y solo crean el objeto
+ * de la fila. Las transacciones son readOnly, con el enrutado de app.datasource.routing van a las replicas.
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class PersonJdbcRepository implements PersonProjectionQueries {
+
+	private static final String SELECT_NAMES = "select name, lastname from persons";
+	private static final String SELECT_NAME_LANGUAGE = "select name, progaming_language from persons";
+
+	private static final RowMapper<NameProjection> NAME_PROJECTION = (rs, rowNum) -> new NameRow(rs.getString(1), rs.getString(2));
+	private static final RowMapper<NameDto> NAME_DTO = (rs, rowNum) -> new NameDto(rs.getString(1), rs.getString(2));
+	private static final RowMapper<PersonDto> PERSON_DTO = (rs, rowNum) -> new PersonDto(rs.getString(1), rs.getString(2));
+	private static final RowMapper<Object[]> NAME_LANGUAGE = (rs, rowNum) -> new Object[] { rs.getString(1), rs.getString(2) };
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	@Override
+	public List<NameProjection> getNames() {
+		return jdbcTemplate.query(SELECT_NAMES, NAME_PROJECTION);
+	}
+
+	@Override
+	public List<NameDto> getNameDtos() {
+		return jdbcTemplate.query(SELECT_NAMES, NAME_DTO);
+	}
+
+	@Override
+	public List<PersonDto> findPersonDtos() {
+		return jdbcTemplate.query(SELECT_NAMES, PERSON_DTO);
+	}
+
+	@Override
+	public List<Object[]> obtenerPersonDataList() {
+		return jdbcTemplate.query(SELECT_NAME_LANGUAGE, NAME_LANGUAGE);
+	}
+
+	// NameProjection sin proxy: dos campos y nada mas
+	private record NameRow(String name, String lastname) implements NameProjection {
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public String getLastname() {
+			return lastname;
+		}
+	}
+}
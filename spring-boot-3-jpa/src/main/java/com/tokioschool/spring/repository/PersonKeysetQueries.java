@@ -0,0 +1,21 @@
+package com.tokioschool.spring.repository;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.tokioschool.spring.entity.Person;
+
+/**
+ * Paginacion keyset (seek) ordenada por name desc, lastname asc, id asc: la siguiente pagina empieza despues de la
+ * ultima fila leida en lugar de saltar N filas con OFFSET, el coste no crece con la profundidad de la pagina.
+ *
+ * name y lastname admiten nulos y el keyset de Spring Data (comparar con <code>&lt;</code>/<code>&gt;</code>) se
+ * saltaria esas filas o cortaria el recorrido. La implementacion (PersonKeysetQueriesImpl) ordena y compara por
+ * <code>coalesce(columna, '')</code>: un nombre nulo va junto a los vacios, desempatado por id.
+ */
+public interface PersonKeysetQueries {
+
+	/** solo hacia delante; la posicion inicial es <code>ScrollPosition.keyset()</code> **/
+	Window<Person> scroll(Specification<Person> spec, KeysetScrollPosition position, int limit);
+}
@@ -0,0 +1,85 @@
+package com.tokioschool.spring.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tokioschool.spring.entity.Person;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Las claves del token son los valores ya sin nulos (name y lastname con '' en lugar de null) y el id.
+ * Se pide una fila mas que el limite para saber si hay pagina siguiente.
+ */
+@Transactional(readOnly = true)
+class PersonKeysetQueriesImpl implements PersonKeysetQueries {
+
+	private static final String NULL_KEY = "";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Window<Person> scroll(Specification<Person> spec, KeysetScrollPosition position, int limit) {
+		if (!position.scrollsForward()) {
+			throw new IllegalArgumentException("Only forward keyset positions are supported: " + position);
+		}
+
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Person> query = cb.createQuery(Person.class);
+		Root<Person> p = query.from(Person.class);
+		Expression<String> name = cb.coalesce(p.<String>get("name"), NULL_KEY);
+		Expression<String> lastname = cb.coalesce(p.<String>get("lastname"), NULL_KEY);
+		Path<Long> id = p.get("id");
+
+		List<Predicate> where = new ArrayList<>(2);
+		Predicate filter = spec.toPredicate(p, query, cb);
+		if (filter != null) {
+			where.add(filter);
+		}
+		if (!position.isInitial()) {
+			where.add(after(cb, name, lastname, id, position.getKeys()));
+		}
+		query.select(p).where(where.toArray(Predicate[]::new)).orderBy(cb.desc(name), cb.asc(lastname), cb.asc(id));
+
+		List<Person> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+		List<Person> content = rows.size() > limit ? rows.subList(0, limit) : rows;
+		return Window.from(content, i -> positionOf(content.get(i)), rows.size() > limit);
+	}
+
+	// name < :name or (name = :name and (lastname > :lastname or (lastname = :lastname and id > :id)))
+	private static Predicate after(CriteriaBuilder cb, Expression<String> name, Expression<String> lastname,
+			Path<Long> id, Map<String, Object> keys) {
+		if (!(keys.get("name") instanceof String lastName) || !(keys.get("lastname") instanceof String lastLastname)
+				|| !(keys.get("id") instanceof Long lastId)) {
+			throw new IllegalArgumentException("Invalid keyset position: " + keys);
+		}
+		return cb.or(cb.lessThan(name, lastName),
+				cb.and(cb.equal(name, lastName),
+						cb.or(cb.greaterThan(lastname, lastLastname),
+								cb.and(cb.equal(lastname, lastLastname), cb.greaterThan(id, lastId)))));
+	}
+
+	private static ScrollPosition positionOf(Person person) {
+		Map<String, Object> keys = new LinkedHashMap<>(4);
+		keys.put("name", person.getName() == null ? NULL_KEY : person.getName());
+		keys.put("lastname", person.getLastname() == null ? NULL_KEY : person.getLastname());
+		keys.put("id", person.getId());
+		return ScrollPosition.forward(keys);
+	}
+}
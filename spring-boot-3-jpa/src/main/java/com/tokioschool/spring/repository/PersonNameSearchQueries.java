@@ -0,0 +1,25 @@
+package com.tokioschool.spring.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.tokioschool.spring.entity.Person;
+
+/**
+ * Busquedas por "contiene" sobre Person.name (<code>like '%x%'</code>). Ningun indice B-tree sirve para un like
+ * que empieza por %, asi que la implementacion (PersonNameSearchQueriesImpl) usa el indice de trigramas
+ * PersonNameIndex y solo va a la bbdd por id.
+ */
+public interface PersonNameSearchQueries {
+
+	// sin distinguir mayusculas: UPPER(name) like UPPER('%x%')
+	List<Person> searchLikeName(String namePerson);
+
+	// basado en query
+	Optional<Person> findLikeName(String name);
+
+	// basado en nombre metodo
+	Optional<Person> findByNameContains(String name);
+
+	List<String> findPersonNameLikeNameV2(String name);
+}
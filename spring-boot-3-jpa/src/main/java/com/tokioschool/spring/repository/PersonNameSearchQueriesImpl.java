@@ -0,0 +1,128 @@
+package com.tokioschool.spring.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.event.PersonTransactionWrites;
+import com.tokioschool.spring.search.PersonNameIndex;
+import com.tokioschool.spring.search.PersonNameIndex.Field;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Los ids salen de PersonNameIndex y las personas (o sus nombres) se cargan por id (en bloques de {@value #IN_CHUNK},
+ * ordenadas por id). Como el indice se actualiza despues del commit, al cargarlas se vuelve a comprobar el nombre.
+ * Se lanza el like de siempre contra la tabla si el indice no puede responder, si la transaccion actual ha escrito
+ * personas (el indice aun no tiene esos cambios, ver PersonTransactionWrites) o si el texto lleva comodines del like
+ * (<code>%</code>, <code>_</code>) o su caracter de escape (<code>\</code>): el indice los compararia como texto.
+ */
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+class PersonNameSearchQueriesImpl implements PersonNameSearchQueries {
+
+	private static final String SEARCH_LIKE_NAME = "select p from Person p where UPPER(p.name) like CONCAT('%', UPPER(:name), '%')";
+	private static final String FIND_LIKE_NAME = "select p from Person p where p.name like CONCAT('%', :name, '%')";
+	private static final String FIND_NAMES_LIKE_NAME = "select p.name from Person p where p.name like CONCAT('%', :name, '%')";
+	private static final String FIND_BY_IDS = "select p from Person p where p.id in :ids order by p.id";
+	private static final String FIND_NAMES_BY_IDS = "select p.name from Person p where p.id in :ids and p.name like CONCAT('%', :name, '%') order by p.id";
+
+	private static final int IN_CHUNK = 1000;
+
+	private final PersonNameIndex personNameIndex;
+	private final PersonTransactionWrites personTransactionWrites;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// con null el like no coincide con ninguna fila
+	@Override
+	public List<Person> searchLikeName(String namePerson) {
+		if (namePerson == null) {
+			return List.of();
+		}
+		String upper = namePerson.toUpperCase(Locale.ROOT);
+		return idsContaining(namePerson, true)
+				.map(ids -> findByIds(ids, p -> p.getName() != null && p.getName().toUpperCase(Locale.ROOT).contains(upper)))
+				.orElseGet(() -> scan(SEARCH_LIKE_NAME, namePerson));
+	}
+
+	@Override
+	public Optional<Person> findLikeName(String name) {
+		if (name == null) {
+			return Optional.empty();
+		}
+		return single(idsContaining(name, false)
+				.map(ids -> findByIds(ids, p -> p.getName() != null && p.getName().contains(name)))
+				.orElseGet(() -> scan(FIND_LIKE_NAME, name)));
+	}
+
+	@Override
+	public Optional<Person> findByNameContains(String name) {
+		return findLikeName(name);
+	}
+
+	// solo la columna, el like se repite sobre los candidatos para no devolver nombres que ya no estan en la tabla
+	@Override
+	public List<String> findPersonNameLikeNameV2(String name) {
+		if (name == null) {
+			return List.of();
+		}
+		return idsContaining(name, false)
+				.map(ids -> findNamesByIds(ids, name))
+				.orElseGet(() -> entityManager.createQuery(FIND_NAMES_LIKE_NAME, String.class).setParameter("name", name).getResultList());
+	}
+
+	private Optional<long[]> idsContaining(String name, boolean ignoreCase) {
+		if (hasLikeWildcards(name) || personTransactionWrites.inCurrentTransaction(entityManager)) {
+			return Optional.empty();
+		}
+		return personNameIndex.idsContaining(Field.NAME, name, ignoreCase);
+	}
+
+	private List<Person> findByIds(long[] ids, Predicate<Person> stillMatches) {
+		List<Person> persons = new ArrayList<>(ids.length);
+		for (int from = 0; from < ids.length; from += IN_CHUNK) {
+			List<Long> chunk = Arrays.stream(ids, from, Math.min(from + IN_CHUNK, ids.length)).boxed().toList();
+			entityManager.createQuery(FIND_BY_IDS, Person.class).setParameter("ids", chunk).getResultStream()
+					.filter(stillMatches)
+					.forEach(persons::add);
+		}
+		return persons;
+	}
+
+	private List<String> findNamesByIds(long[] ids, String name) {
+		List<String> names = new ArrayList<>(ids.length);
+		for (int from = 0; from < ids.length; from += IN_CHUNK) {
+			List<Long> chunk = Arrays.stream(ids, from, Math.min(from + IN_CHUNK, ids.length)).boxed().toList();
+			names.addAll(entityManager.createQuery(FIND_NAMES_BY_IDS, String.class).setParameter("ids", chunk)
+					.setParameter("name", name).getResultList());
+		}
+		return names;
+	}
+
+	private List<Person> scan(String jpql, String name) {
+		return entityManager.createQuery(jpql, Person.class).setParameter("name", name).getResultList();
+	}
+
+	private static boolean hasLikeWildcards(String name) {
+		return name.indexOf('%') >= 0 || name.indexOf('_') >= 0 || name.indexOf('\\') >= 0;
+	}
+
+	// mismo comportamiento que un Optional de Spring Data: mas de un resultado es un error
+	private static Optional<Person> single(List<Person> persons) {
+		if (persons.size() > 1) {
+			throw new IncorrectResultSizeDataAccessException(1, persons.size());
+		}
+		return persons.stream().findFirst();
+	}
+}
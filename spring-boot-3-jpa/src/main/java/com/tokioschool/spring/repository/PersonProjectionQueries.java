@@ -0,0 +1,23 @@
+package com.tokioschool.spring.repository;
+
+import java.util.List;
+
+import com.tokioschool.spring.dto.PersonDto;
+import com.tokioschool.spring.projections.NameDto;
+import com.tokioschool.spring.projections.NameProjection;
+
+/**
+ * Proyecciones de Person de solo lectura. Las implementan PersonRepository (JPA) y PersonJdbcRepository (JDBC),
+ * cada llamada elige cual inyectar segun le importe mas la comodidad o el coste por fila.
+ */
+public interface PersonProjectionQueries {
+
+	List<NameProjection> getNames();
+
+	List<NameDto> getNameDtos();
+
+	List<PersonDto> findPersonDtos();
+
+	// name, programingLanguage
+	List<Object[]> obtenerPersonDataList();
+}
@@ -2,19 +2,26 @@ package com.tokioschool.spring.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import com.tokioschool.spring.dto.PersonDto;
 import com.tokioschool.spring.entity.Person;
 import com.tokioschool.spring.projections.NameDto;
 import com.tokioschool.spring.projections.NameProjection;
 
 @Repository
-public interface PersonRepository extends CrudRepository<Person, Long>{
+public interface PersonRepository extends CrudRepository<Person, Long>, PersonProjectionQueries, PersonNameSearchQueries,
+		PersonStatisticsQueries, PersonKeysetQueries {
 	// Query Methods
 	List<Person> findByProgramingLanguage(String progamingLanguage);
 		
@@ -25,8 +32,7 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 	@Query("select p from Person p where p.programingLanguage=?1 and p.name=?2")
 	List<Person> searchByProgramingLanguageAndName(String programingLanguage,String namePerson);
 	
-	@Query("select p from Person p where UPPER(p.name) like CONCAT('%', UPPER(:name), '%')")
-	List<Person> searchLikeName(@Param("name") String namePerson);
+	// searchLikeName: PersonNameSearchQueries (indice de trigramas)
 	
 	// obtain properties of person
 	@Query("select p.name, p.programingLanguage from Person p")
@@ -45,11 +51,7 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 	@Query("select p from Person p where p.name = ?1 ")
 	public Optional<Person> findOneName(String name);
 	
-		// basado en query
-	@Query("select p from Person p where p.name like %?1% ")
-	public Optional<Person> findLikeName(String name);
-		// basado en nombre metodo
-	public Optional<Person> findByNameContains(String name);
+	// findLikeName / findByNameContains: PersonNameSearchQueries (indice de trigramas)
 	
 	
 	// obtenre campos personalizados part 1
@@ -101,8 +103,7 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 	@Query("select distinct(p.programingLanguage,p.name) from Person p")
 	List<String[]> getProgamingLanguageAndNameDistint();
 	
-	@Query("select count( distinct(p.programingLanguage) ) from Person p")
-	List<Long> getProgamingLanguageDistintCount();
+	// getProgamingLanguageDistintCount: PersonStatisticsQueries
 	
 	// example de JPQL / HQL de concat, upper, lower and Like
 	@Query("select CONCAT(p.name, ' ',p.lastname) as fullname from Person p")
@@ -124,8 +125,7 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 	@Query("select p.name from Person p where p.name LIKE (:name) ")
 	List<String> findPersonNameLikeNameV1(@Param("name") String name);
 	
-	@Query("select p.name from Person p where p.name like %?1% ")
-	List<String> findPersonNameLikeNameV2(String name);
+	// findPersonNameLikeNameV2: PersonNameSearchQueries (indice de trigramas)
 
 	
 	/** beetwen [lower,top), top no se incluye**/
@@ -151,20 +151,13 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 	@Query("select p from Person p where p.id between  ?1 and ?2 order by p.name desc, p.lastname asc")
 	List<Person> findPersonByIdBetweenHQLOrderByNameDescLastnameAsc(Long lower,Long top);
 
-	/** funciones de agregacion JPQL: count, max, min **/
-	// example de Count, si no hay registros, devuelve 0
-	// this is method query
-	Integer countByName(String name);
-
-	@Query("select count(p) from Person p")
-	Long totalPerson();
+	// paginacion keyset del mismo orden: PersonKeysetQueries.scroll (name y lastname pueden ser nulos)
 
-	// devuel el tipo del id
-	@Query("select min(p.id) from Person p")
-	Long minId();
+	// misma consulta con OFFSET (Pageable), para comparar
+	List<Person> findByIdBetweenOrderByNameDescLastnameAscIdAsc(Long lower, Long top, Pageable pageable);
 
-	@Query("select max(p.id) from Person p")
-	Long maxId();
+	/** funciones de agregacion JPQL: count, max, min **/
+	// countByName, totalPerson, minId, maxId: PersonStatisticsQueries (estadisticas en memoria)
 
 	/** fucnioens jpql legnth **/
 	@Query("select p.name, length(p.name) from Person p")
@@ -177,12 +170,10 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 	Object[] getPersonNameWithNameMin();
 
 	/** funciones jqpl de agregaicon avg, sum, count, min, max,.. **/
-	@Query("select min(p.id), max(p.id), sum(p.id), avg( length(p.name) ), count(p) from Person p")
-	Object getResumenAggregationFunction();
+	// getResumenAggregationFunction: PersonStatisticsQueries
 
 	/** ejemplo de subquery y/o subconsultas **/
-	@Query("select p from Person p where length(p.name) = (select max(length(p2.name)) from Person p2)")
-	List<Person> getPersonWithLongestName();
+	// getPersonWithLongestName: PersonStatisticsQueries
 
 	@Query("""
 		select concat(p.name, ',', p.lastname), length(p.name)
@@ -199,4 +190,33 @@ public interface PersonRepository extends CrudRepository<Person, Long>{
 
 	@Query("select p from Person p where p.id in (?1)")
 	List<Person> getPersonByIds(List<Long> ids);
+
+	/** streaming: cursor forward-only (ScrollableResults), las filas se leen de fetch_size en fetch_size
+	 * (spring.jpa.properties.hibernate.jdbc.fetch_size) y no se materializa la lista completa.
+	 * Se debe llamar dentro de una transaccion y cerrar el Stream (try-with-resources). **/
+	// entidades de solo lectura: sin snapshot para el dirty checking, pero siguen en el contexto de persistencia,
+	// con muchas filas hay que hacer detach / clear mientras se recorre
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+	})
+	@Query("select p from Person p")
+	Stream<Person> streamAll();
+
+	// objetos Person no gestionados (constructor), no ocupan el contexto de persistencia
+	@Query("select new Person(p.id,p.name,p.lastname,p.programingLanguage) from Person p")
+	Stream<Person> streamAllClassPerson();
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+	@Query("select p from Person p")
+	Stream<NameProjection> streamNames();
+
+	@Query("select new com.tokioschool.spring.projections.NameDto(p.name,p.lastname) from Person p")
+	Stream<NameDto> streamNameDtos();
+
+	@Query("select new com.tokioschool.spring.dto.PersonDto(p.name,p.lastname) from Person p")
+	Stream<PersonDto> streamPersonDtos();
+
+	@Query("select p.name, p.programingLanguage from Person p")
+	Stream<Object[]> streamPersonDataList();
 }
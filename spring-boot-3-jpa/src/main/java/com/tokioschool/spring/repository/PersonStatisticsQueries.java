@@ -0,0 +1,30 @@
+package com.tokioschool.spring.repository;
+
+import java.util.List;
+
+import com.tokioschool.spring.entity.Person;
+
+/**
+ * Funciones de agregacion sobre toda la tabla de personas. La implementacion (PersonStatisticsQueriesImpl)
+ * responde con PersonStatistics (en memoria) mientras sus valores esten al dia y si no lanza la consulta.
+ */
+public interface PersonStatisticsQueries {
+
+	// example de Count, si no hay registros, devuelve 0
+	Integer countByName(String name);
+
+	Long totalPerson();
+
+	// devuel el tipo del id
+	Long minId();
+
+	Long maxId();
+
+	// un unico elemento
+	List<Long> getProgamingLanguageDistintCount();
+
+	// min(id), max(id), sum(id), avg(length(name)), count
+	Object getResumenAggregationFunction();
+
+	List<Person> getPersonWithLongestName();
+}
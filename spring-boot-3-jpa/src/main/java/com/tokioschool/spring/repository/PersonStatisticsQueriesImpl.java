@@ -0,0 +1,108 @@
+package com.tokioschool.spring.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.event.PersonTransactionWrites;
+import com.tokioschool.spring.statistics.PersonStatistics;
+import com.tokioschool.spring.statistics.PersonStatistics.Snapshot;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cada metodo lee de PersonStatistics.snapshot() en O(1). Si no hay estadisticas al dia, o si la transaccion actual
+ * ha escrito personas (las estadisticas solo tienen lo confirmado, ver PersonTransactionWrites), se lanza la consulta
+ * de siempre. getPersonWithLongestName necesita las personas: con la longitud maxima ya conocida se evita la
+ * subconsulta (un recorrido en lugar de dos).
+ */
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+class PersonStatisticsQueriesImpl implements PersonStatisticsQueries {
+
+	private static final String COUNT_BY_NAME = "select count(p) from Person p where p.name = :name";
+	private static final String TOTAL = "select count(p) from Person p";
+	private static final String MIN_ID = "select min(p.id) from Person p";
+	private static final String MAX_ID = "select max(p.id) from Person p";
+	private static final String DISTINCT_LANGUAGES = "select count( distinct(p.programingLanguage) ) from Person p";
+	private static final String SUMMARY = "select min(p.id), max(p.id), sum(p.id), avg( length(p.name) ), count(p) from Person p";
+	private static final String LONGEST_NAME = "select p from Person p where length(p.name) = (select max(length(p2.name)) from Person p2)";
+	private static final String NAME_WITH_LENGTH = "select p from Person p where length(p.name) = :length";
+
+	private final PersonStatistics personStatistics;
+	private final PersonTransactionWrites personTransactionWrites;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Integer countByName(String name) {
+		return countByNameFromStatistics(name)
+				.map(Long::intValue)
+				.orElseGet(() -> entityManager.createQuery(COUNT_BY_NAME, Long.class).setParameter("name", name).getSingleResult().intValue());
+	}
+
+	@Override
+	public Long totalPerson() {
+		return fromSnapshot(snapshot(), Snapshot::getTotal,
+				() -> entityManager.createQuery(TOTAL, Long.class).getSingleResult());
+	}
+
+	@Override
+	public Long minId() {
+		return fromSnapshot(withIdRange(), Snapshot::getMinId, () -> entityManager.createQuery(MIN_ID, Long.class).getSingleResult());
+	}
+
+	@Override
+	public Long maxId() {
+		return fromSnapshot(withIdRange(), Snapshot::getMaxId, () -> entityManager.createQuery(MAX_ID, Long.class).getSingleResult());
+	}
+
+	@Override
+	public List<Long> getProgamingLanguageDistintCount() {
+		return fromSnapshot(snapshot(), snapshot -> List.of(snapshot.getDistinctLanguages()),
+				() -> entityManager.createQuery(DISTINCT_LANGUAGES, Long.class).getResultList());
+	}
+
+	@Override
+	public Object getResumenAggregationFunction() {
+		return fromSnapshot(withIdRange(), snapshot -> new Object[] { snapshot.getMinId(), snapshot.getMaxId(),
+				snapshot.getSumIds(), snapshot.getAverageNameLength(), snapshot.getTotal() },
+				() -> entityManager.createQuery(SUMMARY).getSingleResult());
+	}
+
+	@Override
+	public List<Person> getPersonWithLongestName() {
+		Optional<Snapshot> snapshot = snapshot();
+		if (snapshot.isEmpty()) {
+			return entityManager.createQuery(LONGEST_NAME, Person.class).getResultList();
+		}
+		Integer longest = snapshot.get().getLongestNameLength();
+		return longest == null ? List.of()
+				: entityManager.createQuery(NAME_WITH_LENGTH, Person.class).setParameter("length", longest).getResultList();
+	}
+
+	private Optional<Snapshot> snapshot() {
+		return personTransactionWrites.inCurrentTransaction(entityManager) ? Optional.empty() : personStatistics.snapshot();
+	}
+
+	private Optional<Long> countByNameFromStatistics(String name) {
+		return personTransactionWrites.inCurrentTransaction(entityManager) ? Optional.empty() : personStatistics.countByName(name);
+	}
+
+	// min/max no se conocen si se ha borrado la persona del id minimo o maximo
+	private Optional<Snapshot> withIdRange() {
+		return snapshot().filter(Snapshot::isIdRangeKnown);
+	}
+
+	// Optional.map no sirve cuando el valor de la estadistica es nulo (p.e. min de una tabla vacia)
+	private static <T> T fromSnapshot(Optional<Snapshot> snapshot, Function<Snapshot, T> value, Supplier<T> query) {
+		return snapshot.isPresent() ? value.apply(snapshot.get()) : query.get();
+	}
+}
@@ -0,0 +1,227 @@
+package com.tokioschool.spring.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.tokioschool.spring.event.PersonChangedEvent;
+import com.tokioschool.spring.event.PersonChangedEvent.PersonState;
+import com.tokioschool.spring.event.PersonTableChangedEvent;
+
+import com.codearp.application.jpa_support.startup.StartupTasks;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Indices de trigramas ({@link TrigramIndex}) de Person.name y Person.lastname en memoria, para las busquedas
+ * por "contiene" de PersonRepository (PersonNameSearchQueries).
+ *
+ * <ul>
+ *     <li>Se reconstruye entero leyendo la tabla con JDBC al arrancar (ApplicationReadyEvent) y con {@link #rebuild()}.</li>
+ *     <li>Se mantiene al dia con los {@link PersonChangedEvent} (despues del commit). Los cambios que llegan durante
+ *     una reconstruccion se aplican tambien al indice nuevo.</li>
+ *     <li>Los cambios masivos hechos con Hibernate (JPQL update/delete, SQL nativo) llegan como
+ *     {@link PersonTableChangedEvent}: el indice deja de estar listo (las busquedas van a la bbdd) y se reconstruye
+ *     en otro hilo. Lo que se escribe con JdbcTemplate no pasa por Hibernate: despues hay que llamar a rebuild().</li>
+ * </ul>
+ * Hasta la primera reconstruccion (o con app.persons.name-index.enabled=false) no esta listo y las busquedas van a la
+ * bbdd. Tampoco se usa si el texto coincide con mas de max-candidates filas: cargarlas por id sale mas caro que el like.
+ */
+@Component
+@Slf4j
+public class PersonNameIndex implements DisposableBean {
+
+	public enum Field { NAME, LASTNAME }
+
+	private static final String SELECT_NAMES = "select id, name, lastname from persons";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final StartupTasks startupTasks;
+	private final boolean enabled;
+	private final int maxCandidates;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private TrigramIndex names = new TrigramIndex();
+	private TrigramIndex lastnames = new TrigramIndex();
+	private boolean ready;
+	// sube con cada PersonTableChangedEvent: una reconstruccion que empezo antes no deja el indice listo
+	private long tableChanges;
+	private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+	private final ExecutorService rebuilder;
+	// cambios recibidos mientras se reconstruye, null si no hay reconstruccion en curso
+	private List<PersonChangedEvent> pending;
+
+	public PersonNameIndex(JdbcTemplate jdbcTemplate, StartupTasks startupTasks,
+			@Value("${app.persons.name-index.enabled:true}") boolean enabled,
+			@Value("${app.persons.name-index.max-candidates:10000}") int maxCandidates) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.startupTasks = startupTasks;
+		this.enabled = enabled;
+		this.maxCandidates = maxCandidates;
+		this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "person-name-index-rebuild");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public boolean isReady() {
+		return read(() -> ready);
+	}
+
+	/**
+	 * Ids (ordenados) de las personas cuyo campo contiene el texto, o vacio si el indice no puede responder
+	 * (no esta listo o hay mas de max-candidates) y hay que ir a la bbdd.
+	 */
+	public Optional<long[]> idsContaining(Field field, String text, boolean ignoreCase) {
+		return read(() -> {
+			if (!ready) {
+				return Optional.empty();
+			}
+			List<long[]> matches = new ArrayList<>();
+			int[] count = { 0 };
+			index(field).containing(text, ignoreCase, (value, ids) -> {
+				matches.add(ids);
+				count[0] += ids.length;
+			});
+			if (count[0] > maxCandidates) {
+				return Optional.empty();
+			}
+			long[] ids = new long[count[0]];
+			int position = 0;
+			for (long[] match : matches) {
+				System.arraycopy(match, 0, ids, position, match.length);
+				position += match.length;
+			}
+			Arrays.sort(ids);
+			return Optional.of(ids);
+		});
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildOnStartup() {
+		if (enabled) {
+			startupTasks.run("PersonNameIndex", this::rebuild);
+		}
+	}
+
+	/** Vuelve a leer la tabla entera; las busquedas siguen usando el indice anterior hasta que termina **/
+	public synchronized void rebuild() {
+		long[] changes = new long[1];
+		write(() -> {
+			pending = new ArrayList<>();
+			changes[0] = tableChanges;
+		});
+		long start = System.nanoTime();
+		try {
+			TrigramIndex rebuiltNames = new TrigramIndex();
+			TrigramIndex rebuiltLastnames = new TrigramIndex();
+			jdbcTemplate.query(SELECT_NAMES, rs -> {
+				long id = rs.getLong(1);
+				rebuiltNames.add(rs.getString(2), id);
+				rebuiltLastnames.add(rs.getString(3), id);
+			});
+
+			write(() -> {
+				pending.forEach(event -> apply(event, rebuiltNames, rebuiltLastnames));
+				names = rebuiltNames;
+				lastnames = rebuiltLastnames;
+				ready = tableChanges == changes[0];
+			});
+			log.info("Indice de trigramas de personas reconstruido en {} ms", (System.nanoTime() - start) / 1_000_000);
+		} finally {
+			write(() -> pending = null);
+		}
+	}
+
+	@EventListener
+	public void onPersonChanged(PersonChangedEvent event) {
+		write(() -> {
+			apply(event, names, lastnames);
+			if (pending != null) {
+				pending.add(event);
+			}
+		});
+	}
+
+	@EventListener
+	public void onPersonTableChanged(PersonTableChangedEvent event) {
+		if (!enabled) {
+			return;
+		}
+		write(() -> {
+			tableChanges++;
+			ready = false;
+		});
+		// varios cambios seguidos se juntan en una reconstruccion (la que este en cola todavia no ha leido la tabla)
+		if (rebuildQueued.compareAndSet(false, true)) {
+			rebuilder.execute(() -> {
+				rebuildQueued.set(false);
+				try {
+					rebuild();
+				} catch (RuntimeException e) {
+					log.error("No se puede reconstruir el indice de trigramas de personas, las busquedas van a la bbdd", e);
+				}
+			});
+		}
+	}
+
+	@Override
+	public void destroy() {
+		rebuilder.shutdownNow();
+	}
+
+	// quitar y volver a anadir es idempotente: da igual aplicar un cambio dos veces
+	private static void apply(PersonChangedEvent event, TrigramIndex names, TrigramIndex lastnames) {
+		PersonState before = event.getBefore();
+		if (before != null) {
+			names.remove(before.getName(), event.getId());
+			lastnames.remove(before.getLastname(), event.getId());
+		} else if (event.getType() != PersonChangedEvent.Type.CREATED) {
+			// update sin estado anterior (entidad detached): no se sabe en que valor estaba, se busca el id en todos
+			names.remove(event.getId());
+			lastnames.remove(event.getId());
+		}
+		PersonState after = event.getAfter();
+		if (after != null) {
+			names.add(after.getName(), event.getId());
+			lastnames.add(after.getLastname(), event.getId());
+		}
+	}
+
+	private TrigramIndex index(Field field) {
+		return field == Field.NAME ? names : lastnames;
+	}
+
+	private <T> T read(Supplier<T> supplier) {
+		lock.readLock().lock();
+		try {
+			return supplier.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void write(Runnable runnable) {
+		lock.writeLock().lock();
+		try {
+			runnable.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.tokioschool.spring.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Indice de trigramas (3 caracteres seguidos) de los valores de una columna, para resolver
+ * <code>like '%x%'</code> sin recorrer la tabla.
+ *
+ * Se indexan los valores distintos, no las filas: cada valor tiene un ordinal, su lista de ids y por cada
+ * trigrama de su version en mayusculas se guarda el ordinal (postings). Una busqueda cruza los postings de los
+ * trigramas del texto buscado, y los valores candidatos se comprueban con contains (no hay falsos positivos).
+ * Con textos de menos de 3 caracteres no hay trigramas y se comprueban todos los valores (en memoria).
+ *
+ * No es thread-safe, lo protege PersonNameIndex.
+ */
+final class TrigramIndex {
+
+	private static final long[] NO_IDS = new long[0];
+
+	private final Map<String, Integer> ordinals = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+	private final List<long[]> ids = new ArrayList<>();
+	private final Map<Long, Posting> postings = new HashMap<>();
+
+	void add(String value, long id) {
+		if (value == null) {
+			return;
+		}
+		Integer ordinal = ordinals.get(value);
+		if (ordinal == null) {
+			ordinal = values.size();
+			ordinals.put(value, ordinal);
+			values.add(value);
+			ids.add(NO_IDS);
+			// los ordinales nuevos son siempre mayores: los postings siguen ordenados
+			for (long trigram : trigrams(normalize(value))) {
+				postings.computeIfAbsent(trigram, t -> new Posting()).add(ordinal);
+			}
+		}
+		long[] current = ids.get(ordinal);
+		int position = Arrays.binarySearch(current, id);
+		if (position < 0) {
+			position = -position - 1;
+			long[] updated = new long[current.length + 1];
+			System.arraycopy(current, 0, updated, 0, position);
+			updated[position] = id;
+			System.arraycopy(current, position, updated, position + 1, current.length - position);
+			ids.set(ordinal, updated);
+		}
+	}
+
+	// el valor se queda en el diccionario aunque no tenga ids (lo limpia la siguiente reconstruccion)
+	void remove(String value, long id) {
+		Integer ordinal = value == null ? null : ordinals.get(value);
+		if (ordinal != null) {
+			removeAt(ordinal, id);
+		}
+	}
+
+	/** el id en cualquier valor, recorriendo todos (solo cuando no se conoce el valor anterior) **/
+	void remove(long id) {
+		for (int ordinal = 0; ordinal < ids.size(); ordinal++) {
+			removeAt(ordinal, id);
+		}
+	}
+
+	private void removeAt(int ordinal, long id) {
+		long[] current = ids.get(ordinal);
+		int position = Arrays.binarySearch(current, id);
+		if (position >= 0) {
+			long[] updated = new long[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, position);
+			System.arraycopy(current, position + 1, updated, position, updated.length - position);
+			ids.set(ordinal, updated);
+		}
+	}
+
+	/** cada valor que contiene el texto junto con los ids de las filas que lo tienen **/
+	void containing(String text, boolean ignoreCase, BiConsumer<String, long[]> consumer) {
+		String normalized = normalize(text);
+		long[] trigrams = trigrams(normalized);
+		if (trigrams.length == 0) {
+			for (int ordinal = 0; ordinal < values.size(); ordinal++) {
+				accept(ordinal, text, normalized, ignoreCase, consumer);
+			}
+			return;
+		}
+
+		Posting[] candidates = new Posting[trigrams.length];
+		for (int i = 0; i < trigrams.length; i++) {
+			candidates[i] = postings.get(trigrams[i]);
+			if (candidates[i] == null) {
+				return;
+			}
+		}
+		// se recorre el posting mas corto y se busca en los demas
+		Arrays.sort(candidates, (a, b) -> Integer.compare(a.size, b.size));
+		Posting shortest = candidates[0];
+		for (int i = 0; i < shortest.size; i++) {
+			int ordinal = shortest.ordinals[i];
+			boolean inAll = true;
+			for (int j = 1; j < candidates.length && inAll; j++) {
+				inAll = Arrays.binarySearch(candidates[j].ordinals, 0, candidates[j].size, ordinal) >= 0;
+			}
+			if (inAll) {
+				accept(ordinal, text, normalized, ignoreCase, consumer);
+			}
+		}
+	}
+
+	private void accept(int ordinal, String text, String normalized, boolean ignoreCase, BiConsumer<String, long[]> consumer) {
+		long[] valueIds = ids.get(ordinal);
+		if (valueIds.length == 0) {
+			return;
+		}
+		String value = values.get(ordinal);
+		if (ignoreCase ? normalize(value).contains(normalized) : value.contains(text)) {
+			consumer.accept(value, valueIds);
+		}
+	}
+
+	// igual que UPPER de la bbdd
+	private static String normalize(String value) {
+		return value.toUpperCase(Locale.ROOT);
+	}
+
+	// trigramas distintos, cada uno como 3 chars de 16 bits en un long
+	private static long[] trigrams(String value) {
+		if (value.length() < 3) {
+			return NO_IDS;
+		}
+		long[] trigrams = new long[value.length() - 2];
+		for (int i = 0; i < trigrams.length; i++) {
+			trigrams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+		}
+		return Arrays.stream(trigrams).distinct().toArray();
+	}
+
+	/** ordinales de los valores con un trigrama, ordenados (array que crece) **/
+	private static final class Posting {
+
+		private int[] ordinals = new int[4];
+		private int size;
+
+		void add(int ordinal) {
+			if (size == ordinals.length) {
+				ordinals = Arrays.copyOf(ordinals, size * 2);
+			}
+			ordinals[size++] = ordinal;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.tokioschool.spring.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exportacion de la tabla persons sin cargarla entera en memoria.
+ *
+ * <ul>
+ *     <li>Las filas llegan de un cursor forward-only (PersonRepository.streamAllClassPerson) y se escriben
+ *     en cuanto se leen; la memoria no depende del numero de filas.</li>
+ *     <li>La transaccion es readOnly: Hibernate no hace flush ni dirty checking.</li>
+ *     <li>Cada <code>app.persons.export.flush-every</code> filas se hace flush de la salida para que el cliente
+ *     vaya recibiendo los datos.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class PersonExportService {
+
+	private static final String CSV_HEADER = "id,name,lastname,programingLanguage";
+
+	private final PersonRepository personRepository;
+	private final ObjectMapper objectMapper;
+
+	@Value("${app.persons.export.flush-every:500}")
+	private int flushEvery;
+
+	/** Una linea JSON por persona (application/x-ndjson). Devuelve el numero de filas escritas **/
+	@Transactional(readOnly = true)
+	public long writeNdjson(OutputStream out) throws IOException {
+		try (Stream<Person> persons = personRepository.streamAllClassPerson();
+			 JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+			json.setRootValueSeparator(null); // el separador entre filas es el '\n' de NDJSON
+			long rows = 0;
+			for (Iterator<Person> it = persons.iterator(); it.hasNext(); ) {
+				Person person = it.next();
+				json.writeStartObject();
+				json.writeNumberField("id", person.getId());
+				json.writeStringField("name", person.getName());
+				json.writeStringField("lastname", person.getLastname());
+				json.writeStringField("programingLanguage", person.getProgramingLanguage());
+				json.writeEndObject();
+				json.writeRaw('\n');
+				if (++rows % flushEvery == 0) {
+					json.flush();
+				}
+			}
+			return rows;
+		}
+	}
+
+	/** CSV con cabecera (text/csv). Devuelve el numero de filas escritas **/
+	@Transactional(readOnly = true)
+	public long writeCsv(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		try (Stream<Person> persons = personRepository.streamAllClassPerson()) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+			long rows = 0;
+			for (Iterator<Person> it = persons.iterator(); it.hasNext(); ) {
+				Person person = it.next();
+				writer.write(String.valueOf(person.getId()));
+				writer.write(',');
+				writer.write(csv(person.getName()));
+				writer.write(',');
+				writer.write(csv(person.getLastname()));
+				writer.write(',');
+				writer.write(csv(person.getProgramingLanguage()));
+				writer.write('\n');
+				if (++rows % flushEvery == 0) {
+					writer.flush();
+				}
+			}
+			writer.flush();
+			return rows;
+		}
+	}
+
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,91 @@
+package com.tokioschool.spring.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+/**
+ * PersonRepository.getPersonByIds para listas grandes de ids: en lugar de un unico <code>IN (...)</code>
+ * (limite de parametros de la bbdd, una sola conexion) los ids sin repetidos se parten en bloques de chunk-size y
+ * cada bloque va en su propia transaccion de solo lectura, en paralelo (parallelism hilos). Con
+ * app.datasource.routing las transacciones de solo lectura van a las replicas.
+ *
+ * El resultado sigue el orden de los ids de entrada (los que no existen se omiten).
+ */
+@Service
+public class PersonMultiGetLoader implements DisposableBean {
+
+	private final PersonRepository personRepository;
+	private final TransactionTemplate readOnlyTransaction;
+	private final int chunkSize;
+	private final ExecutorService executor;
+
+	public PersonMultiGetLoader(PersonRepository personRepository, PlatformTransactionManager transactionManager,
+			@Value("${app.multi-get.chunk-size:1000}") int chunkSize,
+			@Value("${app.multi-get.parallelism:4}") int parallelism) {
+		this.personRepository = personRepository;
+		this.chunkSize = chunkSize;
+
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "person-multi-get-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public List<Person> getPersonByIds(List<Long> ids) {
+		List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+
+		List<CompletableFuture<List<Person>>> chunks = new ArrayList<>();
+		for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+			chunks.add(CompletableFuture.supplyAsync(
+					() -> readOnlyTransaction.execute(status -> personRepository.getPersonByIds(chunk)), executor));
+		}
+
+		Map<Long, Person> byId = HashMap.newHashMap(distinctIds.size());
+		for (CompletableFuture<List<Person>> chunk : chunks) {
+			join(chunk).forEach(person -> byId.put(person.getId(), person));
+		}
+		return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			// la excepcion del bloque (p.e. DataAccessException) tal cual, sin envolver
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+}
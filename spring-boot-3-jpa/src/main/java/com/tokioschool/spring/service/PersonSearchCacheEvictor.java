@@ -0,0 +1,33 @@
+package com.tokioschool.spring.service;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.tokioschool.spring.event.PersonChangedEvent;
+import com.tokioschool.spring.event.PersonTableChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Vacia la cache de resultados de PersonService.searchSummaries cuando cambia una persona.
+ * Se vacia entera: con el estado anterior y el nuevo se podrian buscar las claves afectadas, pero
+ * cualquier busqueda sin filtro de nombre o lenguaje tambien cambia.
+ * Los update/delete masivos (JPQL o SQL nativo) no dicen que personas cambian: llegan como PersonTableChangedEvent.
+ */
+@Component
+@Slf4j
+public class PersonSearchCacheEvictor {
+
+	@EventListener
+	@CacheEvict(cacheNames = PersonService.SEARCH_CACHE, allEntries = true)
+	public void onPersonChanged(PersonChangedEvent event) {
+		log.debug("Cache {} invalidada por {} de la persona {}", PersonService.SEARCH_CACHE, event.getType(), event.getId());
+	}
+
+	@EventListener
+	@CacheEvict(cacheNames = PersonService.SEARCH_CACHE, allEntries = true)
+	public void onPersonTableChanged(PersonTableChangedEvent event) {
+		log.debug("Cache {} invalidada por {}", PersonService.SEARCH_CACHE, event.getSql());
+	}
+}
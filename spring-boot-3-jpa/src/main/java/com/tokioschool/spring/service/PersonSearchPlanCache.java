@@ -0,0 +1,93 @@
+package com.tokioschool.spring.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+import org.springframework.stereotype.Component;
+
+import com.tokioschool.spring.dto.PersonSummary;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.specification.PersonSpecification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Misma busqueda que PersonSpecification (name = ?, programingLanguage = ?) pero sin montar la Criteria
+ * en cada llamada. Los filtros no se repiten aqui: el JPQL de cada forma se genera una vez a partir de
+ * {@link PersonSpecification#search} con parametros con nombre (:name, :language).
+ *
+ * La "forma" de la busqueda es que filtros vienen informados (no sus valores) y si devuelve entidades o
+ * {@link PersonSummary}, asi que solo hay 8 posibles.
+ * Por cada forma se guarda un JPQL con parametros y Hibernate reutiliza su plan (cache de interpretacion de
+ * HQL, hibernate.query.plan_cache_max_size). Con una Specification la Criteria es nueva en cada llamada y
+ * Hibernate la vuelve a compilar siempre.
+ */
+@Component
+public class PersonSearchPlanCache {
+
+	private static final int NAME = 1;
+	private static final int LANGUAGE = 1 << 1;
+	private static final int SUMMARY = 1 << 2;
+
+	private final Map<Integer, String> jpqlByShape = new ConcurrentHashMap<>();
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public List<Person> search(String name, String language) {
+		return search(name, language, Person.class, 0);
+	}
+
+	/** la misma busqueda en {@link PersonSummary} (select new), sin cargar entidades **/
+	public List<PersonSummary> searchSummaries(String name, String language) {
+		return search(name, language, PersonSummary.class, SUMMARY);
+	}
+
+	private <T> List<T> search(String name, String language, Class<T> type, int select) {
+		int shape = (name != null ? NAME : 0) | (language != null ? LANGUAGE : 0) | select;
+
+		TypedQuery<T> query = entityManager.createQuery(
+				jpqlByShape.computeIfAbsent(shape, this::jpql), type);
+		if (name != null) {
+			query.setParameter("name", name);
+		}
+		if (language != null) {
+			query.setParameter("language", language);
+		}
+		return query.getResultList();
+	}
+
+	private String jpql(int shape) {
+		return (shape & SUMMARY) != 0
+				? jpql(shape, PersonSummary.class, (cb, p) -> cb.construct(PersonSummary.class,
+						p.get("id"), p.get("name"), p.get("lastname"), p.get("programingLanguage")))
+				: jpql(shape, Person.class, (cb, p) -> p);
+	}
+
+	private <T> String jpql(int shape, Class<T> type,
+			BiFunction<CriteriaBuilder, Root<Person>, Selection<? extends T>> selection) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<T> criteria = cb.createQuery(type);
+		Root<Person> p = criteria.from(Person.class);
+		criteria.select(selection.apply(cb, p));
+
+		Predicate where = PersonSpecification.search(
+				(shape & NAME) != 0 ? PersonSpecification.parameter("name") : null,
+				(shape & LANGUAGE) != 0 ? PersonSpecification.parameter("language") : null)
+				.toPredicate(p, criteria, cb);
+		if (where != null) {
+			criteria.where(where);
+		}
+		return ((SqmSelectStatement<?>) criteria).toHqlString();
+	}
+}
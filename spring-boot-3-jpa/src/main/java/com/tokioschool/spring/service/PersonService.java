@@ -1,33 +1,74 @@
 package com.tokioschool.spring.service;
 
+import com.codearp.application.jpa_support.pagination.ContinuationTokens;
+import com.codearp.application.jpa_support.pagination.KeysetPage;
+import com.tokioschool.spring.dto.PersonSummary;
 import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
 import com.tokioschool.spring.specification.PersonSpecification;
 import com.tokioschool.spring.specification.PersonSpecificationRepository;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
 public class PersonService {
+
+    // cache de resultados de searchSummaries(name, language), ver spring.cache.* en application.properties
+    public static final String SEARCH_CACHE = "personSearch";
+
     private final PersonSpecificationRepository personSpecificationRepository;
+    private final PersonRepository personRepository;
+    private final PersonSearchPlanCache personSearchPlanCache;
 
-    PersonService(PersonSpecificationRepository personSpecificationRepository){
+    PersonService(PersonSpecificationRepository personSpecificationRepository, PersonRepository personRepository,
+                  PersonSearchPlanCache personSearchPlanCache){
         this.personSpecificationRepository = personSpecificationRepository;
+        this.personRepository = personRepository;
+        this.personSearchPlanCache = personSearchPlanCache;
     }
 
 
+    /**
+     * Busqueda por nombre y/o lenguaje con el plan de la consulta reutilizado (PersonSearchPlanCache).
+     */
     public List<Person> search(String name, String language) {
-        Specification<Person> spec = Specification.where(null);
+        return personSearchPlanCache.search(name, language);
+    }
+
+    /**
+     * La misma busqueda en {@link PersonSummary}, sin cargar entidades.
+     * Si la cache de resultados esta activa (spring.cache.type=caffeine) se guarda la lista de {@link PersonSummary}
+     * (inmutables, no entidades gestionadas) por parametros. Se invalida al cambiar cualquier persona, tambien con
+     * un update/delete masivo (PersonSearchCacheEvictor), y caduca igualmente a los expireAfterWrite de
+     * spring.cache.caffeine.spec por los cambios que no pasan por Hibernate (JdbcTemplate, otra aplicacion).
+     */
+    // clave por defecto (SimpleKey de name y language): el modulo no compila con -parameters, #name seria nulo
+    @Cacheable(cacheNames = SEARCH_CACHE)
+    public List<PersonSummary> searchSummaries(String name, String language) {
+        return personSearchPlanCache.searchSummaries(name, language);
+    }
+
+    /** la busqueda original con Specification, se mantiene como referencia para el benchmark **/
+    public List<Person> searchBySpecification(String name, String language) {
+        return personSpecificationRepository.findAll(PersonSpecification.search(name, language));
+    }
 
-        if (name != null) {
-            spec = spec.and(PersonSpecification.hasName(name));
-        }
-        if (language != null) {
-            spec = spec.and(PersonSpecification.hasLanguage(language));
-        }
+    /**
+     * Busqueda paginada por keyset: <code>token</code> es el nextToken de la pagina anterior (nulo para la primera).
+     */
+    public KeysetPage<Person> search(String name, String language, String token, int size) {
+        return KeysetPage.of(personRepository.scroll(
+                PersonSpecification.search(name, language), ContinuationTokens.decode(token), size));
+    }
 
-        return personSpecificationRepository.findAll(spec);
+    /**
+     * Rango de ids ordenado por name desc, lastname asc, paginado por keyset.
+     */
+    public KeysetPage<Person> findByIdBetween(Long lower, Long top, String token, int size) {
+        return KeysetPage.of(personRepository.scroll(
+                PersonSpecification.hasIdBetween(lower, top), ContinuationTokens.decode(token), size));
     }
 
 }
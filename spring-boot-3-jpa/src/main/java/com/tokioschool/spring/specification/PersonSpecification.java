@@ -1,14 +1,68 @@
 package com.tokioschool.spring.specification;
 
 import com.tokioschool.spring.entity.Person;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
+/**
+ * Unica definicion de los filtros de la busqueda de personas. Cada filtro compara el atributo con un valor
+ * (se enlaza como parametro, igual que cb.equal(path, valor)) o con un parametro con nombre, que es lo que usa
+ * PersonSearchPlanCache para generar su JPQL a partir de estas mismas Specification.
+ */
 public class PersonSpecification {
+
     public static Specification<Person> hasName(String name) {
-        return (root, query, cb) -> cb.equal(root.get("name"), name);
+        return hasName(value(name));
+    }
+
+    public static Specification<Person> hasName(ValueExpression name) {
+        return (root, query, cb) -> cb.equal(root.get("name"), name.of(cb));
     }
 
     public static Specification<Person> hasLanguage(String language) {
-        return (root, query, cb) -> cb.equal(root.get("programingLanguage"), language);
+        return hasLanguage(value(language));
+    }
+
+    public static Specification<Person> hasLanguage(ValueExpression language) {
+        return (root, query, cb) -> cb.equal(root.get("programingLanguage"), language.of(cb));
+    }
+
+    public static Specification<Person> hasIdBetween(Long lower, Long top) {
+        return (root, query, cb) -> cb.between(root.get("id"), lower, top);
+    }
+
+    /** nombre y/o lenguaje; un valor nulo no filtra **/
+    public static Specification<Person> search(String name, String language) {
+        return search(name == null ? null : value(name), language == null ? null : value(language));
+    }
+
+    public static Specification<Person> search(ValueExpression name, ValueExpression language) {
+        Specification<Person> spec = Specification.where(null);
+
+        if (name != null) {
+            spec = spec.and(hasName(name));
+        }
+        if (language != null) {
+            spec = spec.and(hasLanguage(language));
+        }
+        return spec;
+    }
+
+    /** parametro con nombre de la consulta (:name) **/
+    public static ValueExpression parameter(String name) {
+        return cb -> cb.parameter(String.class, name);
+    }
+
+    private static ValueExpression value(String value) {
+        return cb -> ((HibernateCriteriaBuilder) cb).value(value);
+    }
+
+    /** el lado derecho de la comparacion de un filtro **/
+    @FunctionalInterface
+    public interface ValueExpression {
+
+        Expression<String> of(CriteriaBuilder cb);
     }
 }
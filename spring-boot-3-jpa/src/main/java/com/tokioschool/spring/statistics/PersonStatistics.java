@@ -0,0 +1,328 @@
+package com.tokioschool.spring.statistics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tokioschool.spring.event.PersonChangedEvent;
+import com.tokioschool.spring.event.PersonChangedEvent.PersonState;
+import com.tokioschool.spring.event.PersonTableChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Agregados de la tabla de personas mantenidos en memoria, para no lanzar un count/min/max/group by sobre toda la
+ * tabla cada vez que se refresca un panel: total, min/max/suma de ids, personas por nombre y por lenguaje, y
+ * personas por longitud del nombre (media, nombre mas largo y mas corto).
+ *
+ * <ul>
+ *     <li>Se actualizan con cada {@link PersonChangedEvent} (despues del commit). Los que llegan mientras se reconcilia
+ *     se vuelven a aplicar sobre el resultado de la reconciliacion.</li>
+ *     <li>Los cambios masivos hechos con Hibernate (JPQL update/delete, SQL nativo) llegan como
+ *     {@link PersonTableChangedEvent}: los valores dejan de usarse y se reconcilia en el hilo de las estadisticas.</li>
+ *     <li>Cada reconcile-interval se vuelven a calcular con group by sobre la tabla (reconciliacion): corrige lo que
+ *     no pasa por Hibernate (JdbcTemplate, otras aplicaciones).</li>
+ * </ul>
+ * {@link #snapshot()} solo devuelve los valores si la ultima reconciliacion tiene menos de max-staleness; si no
+ * (o si un evento no se ha podido aplicar) PersonStatisticsQueries va a la bbdd.
+ */
+@Component
+@Slf4j
+public class PersonStatistics implements DisposableBean {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean enabled;
+	private final Duration reconcileInterval;
+	private final Duration maxStaleness;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "person-statistics");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Counters counters;
+	private Instant reconciledAt;
+	// un update sin estado anterior o un cambio masivo: no se sabe que restar hasta la siguiente reconciliacion
+	private boolean inconsistent;
+	// sube con cada PersonTableChangedEvent: una reconciliacion que empezo antes no deja los valores consistentes
+	private long tableChanges;
+	// eventos recibidos mientras se reconcilia, null si no hay reconciliacion en curso
+	private List<PersonChangedEvent> pending;
+	private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+	private final TransactionTemplate snapshotTransaction;
+
+	public PersonStatistics(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${app.persons.statistics.enabled:true}") boolean enabled,
+			@Value("${app.persons.statistics.reconcile-interval:5m}") Duration reconcileInterval,
+			@Value("${app.persons.statistics.max-staleness:15m}") Duration maxStaleness) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.enabled = enabled;
+		this.reconcileInterval = reconcileInterval;
+		this.maxStaleness = maxStaleness;
+
+		// las consultas de la reconciliacion ven la tabla en un mismo instante
+		this.snapshotTransaction = new TransactionTemplate(transactionManager);
+		this.snapshotTransaction.setReadOnly(true);
+		this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/** Los valores actuales, o vacio si no se puede responder sin ir a la bbdd **/
+	public Optional<Snapshot> snapshot() {
+		return read(Counters::snapshot);
+	}
+
+	/** Personas con ese nombre, o vacio si no se puede responder sin ir a la bbdd **/
+	public Optional<Long> countByName(String name) {
+		return read(counters -> counters.byName.getOrDefault(name, 0L));
+	}
+
+	private <T> Optional<T> read(Function<Counters, T> reader) {
+		lock.readLock().lock();
+		try {
+			if (counters == null || inconsistent || reconciledAt.plus(maxStaleness).isBefore(Instant.now())) {
+				return Optional.empty();
+			}
+			return Optional.of(reader.apply(counters));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (enabled) {
+			scheduler.scheduleWithFixedDelay(this::reconcileQuietly, 0, reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/** Recalcula todo con la tabla; los contadores anteriores se siguen usando hasta que termina **/
+	public synchronized void reconcile() {
+		long start = System.nanoTime();
+		long[] changes = new long[1];
+		write(() -> {
+			pending = new ArrayList<>();
+			changes[0] = tableChanges;
+		});
+		try {
+			Counters reconciled = snapshotTransaction.execute(status -> query());
+			// los eventos que han llegado durante las consultas se aplican tambien al resultado. Un cambio confirmado
+			// justo antes de la primera consulta puede estar en las dos: se corrige en la siguiente reconciliacion
+			write(() -> {
+				counters = reconciled;
+				reconciledAt = Instant.now();
+				inconsistent = tableChanges != changes[0];
+				pending.forEach(this::apply);
+			});
+		} finally {
+			write(() -> pending = null);
+		}
+		log.debug("Estadisticas de personas reconciliadas en {} ms", (System.nanoTime() - start) / 1_000_000);
+	}
+
+	private Counters query() {
+		Counters reconciled = new Counters();
+		jdbcTemplate.query("select count(*), min(id), max(id), sum(id) from persons", rs -> {
+			reconciled.total = rs.getLong(1);
+			reconciled.minId = rs.getObject(2, Long.class);
+			reconciled.maxId = rs.getObject(3, Long.class);
+			reconciled.sumIds = rs.getLong(4);
+		});
+		jdbcTemplate.query("select name, count(*) from persons where name is not null group by name",
+				rs -> { reconciled.byName.put(rs.getString(1), rs.getLong(2)); });
+		jdbcTemplate.query("select progaming_language, count(*) from persons where progaming_language is not null group by progaming_language",
+				rs -> { reconciled.byLanguage.put(rs.getString(1), rs.getLong(2)); });
+		jdbcTemplate.query("select length(name), count(*) from persons where name is not null group by length(name)",
+				rs -> {
+					reconciled.byNameLength.put(rs.getInt(1), rs.getLong(2));
+					reconciled.namedPersons += rs.getLong(2);
+					reconciled.sumNameLengths += rs.getLong(1) * rs.getLong(2);
+				});
+		return reconciled;
+	}
+
+	@EventListener
+	public void onPersonChanged(PersonChangedEvent event) {
+		write(() -> {
+			if (pending != null) {
+				pending.add(event);
+			}
+			apply(event);
+		});
+	}
+
+	@EventListener
+	public void onPersonTableChanged(PersonTableChangedEvent event) {
+		if (!enabled) {
+			return;
+		}
+		write(() -> {
+			tableChanges++;
+			inconsistent = true;
+		});
+		// varios cambios seguidos se juntan en una reconciliacion (la que este en cola todavia no ha consultado)
+		if (reconcileQueued.compareAndSet(false, true)) {
+			scheduler.execute(() -> {
+				reconcileQueued.set(false);
+				reconcileQuietly();
+			});
+		}
+	}
+
+	// con el lock de escritura
+	private void apply(PersonChangedEvent event) {
+		if (counters == null) {
+			return; // la primera reconciliacion ya lo incluira
+		}
+		if (event.getType() == PersonChangedEvent.Type.UPDATED && event.getBefore() == null) {
+			inconsistent = true;
+			return;
+		}
+		counters.apply(event);
+	}
+
+	private void write(Runnable runnable) {
+		lock.writeLock().lock();
+		try {
+			runnable.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		scheduler.shutdownNow();
+	}
+
+	private void reconcileQuietly() {
+		try {
+			reconcile();
+		} catch (RuntimeException e) {
+			log.warn("No se pueden reconciliar las estadisticas de personas: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Valores en un momento dado. minId y maxId son nulos si no hay personas o si se ha borrado la del id
+	 * minimo/maximo (idRangeKnown = false hasta la siguiente reconciliacion).
+	 */
+	@lombok.Value
+	public static class Snapshot {
+		long total;
+		Long minId;
+		Long maxId;
+		boolean idRangeKnown;
+		Long sumIds;
+		long distinctLanguages;
+		Double averageNameLength;
+		Integer longestNameLength;
+		Integer shortestNameLength;
+	}
+
+	private static final class Counters {
+
+		private long total;
+		private Long minId;
+		private Long maxId;
+		private long sumIds;
+		private boolean idRangeKnown = true;
+		private long namedPersons;
+		private long sumNameLengths;
+		private final Map<String, Long> byName = new HashMap<>();
+		private final Map<String, Long> byLanguage = new HashMap<>();
+		private final TreeMap<Integer, Long> byNameLength = new TreeMap<>();
+
+		Snapshot snapshot() {
+			return new Snapshot(total, minId, maxId, idRangeKnown, total == 0 ? null : sumIds, byLanguage.size(),
+					namedPersons == 0 ? null : (double) sumNameLengths / namedPersons,
+					byNameLength.isEmpty() ? null : byNameLength.lastKey(),
+					byNameLength.isEmpty() ? null : byNameLength.firstKey());
+		}
+
+		void apply(PersonChangedEvent event) {
+			long id = event.getId();
+			switch (event.getType()) {
+				case CREATED -> {
+					total++;
+					sumIds += id;
+					if (idRangeKnown) {
+						minId = minId == null ? id : Math.min(minId, id);
+						maxId = maxId == null ? id : Math.max(maxId, id);
+					}
+				}
+				case DELETED -> {
+					total--;
+					sumIds -= id;
+					if (total == 0) {
+						minId = null;
+						maxId = null;
+						idRangeKnown = true;
+					} else if (Long.valueOf(id).equals(minId) || Long.valueOf(id).equals(maxId)) {
+						// el siguiente id no se conoce sin ir a la tabla
+						minId = null;
+						maxId = null;
+						idRangeKnown = false;
+					}
+				}
+				case UPDATED -> {
+				}
+			}
+			PersonState before = event.getBefore();
+			if (before != null) {
+				decrement(byName, before.getName());
+				decrement(byLanguage, before.getProgramingLanguage());
+				if (before.getName() != null) {
+					decrement(byNameLength, before.getName().length());
+					namedPersons--;
+					sumNameLengths -= before.getName().length();
+				}
+			}
+			PersonState after = event.getAfter();
+			if (after != null) {
+				increment(byName, after.getName());
+				increment(byLanguage, after.getProgramingLanguage());
+				if (after.getName() != null) {
+					increment(byNameLength, after.getName().length());
+					namedPersons++;
+					sumNameLengths += after.getName().length();
+				}
+			}
+		}
+
+		private static <K> void increment(Map<K, Long> counts, K key) {
+			if (key != null) {
+				counts.merge(key, 1L, Long::sum);
+			}
+		}
+
+		private static <K> void decrement(Map<K, Long> counts, K key) {
+			if (key != null) {
+				counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+			}
+		}
+	}
+}
@@ -1,3 +1,4 @@
-INSERT INTO PERSONS (LASTNAME,NAME,PROGAMING_LANGUAGE ) VALUES ('Ruiz','Andres','Java')
-INSERT INTO PERSONS (LASTNAME,NAME,PROGAMING_LANGUAGE ) VALUES ('Ramirez','Tadeo','Java')
-INSERT INTO PERSONS (LASTNAME,NAME,PROGAMING_LANGUAGE ) VALUES ('Perez','Simon','Java')
\ No newline at end of file
+INSERT INTO PERSONS (ID,LASTNAME,NAME,PROGAMING_LANGUAGE ) VALUES (1,'Ruiz','Andres','Java')
+INSERT INTO PERSONS (ID,LASTNAME,NAME,PROGAMING_LANGUAGE ) VALUES (2,'Ramirez','Tadeo','Java')
+INSERT INTO PERSONS (ID,LASTNAME,NAME,PROGAMING_LANGUAGE ) VALUES (3,'Perez','Simon','Java')
+ALTER SEQUENCE PERSONS_SEQ RESTART WITH 4
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.tokioschool.spring.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonJdbcRepository;
+import com.tokioschool.spring.repository.PersonRepository;
+import com.tokioschool.spring.service.PersonMultiGetLoader;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = { "spring.threads.virtual.enabled=true", "app.virtual-threads.db-permits=2",
+		"app.virtual-threads.db-acquire-timeout=5s", "app.multi-get.chunk-size=5",
+		"spring.datasource.url=jdbc:h2:mem:virtualthreads" })
+class VirtualThreadsTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private PersonJdbcRepository personJdbcRepository;
+
+	@Autowired
+	private PersonMultiGetLoader personMultiGetLoader;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void everyConnectionTakesAPermit() throws Exception {
+		double before = meterRegistry.get("db.concurrency.wait").functionTimer().count();
+		List<Future<?>> calls = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 200; i++) {
+				calls.add(executor.submit(() -> personRepository.findById(1L)));
+				calls.add(executor.submit(personJdbcRepository::getNameDtos));
+			}
+		}
+		for (Future<?> call : calls) {
+			call.get();
+		}
+
+		assertThat(meterRegistry.get("db.concurrency.wait").functionTimer().count() - before).isEqualTo(400);
+		assertThat(meterRegistry.get("db.concurrency.available").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	void aTransactionThatFansOutDoesNotBlockItsWorkers() {
+		// la transaccion ocupa uno de los 2 permisos con su conexion; los 4 hilos del multi-get se turnan en el otro
+		List<Long> ids = LongStream.rangeClosed(1, 40).boxed().toList();
+		List<Person> persons = transactionTemplate.execute(status -> {
+			personRepository.findById(1L);
+			return personMultiGetLoader.getPersonByIds(ids);
+		});
+
+		assertThat(persons).isNotEmpty();
+		assertThat(meterRegistry.get("db.concurrency.available").gauge().value()).isEqualTo(2);
+	}
+}
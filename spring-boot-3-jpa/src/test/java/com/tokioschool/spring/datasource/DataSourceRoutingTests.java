@@ -0,0 +1,84 @@
+package com.tokioschool.spring.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// base de datos propia: otros contextos de test siguen vivos con testdb
+// (las listas no se mezclan entre ficheros de propiedades, las replicas se repiten enteras)
+@SpringBootTest(properties = {
+		"app.datasource.routing.primary.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+		"app.datasource.routing.replicas[0].name=replica-1",
+		"app.datasource.routing.replicas[0].url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+		"app.datasource.routing.replicas[0].username=sa",
+		"app.datasource.routing.replicas[0].password=sa",
+		"app.datasource.routing.replicas[1].name=replica-2",
+		"app.datasource.routing.replicas[1].url=jdbc:h2:mem:routing_lagging;DB_CLOSE_DELAY=-1",
+		"app.datasource.routing.replicas[1].username=sa",
+		"app.datasource.routing.replicas[1].password=sa" })
+@ActiveProfiles("replicas")
+class DataSourceRoutingTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private HikariDataSource primaryDataSource;
+
+	@Test
+	void readOnlyTransactionsGoToAnUpToDateReplicaAndWritesToThePrimary() {
+		double primary = routed("primary");
+		double replica = routed("replica-1");
+
+		personRepository.save(Person.builder().name("Ada").lastname("Lovelace").programingLanguage("Java").build());
+		assertThat(routed("primary")).isEqualTo(primary + 1);
+
+		// findById / count son readOnly en SimpleJpaRepository
+		assertThat(personRepository.count()).isPositive();
+		assertThat(routed("replica-1")).isEqualTo(replica + 1);
+
+		// replica-2 no tiene el latido (no replica): nunca recibe lecturas
+		assertThat(routed("replica-2")).isZero();
+	}
+
+	@Test
+	void closingTheMonitorClosesTheReplicaPools() {
+		HikariConfig config = new HikariConfig();
+		config.setPoolName("replica-closed");
+		config.setJdbcUrl("jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1");
+		config.setUsername("sa");
+		config.setPassword("sa");
+		HikariDataSource pool = new HikariDataSource(config);
+		ReplicaMonitor monitor = new ReplicaMonitor(primaryDataSource, List.of(new Replica("replica-closed", pool)),
+				Duration.ofSeconds(5), Duration.ofHours(1));
+		assertThat(monitor.getReplicas()).allMatch(Replica::isAvailable);
+
+		monitor.close();
+
+		assertThat(pool.isClosed()).isTrue();
+		assertThat(primaryDataSource.isClosed()).isFalse();
+	}
+
+	private double routed(String target) {
+		Counter counter = meterRegistry.find("datasource.routing").tag("target", target).counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
@@ -0,0 +1,54 @@
+package com.tokioschool.spring.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import com.codearp.application.jpa_support.journal.ChangeJournal;
+import com.codearp.application.jpa_support.journal.ChangeJournalReader;
+import com.codearp.application.jpa_support.journal.JournalEntry;
+
+// base de datos y directorio del diario propios
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:changejournal", "app.journal.enabled=true",
+		"app.journal.directory=target/journal-${random.uuid}" })
+class ChangeJournalTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private ChangeJournal changeJournal;
+
+	@Autowired
+	private ChangeJournalReader changeJournalReader;
+
+	@Test
+	void personChangesAreJournaledAfterCommit() throws InterruptedException {
+		long from = changeJournal.getLastSequence() + 1;
+		Person person = personRepository.save(Person.builder().name("Journal").lastname("Entry").programingLanguage("Java").build());
+		person.setName("Journaled");
+		personRepository.save(person);
+		personRepository.delete(person);
+		assertThat(changeJournal.flush(Duration.ofSeconds(10))).isTrue();
+
+		List<JournalEntry> entries = new ArrayList<>();
+		changeJournalReader.replay(from, entry -> {
+			if (entry.getEntityId().equals(String.valueOf(person.getId()))) {
+				entries.add(entry);
+			}
+		});
+		assertThat(entries).extracting(JournalEntry::getType).containsExactly("CREATED", "UPDATED", "DELETED");
+		assertThat(entries.get(1).getState())
+				.contains("\"before\":{\"name\":\"Journal\"")
+				.contains("\"after\":{\"name\":\"Journaled\"");
+	}
+}
@@ -0,0 +1,50 @@
+package com.tokioschool.spring.queryplan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.codearp.application.jpa_support.queryplan.QueryPlanAdvisor;
+import com.codearp.application.jpa_support.queryplan.QueryPlanFinding;
+
+// base de datos propia, igual que PersonSearchCacheTests
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:queryplan", "app.query-advisor.enabled=true" })
+class QueryPlanAdvisorTests {
+
+	@Autowired
+	private QueryPlanAdvisor queryPlanAdvisor;
+
+	@Test
+	void hotQueriesUseTheDeclaredIndexes() {
+		Map<String, QueryPlanFinding> findings = queryPlanAdvisor.advise().stream()
+				.collect(Collectors.toMap(QueryPlanFinding::getSource, Function.identity()));
+
+		for (String source : List.of(
+				"PersonRepository.searchByProgramingLanguage(String)",
+				"PersonRepository.searchByProgramingLanguageAndName(String, String)",
+				"PersonRepository.findPersonByNameBetweenHQL(String, String)",
+				"PersonRepository.findOneName(String)")) {
+			QueryPlanFinding finding = findings.get(source);
+			assertThat(finding).as(source).isNotNull();
+			assertThat(finding.getError()).as(source).isNull();
+			assertThat(finding.isFullScan()).as(source + ": " + finding.getPlan()).isFalse();
+		}
+	}
+
+	@Test
+	void aFunctionOnTheFilteredColumnIsAFullScan() {
+		QueryPlanFinding finding = queryPlanAdvisor.explain("upper(name)",
+				"select p from Person p where upper(p.name) like :name");
+
+		assertThat(finding.getError()).isNull();
+		assertThat(finding.getFullScans()).as(finding.getPlan()).hasSize(1);
+		assertThat(queryPlanAdvisor.explain("listado", "select p from Person p").isFullScan()).isFalse();
+	}
+}
@@ -0,0 +1,32 @@
+package com.tokioschool.spring.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.tokioschool.spring.projections.NameProjection;
+
+// base de datos propia, igual que PersonSearchCacheTests
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:personjdbc")
+class PersonJdbcRepositoryTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private PersonJdbcRepository personJdbcRepository;
+
+	@Test
+	void jdbcProjectionsMatchJpaProjections() {
+		assertThat(personJdbcRepository.getNames()).isNotEmpty()
+				.extracting(NameProjection::getName, NameProjection::getLastname)
+				.containsExactlyInAnyOrderElementsOf(personRepository.getNames().stream()
+						.map(p -> tuple(p.getName(), p.getLastname())).toList());
+		assertThat(personJdbcRepository.getNameDtos()).containsExactlyInAnyOrderElementsOf(personRepository.getNameDtos());
+		assertThat(personJdbcRepository.findPersonDtos()).containsExactlyInAnyOrderElementsOf(personRepository.findPersonDtos());
+		assertThat(personJdbcRepository.obtenerPersonDataList()).containsExactlyInAnyOrderElementsOf(personRepository.obtenerPersonDataList());
+	}
+}
@@ -0,0 +1,175 @@
+package com.tokioschool.spring.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.event.PersonChangedEvent;
+import com.tokioschool.spring.event.PersonChangedEvent.PersonState;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+
+// base de datos propia, igual que PersonSearchCacheTests
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:personnameindex")
+class PersonNameIndexTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private PersonNameIndex personNameIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void containsSearchesFollowTheChangesOfThePersons() {
+		assertThat(personNameIndex.isReady()).isTrue();
+		// data.sql; el ApplicationRunner anade ademas nombres aleatorios de Faker
+		assertThat(personRepository.searchLikeName("tadeo")).extracting(Person::getName).containsExactly("Tadeo");
+		assertThat(personRepository.findLikeName("Tade")).map(Person::getName).hasValue("Tadeo");
+		assertThat(personRepository.findLikeName("tade")).isEmpty(); // like distingue mayusculas
+
+		Person person = personRepository.save(Person.builder().name("Zacarias").lastname("Trigrama").programingLanguage("Java").build());
+		assertThat(personRepository.searchLikeName("CARI")).extracting(Person::getId).containsExactly(person.getId());
+		assertThat(personRepository.findPersonNameLikeNameV2("acar")).containsExactly("Zacarias");
+
+		person.setName("Zacarias Tadeo");
+		personRepository.save(person);
+		assertThat(personRepository.searchLikeName("TADEO")).extracting(Person::getName)
+				.containsExactlyInAnyOrder("Tadeo", "Zacarias Tadeo");
+		assertThatThrownBy(() -> personRepository.findByNameContains("Tadeo"))
+				.isInstanceOf(IncorrectResultSizeDataAccessException.class);
+
+		personRepository.delete(person);
+		assertThat(personRepository.searchLikeName("CARI")).isEmpty();
+	}
+
+	@Test
+	void hibernateBulkChangesRebuildTheIndex() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createNativeQuery("insert into persons (id, name, lastname, progaming_language) values (1001, 'Hermenegildo', 'Nativo', 'Java')")
+				.executeUpdate());
+		// justo despues del commit: el indice no esta listo y la busqueda va a la bbdd
+		assertThat(personRepository.searchLikeName("MENEG")).extracting(Person::getId).containsExactly(1001L);
+
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createQuery("update Person p set p.name = 'Hermenegilda' where p.id = 1001")
+				.executeUpdate());
+		assertThat(personRepository.findPersonNameLikeNameV2("gilda")).containsExactly("Hermenegilda");
+
+		awaitReady();
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.NAME, "gilda", false)).hasValueSatisfying(
+				ids -> assertThat(ids).containsExactly(1001L));
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.NAME, "gildo", false)).hasValueSatisfying(
+				ids -> assertThat(ids).isEmpty());
+
+		// los cambios de las entidades llegan como PersonChangedEvent: no hace falta reconstruir
+		Person person = personRepository.save(Person.builder().name("Filomeno").lastname("Entidad").programingLanguage("Java").build());
+		assertThat(personNameIndex.isReady()).isTrue();
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.NAME, "lomen", false)).hasValueSatisfying(
+				ids -> assertThat(ids).containsExactly(person.getId()));
+
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createQuery("delete from Person p where p.id = 1001").executeUpdate());
+		assertThat(personRepository.searchLikeName("MENEG")).isEmpty();
+		awaitReady();
+	}
+
+	@Test
+	void likeWildcardsGiveTheSameResultsAsTheLike() {
+		Person underscore = personRepository.save(Person.builder().name("Rosa_Maria").lastname("Comodin").programingLanguage("Java").build());
+		Person other = personRepository.save(Person.builder().name("RosaXMaria").lastname("Comodin").programingLanguage("Java").build());
+		assertThat(personNameIndex.isReady()).isTrue();
+
+		// "_" y "%" son comodines del like: el indice no puede responder y se busca en la bbdd
+		assertThat(personRepository.searchLikeName("sa_ma")).extracting(Person::getId)
+				.containsExactlyInAnyOrder(underscore.getId(), other.getId());
+		assertThat(personRepository.findPersonNameLikeNameV2("Rosa%Maria")).containsExactlyInAnyOrder("Rosa_Maria", "RosaXMaria");
+		assertThatThrownBy(() -> personRepository.findLikeName("a_M"))
+				.isInstanceOf(IncorrectResultSizeDataAccessException.class);
+	}
+
+	@Test
+	void jdbcChangesAreVisibleAfterARebuild() {
+		jdbcTemplate.update("insert into persons (id, name, lastname, progaming_language) values (1000, 'Eustaquio', 'Bulk', 'Java')");
+		assertThat(personRepository.searchLikeName("staq")).isEmpty();
+
+		personNameIndex.rebuild();
+		assertThat(personRepository.searchLikeName("staq")).extracting(Person::getId).containsExactly(1000L);
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.LASTNAME, "bul", true)).hasValueSatisfying(
+				ids -> assertThat(ids).containsExactly(1000L));
+
+		jdbcTemplate.update("delete from persons where id = 1000");
+		personNameIndex.rebuild();
+		assertThat(personRepository.findPersonNameLikeNameV2("staq")).isEqualTo(List.of());
+	}
+
+	@Test
+	void aTransactionSeesItsOwnChanges() {
+		transactionTemplate.executeWithoutResult(status -> {
+			// sin flush: la busqueda vuelca los cambios, como el auto flush del like
+			Person person = personRepository.save(Person.builder().name("Zebedeo").lastname("Propio").programingLanguage("Go").build());
+			assertThat(personRepository.searchLikeName("EBEDE")).extracting(Person::getId).containsExactly(person.getId());
+			assertThat(personRepository.findPersonNameLikeNameV2("bede")).containsExactly("Zebedeo");
+
+			person.setName("Zebedius");
+			assertThat(personRepository.findLikeName("Zebedius")).map(Person::getName).hasValue("Zebedius");
+			assertThat(personRepository.findPersonNameLikeNameV2("bedeo")).isEmpty();
+			status.setRollbackOnly();
+		});
+		assertThat(personRepository.searchLikeName("EBEDE")).isEmpty();
+	}
+
+	@Test
+	void nullSearchesMatchNothing() {
+		assertThat(personRepository.searchLikeName(null)).isEmpty();
+		assertThat(personRepository.findLikeName(null)).isEmpty();
+		assertThat(personRepository.findByNameContains(null)).isEmpty();
+		assertThat(personRepository.findPersonNameLikeNameV2(null)).isEmpty();
+	}
+
+	@Test
+	void anUpdateWithoutThePreviousStateRemovesTheOldName() {
+		personNameIndex.onPersonChanged(new PersonChangedEvent(PersonChangedEvent.Type.CREATED, 2000L, null,
+				new PersonState(2000L, "Anacleto", "Viejo", "Java")));
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.NAME, "nacle", false)).hasValueSatisfying(
+				ids -> assertThat(ids).containsExactly(2000L));
+
+		personNameIndex.onPersonChanged(new PersonChangedEvent(PersonChangedEvent.Type.UPDATED, 2000L, null,
+				new PersonState(2000L, "Casimiro", "Nuevo", "Java")));
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.NAME, "nacle", false)).hasValueSatisfying(
+				ids -> assertThat(ids).isEmpty());
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.LASTNAME, "viej", false)).hasValueSatisfying(
+				ids -> assertThat(ids).isEmpty());
+		assertThat(personNameIndex.idsContaining(PersonNameIndex.Field.NAME, "simi", false)).hasValueSatisfying(
+				ids -> assertThat(ids).containsExactly(2000L));
+
+		personNameIndex.onPersonChanged(new PersonChangedEvent(PersonChangedEvent.Type.DELETED, 2000L,
+				new PersonState(2000L, "Casimiro", "Nuevo", "Java"), null));
+	}
+
+	private void awaitReady() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!personNameIndex.isReady() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(personNameIndex.isReady()).isTrue();
+	}
+}
@@ -0,0 +1,115 @@
+package com.tokioschool.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+
+// base de datos propia con mas filas que el fetch_size (10) y que flush-every (7)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:personexport",
+		"spring.jpa.properties.hibernate.jdbc.fetch_size=10", "app.persons.export.flush-every=7" })
+@AutoConfigureMockMvc
+class PersonExportTests {
+
+	private static final int EXPORTED = 50;
+
+	@Autowired
+	private PersonExportService personExportService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void persons() {
+		if (personRepository.count() >= EXPORTED) {
+			return;
+		}
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < EXPORTED; i++) {
+			persons.add(Person.builder().name("Export " + i).lastname("Doe, \"Jr\"").programingLanguage("Java").build());
+		}
+		personRepository.saveAll(persons);
+	}
+
+	@Test
+	void ndjsonStreamsEveryRowWithoutFillingThePersistenceContext() throws Exception {
+		long rows = personRepository.count();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// en la misma transaccion que el test: se ve el contexto de persistencia que ha usado la exportacion
+		long written = transactionTemplate.execute(status -> {
+			try {
+				long count = personExportService.writeNdjson(out);
+				assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+				return count;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(written).isEqualTo(rows).isGreaterThan(10);
+		assertThat(lines).hasSize((int) rows);
+		JsonNode last = objectMapper.readTree(lines[lines.length - 1]);
+		assertThat(last.get("lastname").asText()).isEqualTo("Doe, \"Jr\"");
+		assertThat(last.get("id").asLong()).isPositive();
+	}
+
+	@Test
+	void csvIsStreamedByTheController() throws Exception {
+		long rows = personRepository.count();
+
+		MvcResult started = mockMvc.perform(get("/persons/export/csv"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String csv = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("text/csv"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"persons.csv\""))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		String[] lines = csv.split("\n");
+		assertThat(lines).hasSize((int) rows + 1);
+		assertThat(lines[0]).isEqualTo("id,name,lastname,programingLanguage");
+		assertThat(lines).filteredOn(line -> line.contains(",Export 0,"))
+				.hasSize(1)
+				.allSatisfy(line -> assertThat(line).endsWith(",Export 0,\"Doe, \"\"Jr\"\"\",Java"));
+	}
+}
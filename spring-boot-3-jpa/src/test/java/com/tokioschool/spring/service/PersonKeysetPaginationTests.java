@@ -0,0 +1,73 @@
+package com.tokioschool.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.codearp.application.jpa_support.pagination.KeysetPage;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+// base de datos propia: el contexto de SpringBoot3JpaApplicationTests sigue vivo y volveria a cargar data.sql en testdb
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:personkeyset")
+class PersonKeysetPaginationTests {
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Test
+	void nullNamesAreNeitherSkippedNorEndTheScroll() {
+		List<Person> saved = new ArrayList<>();
+		saved.add(personRepository.save(Person.builder().name("Zoe").lastname("Adams").programingLanguage("Lisp").build()));
+		saved.add(personRepository.save(Person.builder().name(null).lastname("Nobody").programingLanguage("Lisp").build()));
+		saved.add(personRepository.save(Person.builder().name("Mia").lastname(null).programingLanguage("Lisp").build()));
+		saved.add(personRepository.save(Person.builder().name("Mia").lastname("Brown").programingLanguage("Lisp").build()));
+		saved.add(personRepository.save(Person.builder().name(null).lastname(null).programingLanguage("Lisp").build()));
+		saved.add(personRepository.save(Person.builder().name("").lastname("Empty").programingLanguage("Lisp").build()));
+		Long lower = saved.getFirst().getId();
+		Long top = saved.getLast().getId();
+
+		// name desc, lastname asc, id asc con los nulos como ''
+		List<Long> expected = saved.stream()
+				.sorted(Comparator.comparing((Person p) -> Objects.toString(p.getName(), "")).reversed()
+						.thenComparing(p -> Objects.toString(p.getLastname(), ""))
+						.thenComparing(Person::getId))
+				.map(Person::getId)
+				.toList();
+
+		assertThat(scrollByIdBetween(lower, top, 2)).isEqualTo(expected);
+		assertThat(scrollSearch(null, "Lisp", 4)).isEqualTo(expected);
+	}
+
+	private List<Long> scrollByIdBetween(Long lower, Long top, int size) {
+		List<Long> ids = new ArrayList<>();
+		String token = null;
+		do {
+			KeysetPage<Person> page = personService.findByIdBetween(lower, top, token, size);
+			page.getContent().forEach(person -> ids.add(person.getId()));
+			token = page.getNextToken();
+		} while (token != null);
+		return ids;
+	}
+
+	private List<Long> scrollSearch(String name, String language, int size) {
+		List<Long> ids = new ArrayList<>();
+		String token = null;
+		do {
+			KeysetPage<Person> page = personService.search(name, language, token, size);
+			page.getContent().forEach(person -> ids.add(person.getId()));
+			token = page.getNextToken();
+		} while (token != null);
+		return ids;
+	}
+}
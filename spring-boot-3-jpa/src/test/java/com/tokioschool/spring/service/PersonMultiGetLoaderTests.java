@@ -0,0 +1,56 @@
+package com.tokioschool.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.tokioschool.spring.entity.Person;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// base de datos propia (solo las 3 personas de data.sql); las estadisticas de Hibernate cuentan los bloques
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:personmultiget", "app.multi-get.chunk-size=2",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+class PersonMultiGetLoaderTests {
+
+	@Autowired
+	private PersonMultiGetLoader personMultiGetLoader;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void loadsChunksAndKeepsTheInputOrder() {
+		long executions = chunkQuery().getExecutionCount();
+
+		// 4 ids distintos (el 999 no existe, el 3 se repite y el null se ignora): 2 bloques de 2
+		List<Person> persons = personMultiGetLoader.getPersonByIds(Arrays.asList(3L, 999L, null, 1L, 2L, 3L));
+
+		assertThat(persons).extracting(Person::getId).containsExactly(3L, 1L, 2L, 3L);
+		assertThat(persons.get(0)).isSameAs(persons.get(3));
+		assertThat(chunkQuery().getExecutionCount() - executions).isEqualTo(2);
+	}
+
+	@Test
+	void unknownOrNoIdsReturnNothing() {
+		long executions = chunkQuery().getExecutionCount();
+
+		assertThat(personMultiGetLoader.getPersonByIds(List.of())).isEmpty();
+		assertThat(chunkQuery().getExecutionCount()).isEqualTo(executions);
+
+		assertThat(personMultiGetLoader.getPersonByIds(List.of(997L, 998L, 999L))).isEmpty();
+		assertThat(chunkQuery().getExecutionCount() - executions).isEqualTo(2);
+	}
+
+	private QueryStatistics chunkQuery() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+				.getQueryStatistics("select p from Person p where p.id in (?1)");
+	}
+}
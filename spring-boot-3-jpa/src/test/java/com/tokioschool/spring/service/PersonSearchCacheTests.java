@@ -0,0 +1,76 @@
+package com.tokioschool.spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tokioschool.spring.dto.PersonSummary;
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+
+// base de datos propia: el contexto de SpringBoot3JpaApplicationTests sigue vivo y volveria a cargar data.sql en testdb
+@SpringBootTest(properties = { "spring.cache.type=caffeine", "spring.datasource.url=jdbc:h2:mem:personsearch" })
+class PersonSearchCacheTests {
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void searchIsCachedAndEvictedWhenAPersonChanges() {
+		List<PersonSummary> first = personService.searchSummaries(null, "Cobol");
+		assertThat(personService.searchSummaries(null, "Cobol")).isSameAs(first);
+
+		Person person = personRepository.save(Person.builder().name("Grace").lastname("Hopper").programingLanguage("Cobol").build());
+		assertThat(personService.searchSummaries(null, "Cobol")).extracting(PersonSummary::getId).contains(person.getId());
+
+		person.setProgramingLanguage("Fortran");
+		personRepository.save(person);
+		assertThat(personService.searchSummaries(null, "Cobol")).extracting(PersonSummary::getId).doesNotContain(person.getId());
+		assertThat(personService.searchSummaries(null, "Fortran")).extracting(PersonSummary::getId).containsExactly(person.getId());
+	}
+
+	@Test
+	void searchIsEvictedByABulkUpdate() {
+		Person person = personRepository.save(Person.builder().name("Niklaus").lastname("Wirth").programingLanguage("Pascal").build());
+		assertThat(personService.searchSummaries("Niklaus", "Pascal")).extracting(PersonSummary::getId).containsExactly(person.getId());
+
+		// JPQL masivo: no pasa por los listeners de las entidades ni publica PersonChangedEvent
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createQuery("update Person p set p.programingLanguage = 'Modula-2' where p.programingLanguage = 'Pascal'")
+				.executeUpdate());
+
+		assertThat(personService.searchSummaries("Niklaus", "Pascal")).isEmpty();
+		assertThat(personService.searchSummaries("Niklaus", "Modula-2")).extracting(PersonSummary::getId).containsExactly(person.getId());
+	}
+
+	@Test
+	void planCacheSearchMatchesTheSpecifications() {
+		Person ada = personRepository.save(Person.builder().name("Ada").lastname("Lovelace").programingLanguage("Ada").build());
+		personRepository.save(Person.builder().name("Ada").lastname("Yonath").programingLanguage("Fortran").build());
+
+		String[][] shapes = { { "Ada", "Ada" }, { "Ada", null }, { null, "Ada" }, { null, null } };
+		for (String[] shape : shapes) {
+			assertThat(personService.search(shape[0], shape[1])).extracting(Person::getId)
+					.containsExactlyInAnyOrderElementsOf(personService.searchBySpecification(shape[0], shape[1]).stream()
+							.map(Person::getId).toList());
+		}
+		assertThat(personService.search("Ada", "Ada")).extracting(Person::getId).containsExactly(ada.getId());
+		assertThat(personService.searchSummaries("Ada", "Ada")).extracting(PersonSummary::getId).containsExactly(ada.getId());
+	}
+}
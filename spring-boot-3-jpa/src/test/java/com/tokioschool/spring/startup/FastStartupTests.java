@@ -0,0 +1,32 @@
+package com.tokioschool.spring.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import com.codearp.application.jpa_support.startup.StartupTasks;
+
+// base de datos propia, igual que PersonSearchCacheTests
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststartup")
+@ActiveProfiles("fast-startup")
+class FastStartupTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private StartupTasks startupTasks;
+
+	@Test
+	void deferredBootstrapLoadsDataSqlAfterTheSchema() {
+		assertThat(startupTasks.isBackground()).isTrue();
+		// data.sql, con el EntityManagerFactory construido en segundo plano
+		assertThat(personRepository.findOneName("Tadeo")).map(Person::getName).hasValue("Tadeo");
+	}
+}
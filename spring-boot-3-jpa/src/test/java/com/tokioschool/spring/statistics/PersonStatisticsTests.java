@@ -0,0 +1,122 @@
+package com.tokioschool.spring.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tokioschool.spring.entity.Person;
+import com.tokioschool.spring.repository.PersonRepository;
+
+import jakarta.persistence.EntityManager;
+
+// base de datos propia, igual que PersonSearchCacheTests; sin reconciliaciones durante el test
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:personstatistics",
+		"app.persons.statistics.reconcile-interval=1h" })
+class PersonStatisticsTests {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private PersonStatistics personStatistics;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void aggregatesFollowTheChangesAndTheReconciliation() {
+		personStatistics.reconcile();
+		assertThat(personStatistics.snapshot()).isPresent();
+		assertMatchesTable();
+
+		Person person = personRepository.save(Person.builder().name("Maximiliano Estadistica Incremental")
+				.lastname("Stats").programingLanguage("Cobol").build());
+		assertThat(personStatistics.snapshot()).hasValueSatisfying(snapshot -> {
+			assertThat(snapshot.getMaxId()).isEqualTo(person.getId());
+			assertThat(snapshot.getLongestNameLength()).isEqualTo(person.getName().length());
+		});
+		assertMatchesTable();
+
+		person.setName("Tadeo");
+		personRepository.save(person);
+		assertThat(personRepository.countByName("Tadeo")).isEqualTo(2);
+		assertMatchesTable();
+
+		// el id maximo ya no se conoce: minId/maxId van a la tabla
+		personRepository.delete(person);
+		assertThat(personStatistics.snapshot()).hasValueSatisfying(snapshot -> assertThat(snapshot.isIdRangeKnown()).isFalse());
+		assertMatchesTable();
+
+		// los cambios masivos no generan eventos, los corrige la reconciliacion
+		jdbcTemplate.update("update persons set name = 'Tadeo' where name = 'Simon'");
+		assertThat(personRepository.countByName("Tadeo")).isEqualTo(1);
+		personStatistics.reconcile();
+		assertThat(personRepository.countByName("Tadeo")).isEqualTo(2);
+		assertMatchesTable();
+	}
+
+	@Test
+	void hibernateBulkChangesAreReconciled() throws Exception {
+		personStatistics.reconcile();
+		Person person = personRepository.save(Person.builder().name("Bulk Estadistica").lastname("Stats").programingLanguage("Ada").build());
+
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createQuery("update Person p set p.name = 'Tadeo' where p.id = :id").setParameter("id", person.getId())
+				.executeUpdate());
+		// sin esperar a la reconciliacion: las consultas van a la tabla
+		assertMatchesTable();
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (personStatistics.snapshot().isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(personStatistics.snapshot()).isPresent();
+		assertMatchesTable();
+
+		transactionTemplate.executeWithoutResult(status -> entityManager
+				.createNativeQuery("delete from persons where id = :id").setParameter("id", person.getId())
+				.executeUpdate());
+		assertMatchesTable();
+	}
+
+	@Test
+	void aTransactionSeesItsOwnChanges() {
+		personStatistics.reconcile();
+		transactionTemplate.executeWithoutResult(status -> {
+			// sin flush: las consultas vuelcan los cambios, como el auto flush del JPQL
+			personRepository.save(Person.builder().name("Tadeo").lastname("Propio").programingLanguage("Fortran").build());
+			assertMatchesTable();
+			personRepository.deleteById(personRepository.minId());
+			assertMatchesTable();
+			status.setRollbackOnly();
+		});
+		assertThat(personStatistics.snapshot()).isPresent();
+		assertMatchesTable();
+	}
+
+	private void assertMatchesTable() {
+		assertThat(personRepository.totalPerson()).isEqualTo(jdbcTemplate.queryForObject("select count(*) from persons", Long.class));
+		assertThat(personRepository.minId()).isEqualTo(jdbcTemplate.queryForObject("select min(id) from persons", Long.class));
+		assertThat(personRepository.maxId()).isEqualTo(jdbcTemplate.queryForObject("select max(id) from persons", Long.class));
+		assertThat(personRepository.countByName("Tadeo"))
+				.isEqualTo(jdbcTemplate.queryForObject("select count(*) from persons where name = 'Tadeo'", Integer.class));
+		assertThat(personRepository.getProgamingLanguageDistintCount())
+				.containsExactly(jdbcTemplate.queryForObject("select count(distinct progaming_language) from persons", Long.class));
+		assertThat((Object[]) personRepository.getResumenAggregationFunction()).containsExactly(jdbcTemplate.queryForObject(
+				"select min(id), max(id), sum(id), avg(cast(length(name) as double)), count(*) from persons",
+				(rs, row) -> new Object[] { rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4), rs.getLong(5) }));
+		assertThat(personRepository.getPersonWithLongestName()).extracting(Person::getId)
+				.containsExactlyInAnyOrderElementsOf(jdbcTemplate.queryForList(
+						"select id from persons where length(name) = (select max(length(name)) from persons)", Long.class));
+	}
+}
@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+#
+# Arranque rapido de uno de los proyectos:
+#   1. build con el perfil de Maven "aot" (procesado AOT de Spring + jar ejecutable -exec.jar)
+#   2. jar extraido (java -Djarmode=tools ... extract) y archivo CDS (AppCDS) de un arranque de entrenamiento que
+#      para al terminar el refresh del contexto (spring.context.exit=onRefresh)
+#   3. arranque con -Dspring.aot.enabled=true, el archivo CDS y el perfil de Spring "fast-startup"
+#
+#   ./startup-optimized.sh spring-boot-3-jpa [argumentos de la aplicacion]
+#   ./startup-optimized.sh demospring_boot3_jpa_relationship [argumentos de la aplicacion]
+#
+# SKIP_BUILD=1 reutiliza el build y el archivo CDS anteriores. El archivo solo vale para el mismo jar y la misma JVM,
+# con un build nuevo se vuelve a generar.
+# La linea de tiempo del arranque (StartupTimelineReport) queda en <proyecto>/target/startup-timeline.tsv
+set -euo pipefail
+
+module=${1:?"uso: $0 <spring-boot-3-jpa|demospring_boot3_jpa_relationship> [argumentos de la aplicacion]"}
+shift
+case "$module" in
+    spring-boot-3-jpa)
+        maven_profiles=aot
+        spring_profiles=fast-startup
+        ;;
+    demospring_boot3_jpa_relationship)
+        # con -P el perfil de Maven test (spring.profiles.active=test, H2) deja de estar activo por defecto
+        maven_profiles=test,aot
+        spring_profiles=test,fast-startup
+        ;;
+    *)
+        echo "Proyecto desconocido: $module" >&2
+        exit 1
+        ;;
+esac
+
+java=${JAVA_HOME:+$JAVA_HOME/bin/}java
+cd "$(dirname "$0")/$module"
+app=target/startup
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    mvn -B -q -f ../jpa-support/pom.xml install -DskipTests
+    mvn -B -q package -DskipTests -P"$maven_profiles"
+    rm -rf "$app"
+fi
+
+if [ ! -f "$app/app.jsa" ]; then
+    rm -rf "$app"
+    "$java" -Djarmode=tools -jar target/*-exec.jar extract --destination "$app"
+    # la JVM guarda al salir las clases cargadas hasta ese momento
+    "$java" -XX:ArchiveClassesAtExit="$app/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+        -jar "$app"/*.jar --spring.profiles.active="$spring_profiles"
+fi
+
+exec "$java" -XX:SharedArchiveFile="$app/app.jsa" -Dspring.aot.enabled=true -jar "$app"/*.jar \
+    --spring.profiles.active="$spring_profiles" --app.startup.timeline.file=target/startup-timeline.tsv "$@"